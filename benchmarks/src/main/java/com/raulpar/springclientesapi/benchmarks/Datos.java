@@ -0,0 +1,43 @@
+package com.raulpar.springclientesapi.benchmarks;
+
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de prueba comunes a los benchmarks.
+ */
+final class Datos {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 4, 19, 10, 30);
+
+    private Datos() {
+    }
+
+    static List<Cliente> clientes(int n) {
+        List<Cliente> clientes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Cliente cliente = new Cliente(String.format("%08dA", i), "Nombre" + i, "Apellido" + i,
+                    "cliente" + i + "@gmail.com", "Calle " + i, "Madrid", "Madrid");
+            cliente.setIdCliente((long) i + 1);
+            clientes.add(cliente);
+        }
+        return clientes;
+    }
+
+    static List<Pedido> pedidos(int n) {
+        List<Pedido> pedidos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setIdCliente((long) (i % 1000) + 1);
+            Pedido pedido = new Pedido(cliente);
+            pedido.setNumPedido((long) i + 1);
+            pedido.setFecha(FECHA.plusMinutes(i));
+            pedidos.add(pedido);
+        }
+        return pedidos;
+    }
+}
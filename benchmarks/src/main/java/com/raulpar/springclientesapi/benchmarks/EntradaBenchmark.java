@@ -0,0 +1,67 @@
+package com.raulpar.springclientesapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.raulpar.springclientesapi.dto.ClienteInputDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de un ClienteInputDto desde JSON y su validación, como en POST y PUT /api/clientes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntradaBenchmark {
+
+    private static final byte[] JSON = """
+            {"dni":"12345678A","nombre":"Juan","apellidos":"Pérez","email":"juan@gmail.com",
+             "calle":"Calle Malaga 10","municipio":"Madrid","provincia":"Madrid"}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private ObjectReader reader;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ClienteInputDto cliente;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        reader = objectMapper.readerFor(ClienteInputDto.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        cliente = reader.readValue(JSON);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public ClienteInputDto deserializar() throws IOException {
+        return reader.readValue(JSON);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ClienteInputDto>> validar() {
+        return validator.validate(cliente);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ClienteInputDto>> deserializarYValidar() throws IOException {
+        return validator.validate(reader.<ClienteInputDto>readValue(JSON));
+    }
+}
@@ -0,0 +1,108 @@
+package com.raulpar.springclientesapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.mapper.ClienteMapperImpl;
+import com.raulpar.springclientesapi.mapper.PedidoMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialización de los listados en JSON, Smile y CBOR, sin comprimir y con gzip (como
+ * {@code server.compression}). Al preparar cada combinación se imprime el tamaño en bytes
+ * de cada listado en ese formato, con y sin gzip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatosBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String formato;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"1000"})
+    private int n;
+
+    private ObjectWriter clientesWriter;
+    private ObjectWriter detallesWriter;
+    private ObjectWriter pedidosWriter;
+
+    private List<ClienteOutputDto> clientes;
+    private List<ClienteOutputDetailDto> detalles;
+    private List<PedidoDto> pedidos;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(formato)).build();
+        clientesWriter = objectMapper.writerFor(new TypeReference<List<ClienteOutputDto>>() { });
+        detallesWriter = objectMapper.writerFor(new TypeReference<List<ClienteOutputDetailDto>>() { });
+        pedidosWriter = objectMapper.writerFor(new TypeReference<List<PedidoDto>>() { });
+        ClienteMapperImpl clienteMapper = new ClienteMapperImpl();
+        clientes = clienteMapper.toOutputList(Datos.clientes(n));
+        detalles = Datos.clientes(n).stream().map(clienteMapper::toDetailDto).toList();
+        pedidos = new PedidoMapperImpl().toDtoList(Datos.pedidos(n));
+
+        System.out.printf("%nTamaño (%s, gzip=%s, n=%d): clientes %d B, detalles %d B, pedidos %d B%n", formato, gzip, n,
+                tamano(clientesWriter, clientes), tamano(detallesWriter, detalles), tamano(pedidosWriter, pedidos));
+    }
+
+    private static JsonFactory factory(String formato) {
+        return switch (formato) {
+            case "json" -> new JsonFactory();
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> throw new IllegalArgumentException("Formato desconocido: " + formato);
+        };
+    }
+
+    private long tamano(ObjectWriter writer, Object valor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        escribir(writer, valor, bytes);
+        return bytes.size();
+    }
+
+    private void escribir(ObjectWriter writer, Object valor, OutputStream destino) throws IOException {
+        if (gzip) {
+            try (GZIPOutputStream comprimido = new GZIPOutputStream(destino)) {
+                writer.writeValue(comprimido, valor);
+            }
+        } else {
+            writer.writeValue(destino, valor);
+        }
+    }
+
+    @Benchmark
+    public void serializarClientes() throws IOException {
+        escribir(clientesWriter, clientes, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void serializarDetalles() throws IOException {
+        escribir(detallesWriter, detalles, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void serializarPedidos() throws IOException {
+        escribir(pedidosWriter, pedidos, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,58 @@
+package com.raulpar.springclientesapi.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.mapper.ClienteMapperImpl;
+import com.raulpar.springclientesapi.mapper.PedidoMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización con Jackson de los listados de clientes y pedidos.
+ * Se escribe a un flujo nulo para medir solo la serialización, sin el coste de un buffer en memoria.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int n;
+
+    private ObjectWriter clientesWriter;
+    private ObjectWriter pedidosWriter;
+
+    private List<ClienteOutputDto> clientes;
+    private List<PedidoDto> pedidos;
+
+    @Setup
+    public void setUp() {
+        // Misma configuración base que el ObjectMapper de Spring Boot (fechas ISO-8601)
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        clientesWriter = objectMapper.writerFor(new TypeReference<List<ClienteOutputDto>>() { });
+        pedidosWriter = objectMapper.writerFor(new TypeReference<List<PedidoDto>>() { });
+        clientes = new ClienteMapperImpl().toOutputList(Datos.clientes(n));
+        pedidos = new PedidoMapperImpl().toDtoList(Datos.pedidos(n));
+    }
+
+    @Benchmark
+    public void serializarClientes() throws IOException {
+        clientesWriter.writeValue(OutputStream.nullOutputStream(), clientes);
+    }
+
+    @Benchmark
+    public void serializarPedidos() throws IOException {
+        pedidosWriter.writeValue(OutputStream.nullOutputStream(), pedidos);
+    }
+}
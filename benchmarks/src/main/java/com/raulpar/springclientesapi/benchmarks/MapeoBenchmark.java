@@ -0,0 +1,59 @@
+package com.raulpar.springclientesapi.benchmarks;
+
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.mapper.ClienteMapper;
+import com.raulpar.springclientesapi.mapper.ClienteMapperImpl;
+import com.raulpar.springclientesapi.mapper.PedidoMapper;
+import com.raulpar.springclientesapi.mapper.PedidoMapperImpl;
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo con MapStruct de entidades a DTOs de salida, tal y como se hace en cada respuesta.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeoBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int n;
+
+    private final ClienteMapper clienteMapper = new ClienteMapperImpl();
+    private final PedidoMapper pedidoMapper = new PedidoMapperImpl();
+
+    private List<Cliente> clientes;
+    private List<Pedido> pedidos;
+
+    @Setup
+    public void setUp() {
+        clientes = Datos.clientes(n);
+        pedidos = Datos.pedidos(n);
+    }
+
+    @Benchmark
+    public List<ClienteOutputDto> clienteToOutputList() {
+        return clienteMapper.toOutputList(clientes);
+    }
+
+    @Benchmark
+    public void clienteToDetailDto(Blackhole blackhole) {
+        for (Cliente cliente : clientes) {
+            blackhole.consume(clienteMapper.toDetailDto(cliente));
+        }
+    }
+
+    @Benchmark
+    public List<PedidoDto> pedidoToDtoList() {
+        return pedidoMapper.toDtoList(pedidos);
+    }
+}
@@ -0,0 +1,15 @@
+package com.raulpar.springclientesapi.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Versión no bloqueante de la API (WebFlux + R2DBC) sobre las mismas tablas que la aplicación principal.
+ */
+@SpringBootApplication
+public class SpringClientesReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(SpringClientesReactiveApplication.class, args);
+    }
+}
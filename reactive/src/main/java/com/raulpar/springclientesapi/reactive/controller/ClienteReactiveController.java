@@ -0,0 +1,92 @@
+package com.raulpar.springclientesapi.reactive.controller;
+
+import com.raulpar.springclientesapi.dto.ClienteInputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.reactive.service.ClienteReactiveService;
+import com.raulpar.springclientesapi.reactive.service.PedidoReactiveService;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/clientes")
+@RequiredArgsConstructor
+public class ClienteReactiveController {
+
+    private final ClienteReactiveService clienteService;
+    private final PedidoReactiveService pedidoService;
+
+    @GetMapping
+    public Mono<ResponseEntity<CursorPageDto<ClienteOutputDto>>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit) {
+        return Mono.fromCallable(() -> CursorUtils.decode(cursor))
+                .flatMap(despuesDe -> clienteService.findPage(despuesDe, limit))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    // Todos los clientes en NDJSON, con backpressure: las filas se leen al ritmo al que el cliente consume
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ClienteOutputDto> stream() {
+        return clienteService.stream();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ClienteOutputDetailDto>> getById(@PathVariable Long id) {
+        return clienteService.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/pedidos")
+    public Mono<ResponseEntity<CursorPageDto<PedidoDto>>> getPedidos(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit) {
+        return Mono.fromCallable(() -> CursorUtils.decode(cursor))
+                .flatMap(despuesDe -> pedidoService.findByCliente(id, despuesDe, limit)
+                        .map(ResponseEntity::ok)
+                        .defaultIfEmpty(ResponseEntity.notFound().build()))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ClienteOutputDetailDto>> update(@PathVariable Long id, @Valid @RequestBody ClienteInputDto clienteDto) {
+        return clienteService.update(id, clienteDto)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ClienteOutputDetailDto>> create(@Valid @RequestBody ClienteInputDto clienteInputDto) {
+        return clienteService.save(clienteInputDto)
+                .map(cliente -> ResponseEntity.status(HttpStatus.CREATED).body(cliente))
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<ClienteOutputDetailDto>> delete(@PathVariable Long id) {
+        return clienteService.deleteById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/dni/{dni}")
+    public Mono<ResponseEntity<ClienteOutputDetailDto>> getByDni(@PathVariable String dni) {
+        return clienteService.findByDni(dni)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
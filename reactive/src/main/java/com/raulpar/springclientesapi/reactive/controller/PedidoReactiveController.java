@@ -0,0 +1,82 @@
+package com.raulpar.springclientesapi.reactive.controller;
+
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.PedidoCreateDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.reactive.service.PedidoReactiveService;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/pedidos")
+@RequiredArgsConstructor
+public class PedidoReactiveController {
+
+    private final PedidoReactiveService pedidoService;
+
+    @GetMapping
+    public Mono<ResponseEntity<CursorPageDto<PedidoDto>>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit) {
+        return Mono.fromCallable(() -> CursorUtils.decode(cursor))
+                .flatMap(despuesDe -> pedidoService.findPage(despuesDe, limit))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    // Todos los pedidos en NDJSON, con backpressure: las filas se leen al ritmo al que el cliente consume
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PedidoDto> export() {
+        return pedidoService.export();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<PedidoDto>> getById(@PathVariable Long id) {
+        return pedidoService.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<PedidoDto>> create(@Valid @RequestBody PedidoCreateDto pedidoCreateDto) {
+        return pedidoService.save(pedidoCreateDto)
+                .map(pedido -> ResponseEntity.status(HttpStatus.CREATED).body(pedido))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return pedidoService.deleteById(id)
+                .map(eliminado -> eliminado ? ResponseEntity.ok().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    @GetMapping(value = "/fecha", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PedidoDto> getByFecha(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return pedidoService.findByFecha(fecha);
+    }
+
+    @GetMapping("/rango")
+    public Mono<ResponseEntity<CursorPageDto<PedidoDto>>> getByRango(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit) {
+        if (desde.isAfter(hasta)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.fromCallable(() -> CursorUtils.decode(cursor))
+                .flatMap(despuesDe -> pedidoService.findByRango(desde, hasta, despuesDe, limit))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.raulpar.springclientesapi.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Fila de la tabla Cliente. A diferencia de la entidad JPA, no tiene colección de pedidos:
+ * los pedidos de un cliente se consultan siempre por separado.
+ */
+@Table("Cliente")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cliente {
+
+    @Id
+    @Column("idCliente")
+    private Long idCliente;
+
+    private String dni;
+
+    private String nombre;
+
+    private String apellidos;
+
+    private String email;
+
+    private String calle;
+
+    private String municipio;
+
+    private String provincia;
+
+    // Versión de la fila, compartida con la aplicación principal (ETag y bloqueo optimista)
+    @Version
+    private Long version;
+}
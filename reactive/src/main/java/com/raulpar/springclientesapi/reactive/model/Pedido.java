@@ -0,0 +1,29 @@
+package com.raulpar.springclientesapi.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la tabla Pedidos, con el cliente como clave ajena (sin relación cargada).
+ */
+@Table("Pedidos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Pedido {
+
+    @Id
+    @Column("numPedido")
+    private Long numPedido;
+
+    @Column("id_cliente")
+    private Long idCliente;
+
+    private LocalDateTime fecha;
+}
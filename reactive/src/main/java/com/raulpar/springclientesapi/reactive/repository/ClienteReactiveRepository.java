@@ -0,0 +1,20 @@
+package com.raulpar.springclientesapi.reactive.repository;
+
+import com.raulpar.springclientesapi.reactive.model.Cliente;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ClienteReactiveRepository extends R2dbcRepository<Cliente, Long> {
+
+    Mono<Cliente> findByDni(String dni);
+
+    // Paginación por cursor: recorrido por rango sobre la clave primaria
+    @Query("select * from Cliente where idCliente > :idCliente order by idCliente limit :limit")
+    Flux<Cliente> findPage(long idCliente, int limit);
+
+    // Recorrido completo para el streaming de clientes
+    @Query("select * from Cliente order by idCliente")
+    Flux<Cliente> streamAll();
+}
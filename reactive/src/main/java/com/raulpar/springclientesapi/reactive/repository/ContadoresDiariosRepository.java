@@ -0,0 +1,51 @@
+package com.raulpar.springclientesapi.reactive.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Mantenimiento de los contadores de pedidos por día (PedidosPorDia y PedidosPorDiaCliente),
+ * con las mismas sentencias que la aplicación principal.
+ * Debe llamarse dentro de la transacción que modifica los pedidos.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ContadoresDiariosRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Suma un pedido creado (delta positivo) o eliminado (delta negativo) al día y al cliente.
+     */
+    public Mono<Void> sumar(LocalDate fecha, long idCliente, long delta) {
+        if (delta > 0) {
+            return databaseClient.sql("insert into PedidosPorDia (fecha, total) values (:fecha, :delta) " +
+                            "on duplicate key update total = total + values(total)")
+                    .bind("fecha", fecha).bind("delta", delta).then()
+                    .then(databaseClient.sql("insert into PedidosPorDiaCliente (fecha, id_cliente, total) " +
+                                    "values (:fecha, :idCliente, :delta) on duplicate key update total = total + values(total)")
+                            .bind("fecha", fecha).bind("idCliente", idCliente).bind("delta", delta).then());
+        }
+        return databaseClient.sql("update PedidosPorDia set total = total - :delta where fecha = :fecha")
+                .bind("delta", -delta).bind("fecha", fecha).then()
+                .then(databaseClient.sql("update PedidosPorDiaCliente set total = total - :delta " +
+                                "where fecha = :fecha and id_cliente = :idCliente")
+                        .bind("delta", -delta).bind("fecha", fecha).bind("idCliente", idCliente).then());
+    }
+
+    /**
+     * Descuenta todos los pedidos de un cliente antes de eliminarlo.
+     */
+    public Mono<Void> restarCliente(long idCliente) {
+        return databaseClient.sql("update PedidosPorDia d set total = total - " +
+                        "(select c.total from PedidosPorDiaCliente c where c.fecha = d.fecha and c.id_cliente = :idCliente) " +
+                        "where d.fecha in (select c.fecha from PedidosPorDiaCliente c where c.id_cliente = :idCliente)")
+                .bind("idCliente", idCliente).then()
+                .then(databaseClient.sql("delete from PedidosPorDiaCliente where id_cliente = :idCliente")
+                        .bind("idCliente", idCliente).then());
+    }
+}
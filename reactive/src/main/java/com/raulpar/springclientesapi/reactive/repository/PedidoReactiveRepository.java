@@ -0,0 +1,68 @@
+package com.raulpar.springclientesapi.reactive.repository;
+
+import com.raulpar.springclientesapi.reactive.model.Pedido;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface PedidoReactiveRepository extends R2dbcRepository<Pedido, Long> {
+
+    // Paginación por cursor: recorrido por rango sobre la clave primaria
+    @Query("select * from Pedidos where numPedido > :numPedido order by numPedido limit :limit")
+    Flux<Pedido> findPage(long numPedido, int limit);
+
+    // Paginación por cursor dentro de un rango de fechas [desde, hasta)
+    @Query("select * from Pedidos where fecha >= :desde and fecha < :hasta and numPedido > :numPedido " +
+            "order by numPedido limit :limit")
+    Flux<Pedido> findPageByFecha(LocalDateTime desde, LocalDateTime hasta, long numPedido, int limit);
+
+    // Paginación por cursor de los pedidos de un cliente, sobre el índice (id_cliente, numPedido)
+    @Query("select * from Pedidos where id_cliente = :idCliente and numPedido > :numPedido order by numPedido limit :limit")
+    Flux<Pedido> findPageByCliente(long idCliente, long numPedido, int limit);
+
+    @Query("select * from Pedidos where fecha >= :desde and fecha < :hasta order by numPedido")
+    Flux<Pedido> findByFecha(LocalDateTime desde, LocalDateTime hasta);
+
+    // Recorrido completo para exportaciones: las filas se piden al driver según la demanda del cliente HTTP
+    @Query("select * from Pedidos order by numPedido")
+    Flux<Pedido> streamAll();
+
+    @Modifying
+    @Query("delete from Pedidos where id_cliente = :idCliente")
+    Mono<Long> deleteByIdCliente(long idCliente);
+
+    // Pedidos del cliente movidos al archivo por la aplicación principal (tabla PedidosArchivo)
+    @Modifying
+    @Query("delete from PedidosArchivo where id_cliente = :idCliente")
+    Mono<Long> deleteArchivadosByIdCliente(long idCliente);
+
+    // Mismas consultas sobre el archivo, con las mismas columnas que Pedidos, para mezclarlas con las anteriores
+
+    @Query("select * from PedidosArchivo where numPedido = :numPedido")
+    Mono<Pedido> findArchivadoById(long numPedido);
+
+    @Modifying
+    @Query("delete from PedidosArchivo where numPedido = :numPedido")
+    Mono<Long> deleteArchivadoById(long numPedido);
+
+    @Query("select * from PedidosArchivo where numPedido > :numPedido order by numPedido limit :limit")
+    Flux<Pedido> findArchivadosPage(long numPedido, int limit);
+
+    @Query("select * from PedidosArchivo where fecha >= :desde and fecha < :hasta and numPedido > :numPedido " +
+            "order by numPedido limit :limit")
+    Flux<Pedido> findArchivadosPageByFecha(LocalDateTime desde, LocalDateTime hasta, long numPedido, int limit);
+
+    @Query("select * from PedidosArchivo where id_cliente = :idCliente and numPedido > :numPedido " +
+            "order by numPedido limit :limit")
+    Flux<Pedido> findArchivadosPageByCliente(long idCliente, long numPedido, int limit);
+
+    @Query("select * from PedidosArchivo where fecha >= :desde and fecha < :hasta order by numPedido")
+    Flux<Pedido> findArchivadosByFecha(LocalDateTime desde, LocalDateTime hasta);
+
+    @Query("select * from PedidosArchivo order by numPedido")
+    Flux<Pedido> streamAllArchivados();
+}
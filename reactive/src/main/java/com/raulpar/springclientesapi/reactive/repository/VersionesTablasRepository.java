@@ -0,0 +1,31 @@
+package com.raulpar.springclientesapi.reactive.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versiones de las tablas (VersionesTablas) que la aplicación principal usa como ETag de los listados,
+ * con las mismas sentencias que la aplicación principal.
+ * Debe llamarse dentro de la transacción que modifica la tabla.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VersionesTablasRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> cambioClientes() {
+        return cambio("Cliente");
+    }
+
+    public Mono<Void> cambioPedidos() {
+        return cambio("Pedidos");
+    }
+
+    private Mono<Void> cambio(String tabla) {
+        return databaseClient.sql("update VersionesTablas set version = version + 1 where tabla = :tabla")
+                .bind("tabla", tabla).then();
+    }
+}
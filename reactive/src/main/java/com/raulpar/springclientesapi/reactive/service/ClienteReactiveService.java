@@ -0,0 +1,114 @@
+package com.raulpar.springclientesapi.reactive.service;
+
+import com.raulpar.springclientesapi.dto.ClienteInputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.reactive.model.Cliente;
+import com.raulpar.springclientesapi.reactive.repository.ClienteReactiveRepository;
+import com.raulpar.springclientesapi.reactive.repository.ContadoresDiariosRepository;
+import com.raulpar.springclientesapi.reactive.repository.PedidoReactiveRepository;
+import com.raulpar.springclientesapi.reactive.repository.VersionesTablasRepository;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión no bloqueante de ClienteService.
+ */
+@RequiredArgsConstructor
+@Service
+public class ClienteReactiveService {
+
+    private final ClienteReactiveRepository clienteRepository;
+    private final PedidoReactiveRepository pedidoRepository;
+    private final ContadoresDiariosRepository contadoresRepository;
+    private final VersionesTablasRepository versionesTablas;
+
+    /**
+     * Devuelve una página de clientes ordenada por ID usando paginación por cursor.
+     *
+     * @param despuesDe ID del último cliente de la página anterior (0 para la primera)
+     * @param limit     Número máximo de clientes a devolver
+     * @return Página con los clientes y el cursor de la siguiente página
+     */
+    public Mono<CursorPageDto<ClienteOutputDto>> findPage(long despuesDe, int limit) {
+        int size = CursorUtils.clampLimit(limit);
+        return clienteRepository.findPage(despuesDe, size + 1)
+                .map(ClienteReactiveService::toDto)
+                .collectList()
+                .map(clientes -> CursorUtils.toPage(clientes, size, ClienteOutputDto::getIdCliente));
+    }
+
+    /**
+     * Emite todos los clientes ordenados por ID, leyéndolos de la base de datos según la demanda del suscriptor.
+     */
+    public Flux<ClienteOutputDto> stream() {
+        return clienteRepository.streamAll().map(ClienteReactiveService::toDto);
+    }
+
+    public Mono<ClienteOutputDetailDto> findById(Long id) {
+        return clienteRepository.findById(id).map(ClienteReactiveService::toDetailDto);
+    }
+
+    public Mono<ClienteOutputDetailDto> findByDni(String dni) {
+        return clienteRepository.findByDni(dni).map(ClienteReactiveService::toDetailDto);
+    }
+
+    /**
+     * Guarda un cliente nuevo y cambia la versión de la tabla en la misma transacción.
+     * Si el DNI ya existe el Mono termina con DataIntegrityViolationException.
+     */
+    @Transactional
+    public Mono<ClienteOutputDetailDto> save(ClienteInputDto dto) {
+        return clienteRepository.save(toEntity(null, dto))
+                .flatMap(cliente -> versionesTablas.cambioClientes().thenReturn(toDetailDto(cliente)));
+    }
+
+    /**
+     * Actualiza un cliente existente incrementando su versión y la de la tabla; vacío si no existe.
+     */
+    @Transactional
+    public Mono<ClienteOutputDetailDto> update(Long id, ClienteInputDto dto) {
+        // Se parte de la versión actual para que la actualización la incremente
+        return clienteRepository.findById(id)
+                .flatMap(existente -> {
+                    Cliente actualizado = toEntity(id, dto);
+                    actualizado.setVersion(existente.getVersion());
+                    return clienteRepository.save(actualizado);
+                })
+                .flatMap(cliente -> versionesTablas.cambioClientes().thenReturn(toDetailDto(cliente)));
+    }
+
+    /**
+     * Elimina un cliente y sus pedidos (también los archivados), descontándolos de los contadores por día; vacío si no existe.
+     */
+    @Transactional
+    public Mono<ClienteOutputDetailDto> deleteById(Long id) {
+        return clienteRepository.findById(id)
+                .flatMap(cliente -> contadoresRepository.restarCliente(id)
+                        .then(pedidoRepository.deleteByIdCliente(id))
+                        .then(pedidoRepository.deleteArchivadosByIdCliente(id))
+                        .then(clienteRepository.deleteById(id))
+                        .then(versionesTablas.cambioClientes())
+                        .then(versionesTablas.cambioPedidos())
+                        .thenReturn(toDetailDto(cliente)));
+    }
+
+    private static ClienteOutputDto toDto(Cliente c) {
+        return new ClienteOutputDto(c.getIdCliente(), c.getDni(), c.getNombre(), c.getApellidos(), c.getEmail());
+    }
+
+    private static ClienteOutputDetailDto toDetailDto(Cliente c) {
+        return new ClienteOutputDetailDto(c.getIdCliente(), c.getDni(), c.getNombre(), c.getApellidos(), c.getEmail(),
+                c.getCalle(), c.getMunicipio(), c.getProvincia(), c.getVersion());
+    }
+
+    private static Cliente toEntity(Long id, ClienteInputDto dto) {
+        return new Cliente(id, dto.getDni(), dto.getNombre(), dto.getApellidos(), dto.getEmail(),
+                dto.getCalle(), dto.getMunicipio(), dto.getProvincia(), null);
+    }
+}
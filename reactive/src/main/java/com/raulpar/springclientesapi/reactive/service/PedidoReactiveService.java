@@ -0,0 +1,167 @@
+package com.raulpar.springclientesapi.reactive.service;
+
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.PedidoCreateDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.reactive.model.Pedido;
+import com.raulpar.springclientesapi.reactive.repository.ClienteReactiveRepository;
+import com.raulpar.springclientesapi.reactive.repository.ContadoresDiariosRepository;
+import com.raulpar.springclientesapi.reactive.repository.PedidoReactiveRepository;
+import com.raulpar.springclientesapi.reactive.repository.VersionesTablasRepository;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+
+/**
+ * Versión no bloqueante de PedidoService.
+ * Como en PedidoService, las consultas también leen los pedidos que la aplicación principal mueve
+ * a la tabla PedidosArchivo, mezclados con los de Pedidos por número de pedido.
+ */
+@RequiredArgsConstructor
+@Service
+public class PedidoReactiveService {
+
+    private final PedidoReactiveRepository pedidoRepository;
+    private final ClienteReactiveRepository clienteRepository;
+    private final ContadoresDiariosRepository contadoresRepository;
+    private final VersionesTablasRepository versionesTablas;
+
+    // Antigüedad a partir de la cual la aplicación principal puede haber archivado los pedidos
+    @Value("${pedidos.archivo.edad:365d}")
+    private Duration edadArchivo = Duration.ofDays(365);
+
+    public Mono<CursorPageDto<PedidoDto>> findPage(long despuesDe, int limit) {
+        int size = CursorUtils.clampLimit(limit);
+        return toPage(mezclar(
+                pedidoRepository.findPage(despuesDe, size + 1),
+                pedidoRepository.findArchivadosPage(despuesDe, size + 1)), size);
+    }
+
+    /**
+     * Emite todos los pedidos, incluidos los archivados, ordenados por número, leyéndolos de la base de datos
+     * según la demanda del suscriptor.
+     */
+    public Flux<PedidoDto> export() {
+        return mezclar(pedidoRepository.streamAll(), pedidoRepository.streamAllArchivados())
+                .map(PedidoReactiveService::toDto);
+    }
+
+    /**
+     * Busca un pedido en Pedidos y, si no está, en el archivo.
+     */
+    public Mono<PedidoDto> findById(Long id) {
+        return pedidoRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> pedidoRepository.findArchivadoById(id)))
+                .map(PedidoReactiveService::toDto);
+    }
+
+    /**
+     * Crea un pedido con la fecha actual e incrementa los contadores del día y la versión de la tabla
+     * en la misma transacción.
+     * Si el cliente no existe el Mono termina con IllegalArgumentException.
+     */
+    @Transactional
+    public Mono<PedidoDto> save(PedidoCreateDto dto) {
+        return clienteRepository.existsById(dto.getIdCliente())
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Cliente no encontrado")))
+                .flatMap(existe -> pedidoRepository.save(
+                        new Pedido(null, dto.getIdCliente(), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))))
+                .flatMap(pedido -> contadoresRepository.sumar(pedido.getFecha().toLocalDate(), pedido.getIdCliente(), 1)
+                        .then(versionesTablas.cambioPedidos())
+                        .thenReturn(toDto(pedido)));
+    }
+
+    /**
+     * Elimina un pedido, tanto si está en Pedidos como en el archivo, lo descuenta de los contadores del día
+     * y cambia la versión de la tabla; false si no existe.
+     */
+    @Transactional
+    public Mono<Boolean> deleteById(Long id) {
+        Mono<Boolean> borrarPedido = pedidoRepository.findById(id)
+                .flatMap(pedido -> pedidoRepository.deleteById(id).then(descontar(pedido)));
+        // El recuento del DELETE detecta un borrado concurrente, como en PedidoService
+        Mono<Boolean> borrarArchivado = pedidoRepository.findArchivadoById(id)
+                .filterWhen(pedido -> pedidoRepository.deleteArchivadoById(id).map(filas -> filas > 0))
+                .flatMap(this::descontar);
+        return borrarPedido
+                .switchIfEmpty(borrarArchivado)
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Boolean> descontar(Pedido pedido) {
+        return contadoresRepository.sumar(pedido.getFecha().toLocalDate(), pedido.getIdCliente(), -1)
+                .then(versionesTablas.cambioPedidos())
+                .thenReturn(true);
+    }
+
+    /**
+     * Pedidos de un día; el archivo solo se consulta si el día es anterior al límite de antigüedad del archivo.
+     */
+    public Flux<PedidoDto> findByFecha(LocalDate fecha) {
+        LocalDateTime desde = fecha.atStartOfDay();
+        LocalDateTime hasta = fecha.plusDays(1).atStartOfDay();
+        Flux<Pedido> pedidos = pedidoRepository.findByFecha(desde, hasta);
+        if (puedeEstarArchivado(desde)) {
+            pedidos = mezclar(pedidos, pedidoRepository.findArchivadosByFecha(desde, hasta));
+        }
+        return pedidos.map(PedidoReactiveService::toDto);
+    }
+
+    public Mono<CursorPageDto<PedidoDto>> findByRango(LocalDate desde, LocalDate hasta, long despuesDe, int limit) {
+        int size = CursorUtils.clampLimit(limit);
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        Flux<Pedido> pedidos = pedidoRepository.findPageByFecha(inicio, fin, despuesDe, size + 1);
+        if (puedeEstarArchivado(inicio)) {
+            pedidos = mezclar(pedidos, pedidoRepository.findArchivadosPageByFecha(inicio, fin, despuesDe, size + 1));
+        }
+        return toPage(pedidos, size);
+    }
+
+    /**
+     * Página de los pedidos de un cliente; vacío si el cliente no existe.
+     * La existencia del cliente solo se comprueba cuando la página sale vacía.
+     */
+    public Mono<CursorPageDto<PedidoDto>> findByCliente(Long idCliente, long despuesDe, int limit) {
+        int size = CursorUtils.clampLimit(limit);
+        return toPage(mezclar(
+                pedidoRepository.findPageByCliente(idCliente, despuesDe, size + 1),
+                pedidoRepository.findArchivadosPageByCliente(idCliente, despuesDe, size + 1)), size)
+                .filterWhen(pagina -> pagina.getItems().isEmpty()
+                        ? clienteRepository.existsById(idCliente)
+                        : Mono.just(true));
+    }
+
+    // Mezcla dos consultas ordenadas por número de pedido, pidiendo filas a cada una según la demanda
+    private static Flux<Pedido> mezclar(Flux<Pedido> pedidos, Flux<Pedido> archivados) {
+        return Flux.mergeComparing(Comparator.comparing(Pedido::getNumPedido), pedidos, archivados);
+    }
+
+    // La aplicación principal solo archiva pedidos anteriores a su ejecución menos la antigüedad
+    private boolean puedeEstarArchivado(LocalDateTime desde) {
+        return desde.isBefore(LocalDateTime.now().minus(edadArchivo));
+    }
+
+    // Recorta las filas que sobran al mezclar dos páginas y genera el cursor siguiente
+    private static Mono<CursorPageDto<PedidoDto>> toPage(Flux<Pedido> pedidos, int size) {
+        return pedidos.take(size + 1)
+                .map(PedidoReactiveService::toDto)
+                .collectList()
+                .map(lista -> CursorUtils.toPage(lista, size, PedidoDto::getNumPedido));
+    }
+
+    private static PedidoDto toDto(Pedido p) {
+        return new PedidoDto(p.getNumPedido(), p.getIdCliente(), p.getFecha());
+    }
+}
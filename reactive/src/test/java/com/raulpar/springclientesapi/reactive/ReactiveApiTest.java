@@ -0,0 +1,245 @@
+package com.raulpar.springclientesapi.reactive;
+
+import com.raulpar.springclientesapi.dto.ClienteInputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.PedidoCreateDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.reactive.repository.ContadoresDiariosRepository;
+import com.raulpar.springclientesapi.reactive.service.PedidoReactiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la API reactiva de extremo a extremo sobre H2 (R2DBC) en modo MySQL.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("h2")
+class ReactiveApiTest {
+
+    // Día anterior al límite de antigüedad del archivo
+    private static final LocalDate DIA_ARCHIVADO = LocalDate.of(2020, 1, 15);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private PedidoReactiveService pedidoService;
+
+    @Autowired
+    private ContadoresDiariosRepository contadoresRepository;
+
+    // Vacía las tablas antes de cada prueba
+    @BeforeEach
+    void setUp() {
+        for (String tabla : List.of("PedidosPorDiaCliente", "PedidosPorDia", "PedidosArchivo", "Pedidos", "Cliente")) {
+            databaseClient.sql("delete from " + tabla).then().block();
+        }
+    }
+
+    // Test que comprueba el alta, la consulta, el DNI duplicado (409) y el listado paginado de clientes
+    @Test
+    void testClientes() {
+        ClienteOutputDetailDto creado = crearCliente("12345678A");
+        assertNotNull(creado.getIdCliente());
+        long versionClientes = versionTabla("Cliente");
+
+        // Un alta rechazada deshace también el cambio de versión de la tabla
+        webTestClient.post().uri("/api/clientes").bodyValue(clienteInput("12345678A"))
+                .exchange().expectStatus().isEqualTo(409);
+        assertEquals(versionClientes, versionTabla("Cliente"));
+        webTestClient.post().uri("/api/clientes").bodyValue(clienteInput("no-valido"))
+                .exchange().expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/api/clientes/{id}", creado.getIdCliente())
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.dni").isEqualTo("12345678A");
+        webTestClient.get().uri("/api/clientes/dni/{dni}", "12345678A")
+                .exchange().expectStatus().isOk();
+        // La actualización incrementa la versión compartida con la aplicación principal
+        webTestClient.put().uri("/api/clientes/{id}", creado.getIdCliente()).bodyValue(clienteInput("12345678A"))
+                .exchange().expectStatus().isOk();
+        assertEquals(1L, databaseClient.sql("select version from Cliente where idCliente = :id")
+                .bind("id", creado.getIdCliente())
+                .map(row -> row.get("version", Number.class).longValue())
+                .one().block());
+        assertEquals(versionClientes + 1, versionTabla("Cliente"));
+        webTestClient.get().uri("/api/clientes/{id}", -1)
+                .exchange().expectStatus().isNotFound();
+
+        crearCliente("87654321B");
+        webTestClient.get().uri("/api/clientes?limit=1")
+                .exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.next").isNotEmpty();
+        webTestClient.get().uri("/api/clientes?cursor=no-es-un-cursor")
+                .exchange().expectStatus().isBadRequest();
+
+        List<ClienteOutputDto> todos = webTestClient.get().uri("/api/clientes/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isOk()
+                .returnResult(ClienteOutputDto.class).getResponseBody().collectList().block();
+        assertEquals(2, todos.size());
+    }
+
+    // Test que comprueba el ciclo de vida de un pedido y el mantenimiento de los contadores por día
+    // y de la versión de la tabla que la aplicación principal usa como ETag de los listados
+    @Test
+    void testPedidos() {
+        Long idCliente = crearCliente("12345678A").getIdCliente();
+        long versionPedidos = versionTabla("Pedidos");
+
+        webTestClient.post().uri("/api/pedidos").bodyValue(new PedidoCreateDto(-1L))
+                .exchange().expectStatus().isNotFound();
+        PedidoDto p1 = crearPedido(idCliente);
+        crearPedido(idCliente);
+
+        assertEquals(2L, totalHoy());
+        assertEquals(versionPedidos + 2, versionTabla("Pedidos"));
+        webTestClient.get().uri("/api/clientes/{id}/pedidos?limit=1", idCliente)
+                .exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].numPedido").isEqualTo(p1.getNumPedido())
+                .jsonPath("$.next").isNotEmpty();
+        webTestClient.get().uri("/api/clientes/{id}/pedidos", -1)
+                .exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/api/pedidos/rango?desde={d}&hasta={d}", LocalDate.now(), LocalDate.now())
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.items.length()").isEqualTo(2);
+
+        webTestClient.delete().uri("/api/pedidos/{id}", p1.getNumPedido()).exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/pedidos/{id}", p1.getNumPedido()).exchange().expectStatus().isNotFound();
+        assertEquals(1L, totalHoy());
+        assertEquals(versionPedidos + 3, versionTabla("Pedidos"));
+
+        // Al eliminar el cliente se eliminan sus pedidos y se descuentan de los contadores
+        webTestClient.delete().uri("/api/clientes/{id}", idCliente).exchange().expectStatus().isOk();
+        assertEquals(0L, totalHoy());
+        assertEquals(versionPedidos + 4, versionTabla("Pedidos"));
+        webTestClient.get().uri("/api/pedidos").exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.items.length()").isEqualTo(0);
+    }
+
+    // Test que comprueba que los pedidos movidos a PedidosArchivo por la aplicación principal
+    // se siguen consultando, listando, exportando y borrando como en la API bloqueante
+    @Test
+    void testPedidosArchivados() {
+        Long idCliente = crearCliente("12345678A").getIdCliente();
+        Long archivado = crearPedido(idCliente).getNumPedido();
+        Long reciente = crearPedido(idCliente).getNumPedido();
+        archivar(archivado, DIA_ARCHIVADO.atTime(10, 0));
+        long versionPedidos = versionTabla("Pedidos");
+
+        webTestClient.get().uri("/api/pedidos/{id}", archivado)
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.idCliente").isEqualTo(idCliente);
+        webTestClient.get().uri("/api/pedidos?limit=1")
+                .exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].numPedido").isEqualTo(archivado)
+                .jsonPath("$.next").isNotEmpty();
+        webTestClient.get().uri("/api/pedidos/fecha?fecha={d}", DIA_ARCHIVADO)
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+        webTestClient.get().uri("/api/pedidos/rango?desde={d}&hasta={h}", DIA_ARCHIVADO, LocalDate.now())
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.items.length()").isEqualTo(2);
+        webTestClient.get().uri("/api/clientes/{id}/pedidos", idCliente)
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.items.length()").isEqualTo(2);
+        StepVerifier.create(pedidoService.export().map(PedidoDto::getNumPedido))
+                .expectNext(archivado, reciente)
+                .verifyComplete();
+
+        webTestClient.delete().uri("/api/pedidos/{id}", archivado).exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/pedidos/{id}", archivado).exchange().expectStatus().isNotFound();
+        assertEquals(0L, totalDia(DIA_ARCHIVADO));
+        assertEquals(versionPedidos + 1, versionTabla("Pedidos"));
+        webTestClient.get().uri("/api/pedidos/{id}", archivado).exchange().expectStatus().isNotFound();
+    }
+
+    // Test que comprueba que la exportación respeta la demanda del suscriptor
+    @Test
+    void testExportBackpressure() {
+        Long idCliente = crearCliente("12345678A").getIdCliente();
+        for (int i = 0; i < 5; i++) {
+            crearPedido(idCliente);
+        }
+
+        StepVerifier.create(pedidoService.export(), 2)
+                .expectNextCount(2)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    private ClienteOutputDetailDto crearCliente(String dni) {
+        return webTestClient.post().uri("/api/clientes").bodyValue(clienteInput(dni))
+                .exchange().expectStatus().isCreated()
+                .expectBody(ClienteOutputDetailDto.class).returnResult().getResponseBody();
+    }
+
+    private PedidoDto crearPedido(Long idCliente) {
+        return webTestClient.post().uri("/api/pedidos").bodyValue(new PedidoCreateDto(idCliente))
+                .exchange().expectStatus().isCreated()
+                .expectBody(PedidoDto.class).returnResult().getResponseBody();
+    }
+
+    // Mueve un pedido a PedidosArchivo con otra fecha, como el archivador de la aplicación principal
+    // tras la antigüedad configurada, y pasa su cuenta al día nuevo
+    private void archivar(Long numPedido, LocalDateTime fecha) {
+        databaseClient.sql("insert into PedidosArchivo (numPedido, id_cliente, fecha) " +
+                        "select numPedido, id_cliente, :fecha from Pedidos where numPedido = :numPedido")
+                .bind("fecha", fecha).bind("numPedido", numPedido).then().block();
+        Long idCliente = databaseClient.sql("select id_cliente from Pedidos where numPedido = :numPedido")
+                .bind("numPedido", numPedido)
+                .map(row -> row.get("id_cliente", Long.class))
+                .one().block();
+        databaseClient.sql("delete from Pedidos where numPedido = :numPedido")
+                .bind("numPedido", numPedido).then().block();
+        contadoresRepository.sumar(LocalDate.now(), idCliente, -1)
+                .then(contadoresRepository.sumar(fecha.toLocalDate(), idCliente, 1))
+                .block();
+    }
+
+    private static ClienteInputDto clienteInput(String dni) {
+        return new ClienteInputDto(dni, "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+    }
+
+    private Long totalHoy() {
+        return totalDia(LocalDate.now());
+    }
+
+    private Long totalDia(LocalDate dia) {
+        return databaseClient.sql("select coalesce(sum(total), 0) as total from PedidosPorDia where fecha = :fecha")
+                .bind("fecha", dia)
+                .map(row -> row.get("total", Number.class).longValue())
+                .one().block();
+    }
+
+    private long versionTabla(String tabla) {
+        return databaseClient.sql("select version from VersionesTablas where tabla = :tabla")
+                .bind("tabla", tabla)
+                .map(row -> row.get("version", Number.class).longValue())
+                .one().block();
+    }
+}
@@ -0,0 +1,38 @@
+-- Mismas tablas que crean las migraciones de Flyway de la aplicación principal (db/migration)
+create table if not exists Cliente (
+    idCliente bigint auto_increment primary key,
+    dni varchar(255) not null unique,
+    nombre varchar(255),
+    apellidos varchar(255),
+    email varchar(255),
+    calle varchar(255),
+    municipio varchar(255),
+    provincia varchar(255),
+    version bigint default 0 not null
+);
+create table if not exists Pedidos (
+    numPedido bigint auto_increment primary key,
+    id_cliente bigint not null references Cliente (idCliente),
+    fecha timestamp(6)
+);
+create index if not exists idx_pedidos_cliente_numpedido on Pedidos (id_cliente, numPedido);
+create table if not exists PedidosArchivo (
+    numPedido bigint primary key,
+    id_cliente bigint not null references Cliente (idCliente),
+    fecha timestamp(6)
+);
+create table if not exists PedidosPorDia (
+    fecha date primary key,
+    total bigint not null
+);
+create table if not exists PedidosPorDiaCliente (
+    fecha date not null,
+    id_cliente bigint not null,
+    total bigint not null,
+    primary key (fecha, id_cliente)
+);
+create table if not exists VersionesTablas (
+    tabla varchar(32) primary key,
+    version bigint not null
+);
+merge into VersionesTablas (tabla, version) key (tabla) values ('Cliente', 0), ('Pedidos', 0);
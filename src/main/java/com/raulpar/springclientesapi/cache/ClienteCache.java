@@ -0,0 +1,108 @@
+package com.raulpar.springclientesapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché en memoria de los clientes consultados por ID y por DNI.
+ * Los DTOs se guardan una sola vez, indexados por ID; el índice por DNI solo guarda el ID
+ * y se comprueba contra la entrada por ID, de forma que un DNI que ha cambiado nunca
+ * devuelve un cliente desactualizado aunque su entrada no se haya invalidado.
+ * Ambas cachés están limitadas por tamaño y por tiempo desde la escritura.
+ */
+@Component
+public class ClienteCache {
+
+    private final Cache<Long, ClienteOutputDetailDto> porId;
+    private final Cache<String, Long> porDni;
+
+    public ClienteCache(@Value("${clientes.cache.max-size:10000}") long maxSize,
+                        @Value("${clientes.cache.ttl:10m}") Duration ttl) {
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.porDni = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<ClienteOutputDetailDto> getById(Long id) {
+        return Optional.ofNullable(porId.getIfPresent(id));
+    }
+
+    public Optional<ClienteOutputDetailDto> getByDni(String dni) {
+        Long id = porDni.getIfPresent(dni);
+        if (id == null) return Optional.empty();
+        ClienteOutputDetailDto cliente = porId.getIfPresent(id);
+        if (cliente == null || !dni.equals(cliente.getDni())) {
+            porDni.invalidate(dni);
+            return Optional.empty();
+        }
+        return Optional.of(cliente);
+    }
+
+    public void put(ClienteOutputDetailDto cliente) {
+        porId.put(cliente.getIdCliente(), cliente);
+        porDni.put(cliente.getDni(), cliente.getIdCliente());
+    }
+
+    /**
+     * Invalida un cliente y los DNIs indicados (por ejemplo, el anterior y el nuevo tras un cambio de DNI).
+     * Dentro de una transacción se invalidan también al terminarla: una lectura concurrente que haya
+     * fallado en la caché antes del commit puede volver a guardar el cliente tal como estaba.
+     */
+    public void evict(Long id, String... dnis) {
+        invalidar(id, dnis);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidar(id, dnis);
+                }
+            });
+        }
+    }
+
+    private void invalidar(Long id, String... dnis) {
+        if (id != null) porId.invalidate(id);
+        for (String dni : dnis) {
+            if (dni != null) porDni.invalidate(dni);
+        }
+    }
+
+    public void clear() {
+        porId.invalidateAll();
+        porDni.invalidateAll();
+    }
+
+    /**
+     * Estadísticas de aciertos, fallos y expulsiones de la caché por ID.
+     */
+    public CacheStats statsPorId() {
+        return porId.stats();
+    }
+
+    /**
+     * Estadísticas de aciertos, fallos y expulsiones del índice por DNI.
+     */
+    public CacheStats statsPorDni() {
+        return porDni.stats();
+    }
+
+    public long size() {
+        return porId.estimatedSize();
+    }
+}
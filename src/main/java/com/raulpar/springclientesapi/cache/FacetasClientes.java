@@ -0,0 +1,171 @@
+package com.raulpar.springclientesapi.cache;
+
+import com.raulpar.springclientesapi.dto.FacetaDto;
+import com.raulpar.springclientesapi.dto.FacetasClientesDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Número de clientes por provincia y municipio, para las facetas del listado de clientes.
+ * Los conteos se leen con una consulta agregada la primera vez y cada {@code clientes.facetas.refresco};
+ * entre medias cada alta, baja o cambio de provincia o municipio suma o resta uno al hacer commit,
+ * sin volver a consultar la base de datos.
+ * Un cambio confirmado mientras se ejecuta la consulta agregada puede contarse dos veces o ninguna;
+ * la diferencia se corrige en el siguiente refresco.
+ * Igual que la caché de clientes, es local a cada instancia.
+ */
+@Slf4j
+@Component
+public class FacetasClientes {
+
+    private static final Comparator<FacetaDto> MAS_FRECUENTES = Comparator
+            .comparingLong(FacetaDto::getTotal).reversed()
+            .thenComparing(FacetaDto::getValor);
+
+    private final long refrescoNanos;
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+
+    // provincia → municipio → número de clientes; protegido por this
+    private final Map<String, Map<String, Long>> conteos = new HashMap<>();
+    // Conteos ya ordenados para responder; null si han cambiado desde que se calcularon
+    private Instantanea instantanea;
+    private volatile boolean construido;
+    private volatile long construidoEn;
+
+    private record Instantanea(List<FacetaDto> provincias, Map<String, List<FacetaDto>> municipios) {
+    }
+
+    public FacetasClientes(@Value("${clientes.facetas.refresco:10m}") Duration refresco) {
+        this.refrescoNanos = refresco.toNanos();
+    }
+
+    /**
+     * Cuenta un cliente nuevo; dentro de una transacción, al hacer commit.
+     */
+    public void sumar(String provincia, String municipio) {
+        aplicarTrasCommit(provincia, municipio, 1);
+    }
+
+    /**
+     * Descuenta un cliente eliminado; dentro de una transacción, al hacer commit.
+     */
+    public void restar(String provincia, String municipio) {
+        aplicarTrasCommit(provincia, municipio, -1);
+    }
+
+    /**
+     * Pasa un cliente de una provincia y municipio a otros; no hace nada si no han cambiado.
+     */
+    public void mover(String provinciaAnterior, String municipioAnterior, String provincia, String municipio) {
+        if (Objects.equals(provinciaAnterior, provincia) && Objects.equals(municipioAnterior, municipio)) return;
+        restar(provinciaAnterior, municipioAnterior);
+        sumar(provincia, municipio);
+    }
+
+    private void aplicarTrasCommit(String provincia, String municipio, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(provincia, municipio, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aplicar(provincia, municipio, delta);
+            }
+        });
+    }
+
+    private synchronized void aplicar(String provincia, String municipio, long delta) {
+        Map<String, Long> municipios = conteos.computeIfAbsent(provincia, p -> new HashMap<>());
+        // Un conteo que llega a cero (o por debajo, por un cambio contado dos veces) desaparece
+        municipios.compute(municipio, (m, total) -> {
+            long nuevo = (total == null ? 0 : total) + delta;
+            return nuevo > 0 ? nuevo : null;
+        });
+        if (municipios.isEmpty()) conteos.remove(provincia);
+        instantanea = null;
+    }
+
+    /**
+     * Facetas de los clientes: el número por provincia y, si se indica una, por municipio de esa provincia.
+     * Si los conteos no se han leído nunca o han caducado se leen de nuevo; mientras un hilo los lee,
+     * el resto sigue respondiendo con los anteriores.
+     *
+     * @param provincia Provincia de la que devolver los municipios, o null
+     * @param origen    Consulta agregada: filas {provincia, municipio, número de clientes}
+     */
+    public FacetasClientesDto consultar(String provincia, Supplier<List<Object[]>> origen) {
+        if (caducado()) reconstruir(origen);
+        Instantanea actual = instantanea();
+        List<FacetaDto> municipios = provincia == null ? List.of() : actual.municipios().getOrDefault(provincia, List.of());
+        return new FacetasClientesDto(actual.provincias(), municipios);
+    }
+
+    private boolean caducado() {
+        return !construido || System.nanoTime() - construidoEn > refrescoNanos;
+    }
+
+    private void reconstruir(Supplier<List<Object[]>> origen) {
+        // La primera vez hay que esperar a los conteos; después basta con que un hilo los refresque
+        if (construido) {
+            if (!reconstruccion.tryLock()) return;
+        } else {
+            reconstruccion.lock();
+        }
+        try {
+            if (!caducado()) return;
+            Map<String, Map<String, Long>> leidos = new HashMap<>();
+            for (Object[] fila : origen.get()) {
+                leidos.computeIfAbsent((String) fila[0], p -> new HashMap<>())
+                        .put((String) fila[1], ((Number) fila[2]).longValue());
+            }
+            synchronized (this) {
+                conteos.clear();
+                conteos.putAll(leidos);
+                instantanea = null;
+                construidoEn = System.nanoTime();
+                construido = true;
+            }
+        } catch (RuntimeException e) {
+            if (!construido) throw e;
+            log.warn("No se han podido refrescar las facetas de clientes; se siguen usando las anteriores", e);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private synchronized Instantanea instantanea() {
+        if (instantanea != null) return instantanea;
+        List<FacetaDto> provincias = new ArrayList<>();
+        Map<String, List<FacetaDto>> municipios = new HashMap<>();
+        conteos.forEach((provincia, porMunicipio) -> {
+            // Los clientes sin provincia o sin municipio no aparecen en las facetas
+            if (provincia == null) return;
+            List<FacetaDto> lista = new ArrayList<>();
+            long total = 0;
+            for (Map.Entry<String, Long> entrada : porMunicipio.entrySet()) {
+                total += entrada.getValue();
+                if (entrada.getKey() != null) lista.add(new FacetaDto(entrada.getKey(), entrada.getValue()));
+            }
+            lista.sort(MAS_FRECUENTES);
+            provincias.add(new FacetaDto(provincia, total));
+            municipios.put(provincia, List.copyOf(lista));
+        });
+        provincias.sort(MAS_FRECUENTES);
+        instantanea = new Instantanea(List.copyOf(provincias), municipios);
+        return instantanea;
+    }
+}
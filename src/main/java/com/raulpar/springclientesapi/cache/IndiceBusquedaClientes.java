@@ -0,0 +1,354 @@
+package com.raulpar.springclientesapi.cache;
+
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en memoria para la búsqueda de clientes por nombre, apellidos, email y municipio.
+ * <p>
+ * El texto se normaliza (minúsculas, sin acentos) y se parte en palabras; cada palabra se indexa por
+ * sus trigramas, empezando por una marca de inicio de palabra, de modo que {@code "jua"} y {@code "juan"}
+ * encuentran a "Juan" por prefijo. Cada trigrama tiene una lista ordenada de documentos en un int[].
+ * Un cliente es candidato si comparte al menos el 60 % ({@link #SIMILITUD_MINIMA}) de los trigramas de la
+ * búsqueda, lo que tolera erratas y coincidencias en mitad de una palabra; los resultados se ordenan
+ * por la proporción de trigramas comunes, primero los que tienen todas las palabras como prefijo.
+ * <p>
+ * Las altas, cambios y bajas se aplican al hacer commit. El índice se construye al arrancar con
+ * {@link #reconstruir(Supplier)}; los cambios que llegan mientras tanto se aplican después sobre el
+ * índice nuevo. Igual que la caché de clientes, es local a cada instancia.
+ */
+@Component
+public class IndiceBusquedaClientes {
+
+    static final double SIMILITUD_MINIMA = 0.6;
+
+    /**
+     * Posición máxima desde la que se puede paginar: cada búsqueda guarda en memoria los
+     * offset + limit + 1 mejores candidatos, así que el offset tiene que estar acotado.
+     */
+    public static final int MAX_OFFSET = 10_000;
+
+    private static final char INICIO_PALABRA = '\u0002';
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Estructura estructura = new Estructura();
+    // Cambios recibidos durante una reconstrucción, para aplicarlos al índice nuevo
+    private List<Cambio> pendientes;
+    private volatile boolean listo;
+
+    /**
+     * Resultado de una búsqueda: una página de clientes y si hay más resultados después.
+     */
+    public record Resultado(List<ClienteOutputDto> clientes, boolean hayMas) {
+    }
+
+    /**
+     * Si el índice ya se ha construido al menos una vez.
+     */
+    public boolean isListo() {
+        return listo;
+    }
+
+    /**
+     * Añade o reemplaza un cliente; dentro de una transacción, al hacer commit.
+     */
+    public void indexar(ClienteOutputDetailDto cliente) {
+        aplicarTrasCommit(new Cambio(cliente.getIdCliente(), cliente));
+    }
+
+    /**
+     * Quita un cliente; dentro de una transacción, al hacer commit.
+     */
+    public void eliminar(Long idCliente) {
+        aplicarTrasCommit(new Cambio(idCliente, null));
+    }
+
+    private void aplicarTrasCommit(Cambio cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(cambio);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aplicar(cambio);
+            }
+        });
+    }
+
+    private void aplicar(Cambio cambio) {
+        lock.writeLock().lock();
+        try {
+            estructura.aplicar(cambio);
+            if (pendientes != null) pendientes.add(cambio);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Construye el índice desde cero con todos los clientes y lo sustituye por el actual.
+     * Mientras se construye, las búsquedas siguen usando el índice anterior. Los clientes se piden
+     * después de empezar a registrar los cambios, así que ninguno que se confirme entretanto se pierde.
+     *
+     * @param origen Consulta de todos los clientes; el Stream se cierra al terminar
+     */
+    public void reconstruir(Supplier<Stream<ClienteOutputDetailDto>> origen) {
+        lock.writeLock().lock();
+        try {
+            pendientes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Estructura nueva = new Estructura();
+        try (Stream<ClienteOutputDetailDto> clientes = origen.get()) {
+            clientes.forEach(cliente -> nueva.aplicar(new Cambio(cliente.getIdCliente(), cliente)));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            pendientes.forEach(nueva::aplicar);
+            pendientes = null;
+            estructura = nueva;
+            listo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca clientes cuyo nombre, apellidos, email o municipio se parezcan al texto.
+     *
+     * @param texto  Palabras a buscar; se ignoran las de un solo carácter
+     * @param offset Número de resultados a saltar, como mucho {@link #MAX_OFFSET}
+     * @param limit  Número máximo de resultados
+     */
+    public Resultado buscar(String texto, int offset, int limit) {
+        if (offset < 0 || offset > MAX_OFFSET) {
+            throw new IllegalArgumentException("offset fuera de rango: " + offset);
+        }
+        String[] terminos = Arrays.stream(palabras(texto)).filter(p -> p.length() > 1).toArray(String[]::new);
+        long[] gramas = Arrays.stream(terminos).flatMapToLong(p -> Arrays.stream(gramas(p))).distinct().toArray();
+        if (gramas.length == 0) return new Resultado(List.of(), false);
+
+        lock.readLock().lock();
+        try {
+            return estructura.buscar(terminos, gramas, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return estructura.docPorCliente.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String[] palabras(String texto) {
+        if (texto == null) return new String[0];
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARADORES.split(normalizado)).filter(p -> !p.isEmpty()).toArray(String[]::new);
+    }
+
+    // Trigramas de la palabra precedida de la marca de inicio, codificados en un long (3 chars de 16 bits)
+    static long[] gramas(String palabra) {
+        String conInicio = INICIO_PALABRA + palabra;
+        long[] gramas = new long[Math.max(0, conInicio.length() - 2)];
+        for (int i = 0; i < gramas.length; i++) {
+            gramas[i] = ((long) conInicio.charAt(i) << 32) | ((long) conInicio.charAt(i + 1) << 16) | conInicio.charAt(i + 2);
+        }
+        return gramas;
+    }
+
+    private record Cambio(Long idCliente, ClienteOutputDetailDto cliente) {
+    }
+
+    private record Documento(ClienteOutputDto cliente, String[] palabras, long[] gramas) {
+    }
+
+    /**
+     * Lista ordenada de documentos de un trigrama. Los documentos nuevos tienen siempre el
+     * número más alto, así que añadir es insertar al final.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) return;
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            size--;
+        }
+    }
+
+    // Cursor sobre una lista de documentos para la mezcla ordenada de varias listas
+    private static final class Cursor {
+
+        private final Postings postings;
+        private int posicion;
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        int doc() {
+            return postings.docs[posicion];
+        }
+    }
+
+    private record Candidato(Documento documento, double puntuacion) {
+    }
+
+    private static final Comparator<Candidato> ORDEN = Comparator.comparingDouble(Candidato::puntuacion).reversed()
+            .thenComparing(c -> c.documento().cliente().getIdCliente());
+
+    /**
+     * Estado del índice, protegido por el lock de la clase exterior.
+     */
+    private static final class Estructura {
+
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private final Map<Long, Integer> docPorCliente = new HashMap<>();
+        private final List<Documento> documentos = new ArrayList<>();
+
+        void aplicar(Cambio cambio) {
+            Integer anterior = docPorCliente.remove(cambio.idCliente());
+            if (anterior != null) {
+                Documento documento = documentos.set(anterior, null);
+                for (long grama : documento.gramas()) {
+                    Postings lista = postings.get(grama);
+                    lista.remove(anterior);
+                    if (lista.size == 0) postings.remove(grama);
+                }
+            }
+            if (cambio.cliente() != null) {
+                agregar(cambio.cliente());
+            }
+            // Los números de documento no se reutilizan: se renumera cuando la mitad están borrados
+            if (documentos.size() > 1024 && documentos.size() > 2 * docPorCliente.size()) {
+                compactar();
+            }
+        }
+
+        private void agregar(ClienteOutputDetailDto cliente) {
+            String[] palabras = Stream.of(cliente.getNombre(), cliente.getApellidos(), cliente.getEmail(), cliente.getMunicipio())
+                    .flatMap(campo -> Arrays.stream(palabras(campo)))
+                    .distinct()
+                    .toArray(String[]::new);
+            long[] gramas = Arrays.stream(palabras).flatMapToLong(p -> Arrays.stream(gramas(p))).distinct().toArray();
+            ClienteOutputDto dto = new ClienteOutputDto(cliente.getIdCliente(), cliente.getDni(), cliente.getNombre(),
+                    cliente.getApellidos(), cliente.getEmail());
+            int doc = documentos.size();
+            documentos.add(new Documento(dto, palabras, gramas));
+            docPorCliente.put(cliente.getIdCliente(), doc);
+            for (long grama : gramas) {
+                postings.computeIfAbsent(grama, g -> new Postings()).add(doc);
+            }
+        }
+
+        private void compactar() {
+            List<Documento> vivos = documentos.stream().filter(Objects::nonNull).toList();
+            postings.clear();
+            docPorCliente.clear();
+            documentos.clear();
+            for (Documento documento : vivos) {
+                int doc = documentos.size();
+                documentos.add(documento);
+                docPorCliente.put(documento.cliente().getIdCliente(), doc);
+                for (long grama : documento.gramas()) {
+                    postings.computeIfAbsent(grama, g -> new Postings()).add(doc);
+                }
+            }
+        }
+
+        Resultado buscar(String[] terminos, long[] gramas, int offset, int limit) {
+            int minimo = (int) Math.ceil(gramas.length * SIMILITUD_MINIMA);
+            long necesarios = (long) offset + limit;
+            // Se conservan solo los mejores offset + limit + 1 candidatos (el peor, en la cabeza)
+            PriorityQueue<Candidato> mejores = new PriorityQueue<>(ORDEN.reversed());
+
+            // Mezcla de las listas de los trigramas: cada documento sale tantas veces como trigramas comparte
+            PriorityQueue<Cursor> cursores = new PriorityQueue<>(Comparator.comparingInt(Cursor::doc));
+            for (long grama : gramas) {
+                Postings lista = postings.get(grama);
+                if (lista != null) cursores.add(new Cursor(lista));
+            }
+            while (!cursores.isEmpty()) {
+                int doc = cursores.peek().doc();
+                int comunes = 0;
+                while (!cursores.isEmpty() && cursores.peek().doc() == doc) {
+                    Cursor cursor = cursores.poll();
+                    comunes++;
+                    if (++cursor.posicion < cursor.postings.size) cursores.add(cursor);
+                }
+                if (comunes < minimo) continue;
+                Documento documento = documentos.get(doc);
+                double puntuacion = (double) comunes / gramas.length + (todosPrefijo(terminos, documento) ? 1 : 0);
+                mejores.add(new Candidato(documento, puntuacion));
+                if (mejores.size() > necesarios + 1) mejores.poll();
+            }
+
+            List<Candidato> ordenados = new ArrayList<>(mejores);
+            ordenados.sort(ORDEN);
+            List<ClienteOutputDto> pagina = ordenados.stream()
+                    .skip(offset)
+                    .limit(limit)
+                    .map(c -> c.documento().cliente())
+                    .toList();
+            return new Resultado(pagina, ordenados.size() > necesarios);
+        }
+
+        private static boolean todosPrefijo(String[] terminos, Documento documento) {
+            for (String termino : terminos) {
+                boolean encontrado = false;
+                for (String palabra : documento.palabras()) {
+                    if (palabra.startsWith(termino)) {
+                        encontrado = true;
+                        break;
+                    }
+                }
+                if (!encontrado) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.raulpar.springclientesapi.config;
+
+import com.raulpar.springclientesapi.service.ArchivoPedidosService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Archiva periódicamente los pedidos antiguos (ver {@link ArchivoPedidosService}).
+ * Cada ejecución empieza {@code pedidos.archivo.intervalo} después de terminar la anterior,
+ * así que dos ejecuciones de la misma instancia nunca se solapan; si varias instancias
+ * archivan a la vez, los lotes se bloquean entre sí y cada pedido se mueve una sola vez.
+ * Se registra en {@link ArchivoPedidosConfig}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ArchivarPedidosTarea {
+
+    private final ArchivoPedidosService archivoPedidosService;
+
+    @Scheduled(initialDelayString = "${pedidos.archivo.retraso-inicial:5m}",
+            fixedDelayString = "${pedidos.archivo.intervalo:1h}")
+    public void archivar() {
+        try {
+            archivoPedidosService.archivar();
+        } catch (RuntimeException e) {
+            // Se vuelve a intentar en la siguiente ejecución
+            log.warn("No se han podido archivar los pedidos antiguos", e);
+        }
+    }
+}
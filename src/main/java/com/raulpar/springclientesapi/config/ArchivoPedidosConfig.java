@@ -0,0 +1,22 @@
+package com.raulpar.springclientesapi.config;
+
+import com.raulpar.springclientesapi.service.ArchivoPedidosService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Activa la planificación y registra la {@link ArchivarPedidosTarea}.
+ * Se desactiva con {@code pedidos.archivo.enabled=false}; entonces no se crea ningún planificador.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "pedidos.archivo.enabled", havingValue = "true", matchIfMissing = true)
+public class ArchivoPedidosConfig {
+
+    @Bean
+    public ArchivarPedidosTarea archivarPedidosTarea(ArchivoPedidosService archivoPedidosService) {
+        return new ArchivarPedidosTarea(archivoPedidosService);
+    }
+}
@@ -0,0 +1,43 @@
+package com.raulpar.springclientesapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Registra el {@link ControlAdmisionFilter} con los parámetros de {@code admision.*}.
+ * Se desactiva con {@code admision.enabled=false}.
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "admision.enabled", havingValue = "true", matchIfMissing = true)
+public class ControlAdmisionConfig {
+
+    @Bean
+    public FilterRegistrationBean<ControlAdmisionFilter> controlAdmisionFilter(
+            MeterRegistry meterRegistry,
+            @Value("${admision.limite-inicial:50}") int inicial,
+            @Value("${admision.limite-minimo:5}") int minimo,
+            @Value("${admision.limite-maximo:400}") int maximo,
+            @Value("${admision.latencia-objetivo.lectura:250ms}") Duration latenciaLectura,
+            @Value("${admision.latencia-objetivo.escritura:1s}") Duration latenciaEscritura,
+            @Value("${admision.factor-reduccion:0.9}") double factorReduccion,
+            @Value("${admision.retry-after:1s}") Duration retryAfter) {
+        ControlAdmisionFilter filtro = new ControlAdmisionFilter(
+                () -> new LimiteAdaptativo(inicial, minimo, maximo, latenciaLectura, factorReduccion),
+                () -> new LimiteAdaptativo(inicial, minimo, maximo, latenciaEscritura, factorReduccion),
+                retryAfter, meterRegistry);
+        FilterRegistrationBean<ControlAdmisionFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/api/*");
+        // Después del filtro de observación de Spring Boot, para que los 503 aparezcan en http.server.requests
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+}
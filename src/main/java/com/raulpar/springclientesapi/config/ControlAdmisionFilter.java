@@ -0,0 +1,150 @@
+package com.raulpar.springclientesapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión delante de la API: limita las peticiones concurrentes de cada grupo de
+ * endpoints (lecturas y escrituras de clientes y de pedidos) con un {@link LimiteAdaptativo}.
+ * Las peticiones que no caben se rechazan enseguida con 503 y {@code Retry-After}, en lugar de
+ * quedarse esperando un hilo o una conexión cuando la base de datos va lenta.
+ * <p>
+ * Las importaciones masivas ({@code /bulk}) y las exportaciones en streaming ({@code /export})
+ * quedan fuera: su duración depende del volumen y no de la carga, y ya trabajan por lotes.
+ * <p>
+ * Métricas por grupo: {@value #METRICA_LIMITE}, {@value #METRICA_EN_CURSO} y {@value #METRICA_RECHAZOS}.
+ */
+public class ControlAdmisionFilter extends OncePerRequestFilter {
+
+    public static final String METRICA_LIMITE = "app.admission.limit";
+    public static final String METRICA_EN_CURSO = "app.admission.inflight";
+    public static final String METRICA_RECHAZOS = "app.admission.rejected";
+
+    private final Map<String, LimiteAdaptativo> limites = new LinkedHashMap<>();
+    private final Map<String, Counter> rechazos = new LinkedHashMap<>();
+    private final String retryAfter;
+
+    /**
+     * @param lectura   crea el límite de cada grupo de lectura
+     * @param escritura crea el límite de cada grupo de escritura
+     */
+    public ControlAdmisionFilter(Supplier<LimiteAdaptativo> lectura, Supplier<LimiteAdaptativo> escritura,
+                                 Duration retryAfter, MeterRegistry meterRegistry) {
+        this.retryAfter = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        for (String recurso : new String[]{"clientes", "pedidos"}) {
+            registrar(recurso + "-lectura", lectura.get(), meterRegistry);
+            registrar(recurso + "-escritura", escritura.get(), meterRegistry);
+        }
+    }
+
+    private void registrar(String grupo, LimiteAdaptativo limite, MeterRegistry meterRegistry) {
+        limites.put(grupo, limite);
+        Gauge.builder(METRICA_LIMITE, limite, LimiteAdaptativo::getLimite)
+                .tag("group", grupo)
+                .description("Límite actual de peticiones concurrentes")
+                .register(meterRegistry);
+        Gauge.builder(METRICA_EN_CURSO, limite, LimiteAdaptativo::getEnCurso)
+                .tag("group", grupo)
+                .description("Peticiones admitidas en curso")
+                .register(meterRegistry);
+        rechazos.put(grupo, Counter.builder(METRICA_RECHAZOS)
+                .tag("group", grupo)
+                .description("Peticiones rechazadas con 503 por el control de admisión")
+                .register(meterRegistry));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String grupo = grupo(request);
+        LimiteAdaptativo limite = grupo == null ? null : limites.get(grupo);
+        if (limite == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limite.adquirir()) {
+            rechazos.get(grupo).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean liberar = true;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // La petición sigue en otro hilo: la plaza se libera al terminar, sin ajustar el límite
+                request.getAsyncContext().addListener(new LiberarAlTerminar(limite));
+                liberar = false;
+            }
+        } finally {
+            if (liberar) {
+                limite.liberar(System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    /**
+     * Grupo de endpoints de la petición, o null si no está sometida al control de admisión.
+     */
+    static String grupo(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        String recurso = recurso(ruta);
+        if (recurso == null || ruta.endsWith("/bulk") || ruta.endsWith("/export")) {
+            return null;
+        }
+        String metodo = request.getMethod();
+        boolean lectura = HttpMethod.GET.matches(metodo) || HttpMethod.HEAD.matches(metodo);
+        return recurso + (lectura ? "-lectura" : "-escritura");
+    }
+
+    private static String recurso(String ruta) {
+        for (String recurso : new String[]{"clientes", "pedidos"}) {
+            String base = "/api/" + recurso;
+            if (ruta.equals(base) || ruta.startsWith(base + "/")) {
+                return recurso;
+            }
+        }
+        return null;
+    }
+
+    LimiteAdaptativo limite(String grupo) {
+        return limites.get(grupo);
+    }
+
+    private record LiberarAlTerminar(LimiteAdaptativo limite) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limite.liberarSinMuestra();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
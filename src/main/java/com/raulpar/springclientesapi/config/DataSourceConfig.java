@@ -0,0 +1,96 @@
+package com.raulpar.springclientesapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Configuración de los pools de conexiones.
+ * El pool del primario se configura con {@code spring.datasource.*}; si se indica
+ * {@code replica.url}, las transacciones de solo lectura se envían a un segundo pool contra la réplica.
+ * En ambos casos el DataSource de la aplicación es un LazyConnectionDataSourceProxy: las
+ * transacciones que no llegan a ejecutar SQL (por ejemplo, un acierto de la caché de clientes)
+ * no ocupan una conexión del pool.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "replica.url")
+    @ConfigurationProperties("replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${replica.url}") String url,
+                                              @Value("${replica.username:}") String username,
+                                              @Value("${replica.password:}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        // El arranque no falla si la réplica no está disponible: las lecturas irán al primario
+        replica.setInitializationFailTimeout(-1);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                 @Value("${replica.reintento:30s}") Duration reintento) {
+        DataSource replicaDataSource = replica.getIfAvailable();
+        DataSource destino = replicaDataSource == null
+                ? primario
+                : new EnrutadorDataSource(primario, replicaDataSource, reintento);
+        return new LazyConnectionDataSourceProxy(destino);
+    }
+
+    /**
+     * Delimita cada petición HTTP para que sus lecturas vayan al primario después de escribir en él.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "replica.url")
+    @ConditionalOnWebApplication
+    public FilterRegistrationBean<OncePerRequestFilter> lecturaTrasEscrituraFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registro = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                EnrutadorDataSource.inicioPeticion();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    EnrutadorDataSource.finPeticion();
+                }
+            }
+        });
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
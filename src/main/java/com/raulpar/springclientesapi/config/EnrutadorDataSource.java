@@ -0,0 +1,118 @@
+package com.raulpar.springclientesapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a la réplica y el resto al primario.
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy, para que la conexión se pida cuando
+ * la transacción ya está iniciada y se sabe si es de solo lectura.
+ * <p>
+ * Dentro de una petición HTTP, en cuanto se escribe en el primario las lecturas posteriores de
+ * la misma petición también van al primario, de forma que la petición lee sus propias escrituras
+ * aunque la réplica vaya con retraso. Si no se puede obtener una conexión de la réplica, las
+ * lecturas van al primario durante el tiempo de reintento indicado. Las lecturas que se guardan
+ * en memoria (caché de clientes, índice de búsqueda, facetas) se fuerzan al primario con
+ * {@link #desdePrimario(Supplier)}, para no cachear un dato que la réplica aún no ha actualizado.
+ * <p>
+ * {@code LazyConnectionDataSourceProxy#setReadOnlyDataSource} también envía las transacciones de
+ * solo lectura a otro DataSource, pero no permite leer las propias escrituras dentro de la petición
+ * ni pasar al primario cuando la réplica no responde; por eso el enrutado se hace aquí.
+ */
+@Slf4j
+public class EnrutadorDataSource extends AbstractDataSource {
+
+    // Estado de la petición en curso: si ya ha escrito en el primario (null fuera de una petición)
+    private static final ThreadLocal<AtomicBoolean> PETICION = new ThreadLocal<>();
+
+    // Marca las lecturas que deben ir al primario aunque la transacción sea de solo lectura
+    private static final ThreadLocal<Boolean> FORZAR_PRIMARIO = new ThreadLocal<>();
+
+    private final DataSource primario;
+    private final DataSource replica;
+    private final long reintentoNanos;
+    private volatile long replicaNoDisponibleHasta = System.nanoTime();
+
+    public EnrutadorDataSource(DataSource primario, DataSource replica, Duration reintento) {
+        this.primario = primario;
+        this.replica = replica;
+        this.reintentoNanos = reintento.toNanos();
+    }
+
+    /**
+     * Marca el inicio de una petición en el hilo actual; debe cerrarse con {@link #finPeticion()}.
+     */
+    public static void inicioPeticion() {
+        PETICION.set(new AtomicBoolean());
+    }
+
+    public static void finPeticion() {
+        PETICION.remove();
+    }
+
+    /**
+     * Ejecuta la operación leyendo del primario aunque la transacción sea de solo lectura.
+     * La conexión se elige con la primera sentencia de la transacción, así que la operación
+     * debe incluir esa primera sentencia.
+     */
+    public static <T> T desdePrimario(Supplier<T> operacion) {
+        Boolean anterior = FORZAR_PRIMARIO.get();
+        FORZAR_PRIMARIO.set(Boolean.TRUE);
+        try {
+            return operacion.get();
+        } finally {
+            if (anterior == null) FORZAR_PRIMARIO.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conectar(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conectar(ds -> ds.getConnection(username, password));
+    }
+
+    private Connection conectar(Conexion conexion) throws SQLException {
+        if (!usarReplica()) {
+            return conexion.de(primario);
+        }
+        try {
+            return conexion.de(replica);
+        } catch (SQLException e) {
+            log.warn("Réplica no disponible, las lecturas van al primario durante {} s: {}",
+                    Duration.ofNanos(reintentoNanos).toSeconds(), e.getMessage());
+            replicaNoDisponibleHasta = System.nanoTime() + reintentoNanos;
+            return conexion.de(primario);
+        }
+    }
+
+    private boolean usarReplica() {
+        AtomicBoolean escrituraEnPeticion = PETICION.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (escrituraEnPeticion != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                escrituraEnPeticion.set(true);
+            }
+            return false;
+        }
+        if (FORZAR_PRIMARIO.get() != null || (escrituraEnPeticion != null && escrituraEnPeticion.get())) {
+            return false;
+        }
+        return System.nanoTime() - replicaNoDisponibleHasta >= 0;
+    }
+
+    @FunctionalInterface
+    private interface Conexion {
+        Connection de(DataSource dataSource) throws SQLException;
+    }
+}
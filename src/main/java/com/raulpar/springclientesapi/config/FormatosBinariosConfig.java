@@ -0,0 +1,51 @@
+package com.raulpar.springclientesapi.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Representaciones binarias de las respuestas, además de JSON: Smile ({@code application/x-jackson-smile})
+ * y CBOR ({@code application/cbor}), elegidas por el cliente con la cabecera {@code Accept}.
+ * Se construyen con el Jackson2ObjectMapperBuilder de Spring Boot, de modo que usan la misma
+ * configuración que el JSON (por ejemplo, fechas ISO-8601 y las propiedades {@code spring.jackson.*}).
+ * <p>
+ * Como la respuesta depende de {@code Accept}, las de la API llevan {@code Vary: Accept} para que
+ * las cachés intermedias no sirvan una representación a quien pidió otra (las ETags también
+ * la incluyen, ver EtagUtils).
+ */
+@Configuration
+public class FormatosBinariosConfig implements WebMvcConfigurer {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // Se añade antes de escribir la respuesta, también a las 304 sin cuerpo
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
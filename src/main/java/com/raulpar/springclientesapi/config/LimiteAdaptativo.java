@@ -0,0 +1,82 @@
+package com.raulpar.springclientesapi.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de peticiones concurrentes que se ajusta con la latencia observada (AIMD).
+ * Mientras las peticiones terminan por debajo de la latencia objetivo y el límite se está usando,
+ * crece de forma aditiva (una plaza por cada "ventana" de {@code limite} peticiones); cuando una
+ * petición supera la latencia objetivo se reduce de forma multiplicativa, como mucho una vez por
+ * cada intervalo de latencia objetivo para no desplomarse cuando terminan a la vez muchas lentas.
+ */
+public class LimiteAdaptativo {
+
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaObjetivoNanos;
+    private final double factorReduccion;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private volatile double limite;
+    private long ultimaReduccion = System.nanoTime();
+
+    public LimiteAdaptativo(int inicial, int minimo, int maximo, Duration latenciaObjetivo, double factorReduccion) {
+        if (minimo < 1 || maximo < minimo || inicial < minimo || inicial > maximo) {
+            throw new IllegalArgumentException("Se requiere 1 <= mínimo <= inicial <= máximo");
+        }
+        if (factorReduccion <= 0 || factorReduccion >= 1) {
+            throw new IllegalArgumentException("El factor de reducción debe estar entre 0 y 1");
+        }
+        this.limite = inicial;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.latenciaObjetivoNanos = latenciaObjetivo.toNanos();
+        this.factorReduccion = factorReduccion;
+    }
+
+    /**
+     * Reserva una plaza si hay sitio; si devuelve true debe liberarse con {@link #liberar(long)}
+     * o {@link #liberarSinMuestra()}.
+     */
+    public boolean adquirir() {
+        if (enCurso.incrementAndGet() > (int) limite) {
+            enCurso.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Libera una plaza y ajusta el límite con la latencia de la petición.
+     */
+    public void liberar(long latenciaNanos) {
+        int enCursoAlTerminar = enCurso.getAndDecrement();
+        synchronized (this) {
+            if (latenciaNanos > latenciaObjetivoNanos) {
+                long ahora = System.nanoTime();
+                if (ahora - ultimaReduccion >= latenciaObjetivoNanos) {
+                    limite = Math.max(minimo, limite * factorReduccion);
+                    ultimaReduccion = ahora;
+                }
+            } else if (enCursoAlTerminar * 2 >= limite) {
+                // Solo crece si se está usando al menos la mitad del límite
+                limite = Math.min(maximo, limite + 1 / limite);
+            }
+        }
+    }
+
+    /**
+     * Libera una plaza sin ajustar el límite (peticiones cuya duración no refleja la carga).
+     */
+    public void liberarSinMuestra() {
+        enCurso.decrementAndGet();
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+}
@@ -0,0 +1,30 @@
+package com.raulpar.springclientesapi.config;
+
+import com.raulpar.springclientesapi.service.PedidoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstruye los contadores de pedidos por día al arrancar la aplicación.
+ * Solo se ejecuta si se arranca con {@code --pedidos.contadores.reconstruir=true},
+ * por ejemplo para rellenar los contadores de una base de datos con pedidos ya existentes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "pedidos.contadores.reconstruir", havingValue = "true")
+public class ReconstruirContadoresRunner implements ApplicationRunner {
+
+    private final PedidoService pedidoService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Reconstruyendo los contadores de pedidos por día");
+        pedidoService.reconstruirContadores();
+        log.info("Contadores de pedidos por día reconstruidos");
+    }
+}
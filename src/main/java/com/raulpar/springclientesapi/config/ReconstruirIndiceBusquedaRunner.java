@@ -0,0 +1,32 @@
+package com.raulpar.springclientesapi.config;
+
+import com.raulpar.springclientesapi.service.ClienteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Construye el índice de búsqueda de clientes al arrancar la aplicación.
+ * Hasta que termina, {@code GET /api/clientes/buscar} responde 503. Si la lectura falla la
+ * aplicación arranca igualmente, sin búsqueda, y el error queda en el log.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconstruirIndiceBusquedaRunner implements ApplicationRunner {
+
+    private final ClienteService clienteService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.nanoTime();
+        try {
+            clienteService.reconstruirIndiceBusqueda();
+            log.info("Índice de búsqueda de clientes construido en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("No se ha podido construir el índice de búsqueda de clientes", e);
+        }
+    }
+}
@@ -1,19 +1,42 @@
 package com.raulpar.springclientesapi.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.raulpar.springclientesapi.cache.IndiceBusquedaClientes;
+import com.raulpar.springclientesapi.dto.BulkResultDto;
 import com.raulpar.springclientesapi.dto.ClienteInputDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputResumenDto;
+import com.raulpar.springclientesapi.dto.ClientePatchDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.FacetasClientesDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
 import com.raulpar.springclientesapi.service.ClienteService;
+import com.raulpar.springclientesapi.service.PedidoService;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import com.raulpar.springclientesapi.util.EtagUtils;
+import com.raulpar.springclientesapi.util.FieldsUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 
 @RestController
@@ -22,41 +45,162 @@ import java.util.List;
 public class ClienteController {
 
     private final ClienteService clienteservice;
+    private final PedidoService pedidoService;
 
 
-    @Operation(summary = "Get all customers")
+    @Operation(summary = "Get customers using cursor pagination, optionally filtered by province and city and only with some fields (fields=idCliente,dni)")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Customer list retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Customer page retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "No customer has changed since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unknown field")
     })
     @GetMapping
-    public List<ClienteOutputDto> getAll() {
-        return clienteservice.findAll();
+    public ResponseEntity<CursorPageDto<?>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit,
+            @Parameter(description = "Comma-separated ClienteOutputDto properties to return; idCliente is always included", example = "idCliente,dni")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Only customers from this province (exact match)", example = "Madrid")
+            @RequestParam(required = false) String provincia,
+            @Parameter(description = "Only customers from this city (exact match)", example = "Alcalá de Henares")
+            @RequestParam(required = false) String municipio,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long despuesDe;
+        List<String> campos;
+        try {
+            despuesDe = CursorUtils.decode(cursor);
+            campos = FieldsUtils.parse(fields, ClienteOutputDto.class, "idCliente");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // La versión se lee antes que los datos, así la página nunca es más antigua que su ETag.
+        // Es débil para que Tomcat pueda comprimir la página
+        String etag = EtagUtils.debil(clienteservice.versionListado());
+        if (EtagUtils.noModificado(ifNoneMatch, etag)) {
+            return EtagUtils.notModified(etag);
+        }
+        // Con fields la consulta solo lee las columnas pedidas; un filtro vacío no filtra
+        String filtroProvincia = vacioANull(provincia);
+        String filtroMunicipio = vacioANull(municipio);
+        CursorPageDto<?> pagina = campos == null
+                ? clienteservice.findPage(despuesDe, limit, filtroProvincia, filtroMunicipio)
+                : clienteservice.findPage(despuesDe, limit, campos, filtroProvincia, filtroMunicipio);
+        return ResponseEntity.ok().eTag(etag).body(pagina);
     }
 
-    @Operation(summary = "Get customer by ID")
+    @Operation(summary = "Get customer by ID, optionally with a summary of their orders (include=resumen)")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Customer found"),
+            @ApiResponse(responseCode = "200", description = "Customer found",
+                    content = @Content(schema = @Schema(oneOf = {ClienteOutputDetailDto.class, ClienteOutputResumenDto.class}))),
+            @ApiResponse(responseCode = "304", description = "The customer has not changed since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ClienteOutputDetailDto> getById(@PathVariable Long id) {
-        return clienteservice.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<ClienteOutputDetailDto> getById(
+            @PathVariable Long id,
+            @Parameter(description = "Extra data to include, e.g. resumen")
+            @RequestParam(required = false) List<String> include,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // El resumen cambia con cada pedido, así que no lleva ETag
+        if (include != null && include.contains("resumen")) {
+            return clienteservice.findById(id, true)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        // Se compara solo la versión (de la caché o de la columna version) antes de cargar y serializar el cliente
+        if (ifNoneMatch != null) {
+            Optional<Long> version = clienteservice.findVersion(id);
+            if (version.isPresent() && EtagUtils.noModificado(ifNoneMatch, etag(id, version.get()))) {
+                return EtagUtils.notModified(etag(id, version.get()));
+            }
+        }
+        return clienteservice.findById(id, false)
+                .map(cliente -> ResponseEntity.ok().eTag(etag(id, cliente.getVersion())).body(cliente))
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Update customer")
+    @Operation(summary = "Get a customer's orders using cursor pagination")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders found"),
+            @ApiResponse(responseCode = "304", description = "No order has changed since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "404", description = "Customer not found")
+    })
+    @GetMapping("/{id}/pedidos")
+    public ResponseEntity<CursorPageDto<PedidoDto>> getPedidos(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long despuesDe;
+        try {
+            despuesDe = CursorUtils.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Al eliminar un cliente también cambia la versión de pedidos, así que una ETag válida implica que existe
+        String etag = EtagUtils.debil(pedidoService.versionListado());
+        if (EtagUtils.noModificado(ifNoneMatch, etag)) {
+            return EtagUtils.notModified(etag);
+        }
+        return pedidoService.findByCliente(id, despuesDe, limit)
+                .map(pagina -> ResponseEntity.ok().eTag(etag).body(pagina))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Update customer, optionally only if it still matches the ETag in If-Match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer updated successfully"),
             @ApiResponse(responseCode = "404", description = "Customer not found"),
             @ApiResponse(responseCode = "400", description = "Invalid request"),
             @ApiResponse(responseCode = "409", description = "Another customer with this DNI already exists"),
+            @ApiResponse(responseCode = "412", description = "The customer has changed since the ETag in If-Match"),
     })
     @PutMapping("/{id}")
-    public ResponseEntity<ClienteOutputDetailDto> update( @Valid @PathVariable Long id, @RequestBody ClienteInputDto clienteDto) {
-        return clienteservice.update(id, clienteDto)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<ClienteOutputDetailDto> update(@PathVariable Long id, @Valid @RequestBody ClienteInputDto clienteDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return actualizar(id, ifMatch, version -> clienteservice.update(id, clienteDto, version));
+    }
+
+    @Operation(summary = "Partially update customer: only the fields present in the body are changed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customer updated successfully"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "409", description = "Another customer with this DNI already exists"),
+            @ApiResponse(responseCode = "412", description = "The customer has changed since the ETag in If-Match"),
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<ClienteOutputDetailDto> patch(@PathVariable Long id, @Valid @RequestBody ClientePatchDto clienteDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return actualizar(id, ifMatch, version -> clienteservice.patch(id, clienteDto, version));
+    }
+
+    /**
+     * Evalúa If-Match contra la versión actual del cliente y ejecuta la actualización con esa
+     * versión como esperada; 412 si no coincide o si el cliente cambia antes de escribirlo.
+     */
+    private ResponseEntity<ClienteOutputDetailDto> actualizar(
+            Long id, String ifMatch, Function<Long, Optional<ClienteOutputDetailDto>> actualizacion) {
+        Long versionEsperada = null;
+        if (ifMatch != null) {
+            Optional<Long> version = clienteservice.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (!EtagUtils.precondicionCumplida(ifMatch, id, version.get())) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            versionEsperada = version.get();
+        }
+        try {
+            return actualizacion.apply(versionEsperada)
+                    .map(cliente -> ResponseEntity.ok().eTag(etag(id, cliente.getVersion())).body(cliente))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Otra petición ha modificado el cliente entre la comprobación y la actualización
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
 
     @Operation(summary = "Save customer")
@@ -71,6 +215,24 @@ public class ClienteController {
         return ResponseEntity.status(HttpStatus.CREATED).body(cliente);
     }
 
+    @Operation(summary = "Bulk import customers from a JSON array")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "JSON array of customers",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ClienteInputDto.class))))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, rejected rows are listed in the response. "
+                    + "A malformed element is reported as a rejected row and stops the import"),
+            @ApiResponse(responseCode = "400", description = "The body is not a JSON array")
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResultDto> createBulk(@Parameter(hidden = true) InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(clienteservice.importBulk(body));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(summary = "Delete customer by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer deleted succesfully"),
@@ -96,4 +258,49 @@ public class ClienteController {
                 .orElse(ResponseEntity.notFound().build());
 
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Search customers by name, surname, email or city (prefix and typo tolerant), ranked by relevance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching customers, best matches first"),
+            @ApiResponse(responseCode = "400", description = "Missing search text, invalid cursor or cursor beyond the first "
+                    + IndiceBusquedaClientes.MAX_OFFSET + " results"),
+            @ApiResponse(responseCode = "503", description = "The search index is still being built")
+    })
+    @GetMapping("/buscar")
+    public ResponseEntity<CursorPageDto<ClienteOutputDto>> buscar(
+            @Parameter(description = "Text to search for", example = "juan mad")
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit) {
+        long offset;
+        try {
+            offset = CursorUtils.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (q.isBlank() || offset > IndiceBusquedaClientes.MAX_OFFSET) {
+            return ResponseEntity.badRequest().build();
+        }
+        return clienteservice.buscar(q, (int) offset, limit)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build());
+    }
+
+    @Operation(summary = "Get the number of customers per province and, for the given province, per city")
+    @ApiResponse(responseCode = "200", description = "Customer counts retrieved successfully")
+    @GetMapping("/facetas")
+    public ResponseEntity<FacetasClientesDto> facetas(
+            @Parameter(description = "Province whose cities are also counted", example = "Madrid")
+            @RequestParam(required = false) String provincia) {
+        return ResponseEntity.ok(clienteservice.facetas(vacioANull(provincia)));
+    }
+
+    private static String vacioANull(String valor) {
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+
+    // ETag de un cliente: su ID y la versión de la fila
+    private static String etag(Long id, Long version) {
+        return EtagUtils.of(id, version);
+    }
+}
@@ -1,17 +1,27 @@
 package com.raulpar.springclientesapi.controller;
 
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.PedidoBulkResultDto;
 import com.raulpar.springclientesapi.dto.PedidoCreateDto;
 import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
 import com.raulpar.springclientesapi.service.PedidoService;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import com.raulpar.springclientesapi.util.EtagUtils;
+import com.raulpar.springclientesapi.util.FieldsUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,25 +34,68 @@ public class PedidoController {
     private final PedidoService pedidoService;
 
 
-    @Operation(summary = "Get all orders")
+    @Operation(summary = "Get orders using cursor pagination, optionally only some fields (fields=numPedido,fecha)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Orders found"),
+            @ApiResponse(responseCode = "304", description = "No order has changed since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unknown field")
     })
     @GetMapping
-    public ResponseEntity<List<PedidoDto>> getAll() {
-        List<PedidoDto> pedidos = pedidoService.findAll();
-        return ResponseEntity.ok(pedidos);
+    public ResponseEntity<CursorPageDto<?>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit,
+            @Parameter(description = "Comma-separated PedidoDto properties to return; numPedido is always included", example = "numPedido,fecha")
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long despuesDe;
+        List<String> campos;
+        try {
+            despuesDe = CursorUtils.decode(cursor);
+            campos = FieldsUtils.parse(fields, PedidoDto.class, "numPedido");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // La versión se lee antes que los datos, así la página nunca es más antigua que su ETag
+        String etag = EtagUtils.debil(pedidoService.versionListado());
+        if (EtagUtils.noModificado(ifNoneMatch, etag)) {
+            return EtagUtils.notModified(etag);
+        }
+        // Con fields la consulta solo lee las columnas pedidas
+        CursorPageDto<?> pagina = campos == null
+                ? pedidoService.findPage(despuesDe, limit)
+                : pedidoService.findPage(despuesDe, limit, campos);
+        return ResponseEntity.ok().eTag(etag).body(pagina);
+    }
+
+    @Operation(summary = "Export all orders as NDJSON (one JSON object per line)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders streamed successfully"),
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = pedidoService::exportNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @Operation(summary = "Get order by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order found"),
+            @ApiResponse(responseCode = "304", description = "The order still exists and matches the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Order not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<PedidoDto> getById(@PathVariable Long id) {
+    public ResponseEntity<PedidoDto> getById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Un pedido no cambia una vez creado: su ETag es su ID y basta con comprobar que sigue existiendo
+        String etag = EtagUtils.of(id);
+        if (EtagUtils.noModificado(ifNoneMatch, etag) && pedidoService.existsById(id)) {
+            return EtagUtils.notModified(etag);
+        }
         return pedidoService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(pedido -> ResponseEntity.ok().eTag(etag).body(pedido))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -59,6 +112,16 @@ public class PedidoController {
     }
 
 
+    @Operation(summary = "Create orders in bulk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders processed, rejected rows are listed in the response")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<PedidoBulkResultDto> createBulk(@RequestBody List<PedidoCreateDto> pedidos) {
+        return ResponseEntity.ok(pedidoService.saveBulk(pedidos));
+    }
+
+
     @Operation(summary = "Delete order by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order deleted"),
@@ -77,11 +140,69 @@ public class PedidoController {
     @Operation(summary = "Get orders by date")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Orders found"),
+            @ApiResponse(responseCode = "304", description = "No order has changed since the ETag in If-None-Match"),
     })
     @GetMapping("/fecha")
-    public ResponseEntity<List<PedidoDto>> getByFecha(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+    public ResponseEntity<List<PedidoDto>> getByFecha(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = EtagUtils.debil(pedidoService.versionListado());
+        if (EtagUtils.noModificado(ifNoneMatch, etag)) {
+            return EtagUtils.notModified(etag);
+        }
         List<PedidoDto> pedidos = pedidoService.findByFecha(fecha);
-        return ResponseEntity.ok(pedidos);
+        return ResponseEntity.ok().eTag(etag).body(pedidos);
+    }
+
+    @Operation(summary = "Get orders between two dates (both included) using cursor pagination")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders found"),
+            @ApiResponse(responseCode = "304", description = "No order has changed since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or cursor")
+    })
+    @GetMapping("/rango")
+    public ResponseEntity<CursorPageDto<PedidoDto>> getByRango(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorUtils.DEFAULT_LIMIT) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (desde.isAfter(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+        long despuesDe;
+        try {
+            despuesDe = CursorUtils.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = EtagUtils.debil(pedidoService.versionListado());
+        if (EtagUtils.noModificado(ifNoneMatch, etag)) {
+            return EtagUtils.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(pedidoService.findByRango(desde, hasta, despuesDe, limit));
+    }
+
+    @Operation(summary = "Get the number of orders per day between two dates (both included), optionally for one customer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Daily order counts"),
+            @ApiResponse(responseCode = "304", description = "No order has changed since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    @GetMapping("/stats/diario")
+    public ResponseEntity<List<PedidosPorDiaDto>> getStatsDiario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long idCliente,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (desde.isAfter(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = EtagUtils.debil(pedidoService.versionListado());
+        if (EtagUtils.noModificado(ifNoneMatch, etag)) {
+            return EtagUtils.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(pedidoService.countByDia(desde, hasta, idCliente));
     }
 
 }
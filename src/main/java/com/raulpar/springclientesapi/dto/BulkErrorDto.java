@@ -0,0 +1,22 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "Row rejected during a bulk operation")
+public class BulkErrorDto {
+
+    @Schema(description = "Zero-based position of the row in the request", example = "3")
+    private int indice;
+
+    @Schema(description = "Business key of the rejected row (DNI or customer id)", example = "12345678Z")
+    private String clave;
+
+    @Schema(description = "Reason why the row was rejected", example = "Duplicated DNI")
+    private String mensaje;
+}
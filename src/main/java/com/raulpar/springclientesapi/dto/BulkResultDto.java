@@ -0,0 +1,25 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "Result of a bulk import")
+public class BulkResultDto {
+
+    @Schema(description = "Number of rows read from the request", example = "50000")
+    private int procesados;
+
+    @Schema(description = "Number of rows inserted", example = "49998")
+    private int insertados;
+
+    @Schema(description = "Rows rejected with the reason")
+    private List<BulkErrorDto> errores = new ArrayList<>();
+}
@@ -1,5 +1,6 @@
 package com.raulpar.springclientesapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import lombok.AllArgsConstructor;
@@ -36,5 +37,15 @@ public class ClienteOutputDetailDto {
 
     @Schema(description = "Province / State", example = "Madrid")
     private String provincia;
+
+    // Versión del cliente, se envía en la cabecera ETag y no en el cuerpo
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Long version;
+
+    public ClienteOutputDetailDto(Long idCliente, String dni, String nombre, String apellidos, String email,
+                                  String calle, String municipio, String provincia) {
+        this(idCliente, dni, nombre, apellidos, email, calle, municipio, provincia, null);
+    }
 }
 
@@ -0,0 +1,36 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Schema(description = "DTO to display detailed customer information with a summary of their orders")
+public class ClienteOutputResumenDto extends ClienteOutputDetailDto {
+
+    @Schema(description = "Number of orders placed by the customer", example = "12")
+    private long totalPedidos;
+
+    @Schema(description = "Date of the customer's first order, null if there are no orders", example = "2025-01-10T09:30:00")
+    private LocalDateTime primerPedido;
+
+    @Schema(description = "Date of the customer's last order, null if there are no orders", example = "2025-04-19T18:05:00")
+    private LocalDateTime ultimoPedido;
+
+    // Constructor usado por la consulta agregada de ClienteRepository
+    public ClienteOutputResumenDto(Long idCliente, String dni, String nombre, String apellidos, String email,
+                                   String calle, String municipio, String provincia,
+                                   long totalPedidos, LocalDateTime primerPedido, LocalDateTime ultimoPedido) {
+        super(idCliente, dni, nombre, apellidos, email, calle, municipio, provincia);
+        this.totalPedidos = totalPedidos;
+        this.primerPedido = primerPedido;
+        this.ultimoPedido = ultimoPedido;
+    }
+}
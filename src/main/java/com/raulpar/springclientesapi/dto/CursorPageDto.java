@@ -0,0 +1,24 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "Page of results using cursor (keyset) pagination")
+public class CursorPageDto<T> {
+
+    @Schema(description = "Items of the current page")
+    private List<T> items;
+
+    @Schema(description = "Opaque cursor to request the next page, null when there are no more results", example = "MTI")
+    private String next;
+
+    @Schema(description = "Maximum number of items requested for the page", example = "50")
+    private int limit;
+}
@@ -0,0 +1,19 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "Number of customers with a given value of a field")
+public class FacetaDto {
+
+    @Schema(description = "Field value", example = "Madrid")
+    private String valor;
+
+    @Schema(description = "Number of customers with that value", example = "1250")
+    private long total;
+}
@@ -0,0 +1,21 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "Number of customers per province and, for the requested province, per city")
+public class FacetasClientesDto {
+
+    @Schema(description = "Customers per province, most common first")
+    private List<FacetaDto> provincias;
+
+    @Schema(description = "Customers per city of the requested province, most common first; empty when no province is requested")
+    private List<FacetaDto> municipios;
+}
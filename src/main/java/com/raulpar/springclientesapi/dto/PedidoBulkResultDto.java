@@ -0,0 +1,22 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "Result of a bulk order creation")
+public class PedidoBulkResultDto {
+
+    @Schema(description = "Orders created")
+    private List<PedidoDto> creados = new ArrayList<>();
+
+    @Schema(description = "Rows rejected with the reason")
+    private List<BulkErrorDto> rechazados = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package com.raulpar.springclientesapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "Number of orders placed on a day")
+public class PedidosPorDiaDto {
+
+    @Schema(description = "Day", example = "2025-04-19")
+    private LocalDate fecha;
+
+    @Schema(description = "Number of orders placed that day", example = "42")
+    private long total;
+}
@@ -3,8 +3,13 @@ package com.raulpar.springclientesapi.mapper;
 import com.raulpar.springclientesapi.dto.ClienteInputDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.ClientePatchDto;
 import com.raulpar.springclientesapi.model.Cliente;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 import java.util.List;
 
@@ -13,6 +18,20 @@ public interface ClienteMapper {
 
     Cliente toEntity(ClienteInputDto dto);
 
+    // Copia los datos sobre una entidad gestionada: Hibernate solo actualiza las columnas que cambian.
+    // El ID, la versión y los pedidos son de la entidad y no se tocan
+    @Mapping(target = "idCliente", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "pedidos", ignore = true)
+    void updateEntity(ClienteInputDto dto, @MappingTarget Cliente cliente);
+
+    // Actualización parcial: los campos nulos del DTO no se copian
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "idCliente", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "pedidos", ignore = true)
+    void patchEntity(ClientePatchDto dto, @MappingTarget Cliente cliente);
+
     ClienteOutputDto toDto(Cliente cliente);
 
     ClienteOutputDetailDto toDetailDto(Cliente cliente);
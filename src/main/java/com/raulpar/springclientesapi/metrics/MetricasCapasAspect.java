@@ -0,0 +1,53 @@
+package com.raulpar.springclientesapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mide la latencia de cada llamada a los servicios y a los mappers de MapStruct.
+ * Se publica el timer {@value #METRICA} con las etiquetas capa, clase, método y excepción.
+ * Los controladores ({@code http.server.requests}), los repositorios
+ * ({@code spring.data.repository.invocations}) y el pool de Hikari los mide Spring Boot.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricasCapasAspect {
+
+    public static final String METRICA = "app.layer.invocations";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(com.raulpar.springclientesapi.service..*)")
+    public Object medirServicio(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, "service");
+    }
+
+    @Around("within(com.raulpar.springclientesapi.mapper..*)")
+    public Object medirMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, "mapper");
+    }
+
+    private Object medir(ProceedingJoinPoint joinPoint, String capa) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String excepcion = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            excepcion = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRICA)
+                    .tag("layer", capa)
+                    .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", excepcion)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -5,11 +5,25 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 
+/**
+ * Las actualizaciones solo incluyen las columnas modificadas (@DynamicUpdate).
+ * Los índices por provincia y municipio sirven los listados filtrados ordenados por ID: InnoDB
+ * añade la clave primaria a cada índice secundario, así que cada valor ya está ordenado por idCliente.
+ * El índice solo por provincia no sobra: en el compuesto, los clientes de una provincia van ordenados
+ * primero por municipio y el listado necesitaría ordenarlos.
+ */
 @Entity
-@Table(name = "Cliente")
+@Table(name = "Cliente", indexes = {
+        @Index(name = "idx_cliente_provincia", columnList = "provincia"),
+        @Index(name = "idx_cliente_municipio", columnList = "municipio"),
+        @Index(name = "idx_cliente_provincia_municipio", columnList = "provincia, municipio")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,6 +66,15 @@ public class Cliente {
     @Schema(description = "Customer's Province.", example = "Madrid")
     private String provincia;
 
+    /**
+     * Versión de la fila: Hibernate la incrementa en cada actualización y la comprueba para el
+     * control de concurrencia optimista. Se expone a los clientes de la API como ETag.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Lista de pedidos asociados a este cliente.
      * Se ignora en la serialización JSON para evitar ciclos infinitos.
@@ -8,7 +8,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "Pedidos")
+@Table(name = "Pedidos", indexes = {
+        @Index(name = "idx_pedidos_fecha", columnList = "fecha"),
+        @Index(name = "idx_pedidos_cliente_fecha", columnList = "id_cliente, fecha"),
+        @Index(name = "idx_pedidos_cliente_numpedido", columnList = "id_cliente, numPedido")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,7 +25,7 @@ public class Pedido {
     @Schema(description = "Order's Unique identifier.", example = "1")
     private Long numPedido;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cliente", nullable = false)
     @Schema(description = "Customer's Unique identifier.", example = "1")
     private Cliente cliente;
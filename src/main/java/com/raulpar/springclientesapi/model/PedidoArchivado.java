@@ -0,0 +1,34 @@
+package com.raulpar.springclientesapi.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pedido movido al archivo por tener más antigüedad que {@code pedidos.archivo.edad}.
+ * Conserva el número de pedido original; los pedidos archivados no se modifican,
+ * solo se consultan o se eliminan.
+ */
+@Entity
+@Table(name = "PedidosArchivo", indexes = {
+        @Index(name = "idx_pedidosarchivo_fecha", columnList = "fecha"),
+        @Index(name = "idx_pedidosarchivo_cliente_numpedido", columnList = "id_cliente, numPedido")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Archived order, older than the configured archive age.")
+public class PedidoArchivado {
+
+    @Id
+    @Column(name = "numPedido")
+    private Long numPedido;
+
+    @Column(name = "id_cliente", nullable = false)
+    private Long idCliente;
+
+    @Column(name = "fecha")
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,27 @@
+package com.raulpar.springclientesapi.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Número de pedidos realizados cada día.
+ * Se mantiene de forma incremental en la misma transacción en que se crean o eliminan pedidos.
+ */
+@Entity
+@Table(name = "PedidosPorDia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Pre-aggregated number of orders per day.")
+public class PedidoDiario {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+}
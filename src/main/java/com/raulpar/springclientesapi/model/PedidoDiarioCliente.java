@@ -0,0 +1,46 @@
+package com.raulpar.springclientesapi.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Número de pedidos realizados cada día por cada cliente.
+ * Se mantiene de forma incremental junto con {@link PedidoDiario}.
+ */
+@Entity
+@Table(name = "PedidosPorDiaCliente", indexes = {
+        @Index(name = "idx_pedidosdiacliente_cliente_fecha", columnList = "id_cliente, fecha")
+})
+@IdClass(PedidoDiarioCliente.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Pre-aggregated number of orders per day and customer.")
+public class PedidoDiarioCliente {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Id
+    @Column(name = "id_cliente")
+    private Long idCliente;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    /**
+     * Clave compuesta (día, cliente).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private LocalDate fecha;
+        private Long idCliente;
+    }
+}
@@ -1,9 +1,75 @@
 package com.raulpar.springclientesapi.repository;
 
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputResumenDto;
 import com.raulpar.springclientesapi.model.Cliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ClienteRepository extends JpaRepository<Cliente, Long>, ClienteRepositoryCustom {
+
+    // Proyección directa a ClienteOutputDetailDto, sin cargar el cliente como entidad
+    String SELECT_DETAIL_DTO = "select new com.raulpar.springclientesapi.dto.ClienteOutputDetailDto(" +
+            "c.idCliente, c.dni, c.nombre, c.apellidos, c.email, c.calle, c.municipio, c.provincia) from Cliente c";
 
-public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     Optional<Cliente> findByDni(String dni);
+
+    // Paginación por cursor: recorrido por rango sobre la clave primaria
+    List<Cliente> findByIdClienteGreaterThanOrderByIdClienteAsc(Long idCliente, Limit limit);
+
+    // Paginación por cursor de los listados filtrados, sobre los índices por provincia y municipio
+    List<Cliente> findByProvinciaAndIdClienteGreaterThanOrderByIdClienteAsc(String provincia, Long idCliente, Limit limit);
+
+    List<Cliente> findByMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc(String municipio, Long idCliente, Limit limit);
+
+    List<Cliente> findByProvinciaAndMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc(String provincia, String municipio,
+                                                                                       Long idCliente, Limit limit);
+
+    // Número de clientes por provincia y municipio, para construir la caché de facetas
+    @Query("select c.provincia, c.municipio, count(c) from Cliente c group by c.provincia, c.municipio")
+    List<Object[]> countByProvinciaAndMunicipio();
+
+    // Versión de un cliente, para responder a las peticiones condicionales sin cargar la fila completa
+    @Query("select c.version from Cliente c where c.idCliente = :id")
+    Optional<Long> findVersionById(Long id);
+
+    // Borrado directo con una sentencia DELETE, sin cargar la entidad ni sus pedidos; devuelve las filas borradas
+    @Modifying
+    @Query("delete from Cliente c where c.idCliente = :id")
+    int bulkDeleteById(Long id);
+
+    // DNIs de la lista que ya existen, para detectar duplicados en las importaciones masivas
+    @Query("select c.dni from Cliente c where c.dni in :dnis")
+    List<String> findExistingDnis(Collection<String> dnis);
+
+    // IDs de la lista que existen, para validar los clientes de los pedidos masivos con una sola consulta
+    @Query("select c.idCliente from Cliente c where c.idCliente in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // Cliente con el resumen de sus pedidos (número, primera y última fecha) en una única consulta agregada
+    @Query("select new com.raulpar.springclientesapi.dto.ClienteOutputResumenDto(" +
+            "c.idCliente, c.dni, c.nombre, c.apellidos, c.email, c.calle, c.municipio, c.provincia, " +
+            "count(p), min(p.fecha), max(p.fecha)) " +
+            "from Cliente c left join c.pedidos p where c.idCliente = :id " +
+            "group by c.idCliente, c.dni, c.nombre, c.apellidos, c.email, c.calle, c.municipio, c.provincia")
+    Optional<ClienteOutputResumenDto> findResumenById(Long id);
+
+    // Clientes recién insertados por lotes JDBC (sin ids generados), para añadirlos al índice de búsqueda
+    @Query(SELECT_DETAIL_DTO + " where c.dni in :dnis")
+    List<ClienteOutputDetailDto> findDetailDtosByDniIn(Collection<String> dnis);
+
+    // Recorrido completo para construir el índice de búsqueda, por bloques con un cursor de servidor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DETAIL_DTO + " order by c.idCliente")
+    Stream<ClienteOutputDetailDto> streamAllDetailDtos();
 }
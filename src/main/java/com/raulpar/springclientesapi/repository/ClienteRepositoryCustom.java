@@ -0,0 +1,32 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.model.Cliente;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de {@link ClienteRepository} implementadas a mano con JDBC o con JPQL dinámico.
+ */
+public interface ClienteRepositoryCustom {
+
+    /**
+     * Inserta los clientes en un único lote JDBC.
+     * Hibernate desactiva el batching de inserciones con ids IDENTITY, por eso se
+     * hace directamente con JDBC; los ids generados no se recuperan.
+     */
+    void batchInsert(List<Cliente> clientes);
+
+    /**
+     * Página de clientes ordenada por ID que solo lee las propiedades indicadas de ClienteOutputDto.
+     *
+     * @param campos    Propiedades a leer; deben incluir idCliente, que es la clave del cursor
+     * @param provincia Provincia por la que filtrar, o null
+     * @param municipio Municipio por el que filtrar, o null
+     * @param despuesDe ID del último cliente de la página anterior
+     * @param maxFilas  Número máximo de filas
+     * @return Una fila por cliente, como mapa propiedad → valor en el orden de {@code campos}
+     */
+    List<Map<String, Object>> findPageCampos(List<String> campos, String provincia, String municipio,
+                                             long despuesDe, int maxFilas);
+}
@@ -0,0 +1,51 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.model.Cliente;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ClienteRepositoryCustomImpl implements ClienteRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "insert into Cliente (dni, nombre, apellidos, email, calle, municipio, provincia) values (?, ?, ?, ?, ?, ?, ?)";
+
+    // Ruta JPQL de cada propiedad de ClienteOutputDto
+    static final Map<String, String> RUTAS = Map.of(
+            "idCliente", "c.idCliente",
+            "dni", "c.dni",
+            "nombre", "c.nombre",
+            "apellidos", "c.apellidos",
+            "email", "c.email");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public void batchInsert(List<Cliente> clientes) {
+        if (clientes.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, clientes, clientes.size(), (ps, cliente) -> {
+            ps.setString(1, cliente.getDni());
+            ps.setString(2, cliente.getNombre());
+            ps.setString(3, cliente.getApellidos());
+            ps.setString(4, cliente.getEmail());
+            ps.setString(5, cliente.getCalle());
+            ps.setString(6, cliente.getMunicipio());
+            ps.setString(7, cliente.getProvincia());
+        });
+    }
+
+    @Override
+    public List<Map<String, Object>> findPageCampos(List<String> campos, String provincia, String municipio,
+                                                    long despuesDe, int maxFilas) {
+        Map<String, String> filtros = new LinkedHashMap<>();
+        if (provincia != null) filtros.put("c.provincia", provincia);
+        if (municipio != null) filtros.put("c.municipio", municipio);
+        return Proyecciones.pagina(entityManager, RUTAS, "Cliente c", "idCliente", campos, filtros, despuesDe, maxFilas);
+    }
+}
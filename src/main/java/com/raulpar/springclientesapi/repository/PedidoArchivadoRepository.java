@@ -0,0 +1,60 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.model.PedidoArchivado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface PedidoArchivadoRepository extends JpaRepository<PedidoArchivado, Long>, PedidoArchivadoRepositoryCustom {
+
+    // Misma proyección a PedidoDto que PedidoRepository, sobre la tabla del archivo
+    String SELECT_PEDIDO_DTO =
+            "select new com.raulpar.springclientesapi.dto.PedidoDto(a.numPedido, a.idCliente, a.fecha) from PedidoArchivado a";
+
+    @Query(SELECT_PEDIDO_DTO + " order by a.numPedido")
+    List<PedidoDto> findAllDtos();
+
+    @Query(SELECT_PEDIDO_DTO + " where a.numPedido = :numPedido")
+    Optional<PedidoDto> findDtoById(Long numPedido);
+
+    @Query(SELECT_PEDIDO_DTO + " where a.fecha between :desde and :hasta order by a.numPedido")
+    List<PedidoDto> findDtoByFechaBetween(LocalDateTime desde, LocalDateTime hasta);
+
+    // Mismas páginas por cursor que PedidoRepository, para mezclarlas con las de la tabla de pedidos
+    @Query(SELECT_PEDIDO_DTO + " where a.numPedido > :numPedido order by a.numPedido")
+    List<PedidoDto> findDtoPage(Long numPedido, Limit limit);
+
+    @Query(SELECT_PEDIDO_DTO + " where a.fecha >= :desde and a.fecha < :hasta and a.numPedido > :numPedido order by a.numPedido")
+    List<PedidoDto> findDtoPageByFecha(LocalDateTime desde, LocalDateTime hasta, Long numPedido, Limit limit);
+
+    @Query(SELECT_PEDIDO_DTO + " where a.idCliente = :idCliente and a.numPedido > :numPedido order by a.numPedido")
+    List<PedidoDto> findDtoPageByCliente(Long idCliente, Long numPedido, Limit limit);
+
+    // Número de pedidos archivados del cliente y fechas del primero y el último (una fila), para completar su resumen
+    @Query("select count(a), min(a.fecha), max(a.fecha) from PedidoArchivado a where a.idCliente = :idCliente")
+    List<Object[]> findResumenByCliente(Long idCliente);
+
+    // Borrados directos con una sentencia DELETE, sin cargar las entidades; devuelven las filas borradas
+    @Modifying
+    @Query("delete from PedidoArchivado a where a.numPedido = :numPedido")
+    int bulkDeleteById(Long numPedido);
+
+    @Modifying
+    @Query("delete from PedidoArchivado a where a.idCliente = :idCliente")
+    int bulkDeleteByCliente(Long idCliente);
+
+    // Recorrido completo para exportaciones, por bloques con un cursor de servidor como en PedidoRepository
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_PEDIDO_DTO + " order by a.numPedido")
+    Stream<PedidoDto> streamAllDtos();
+}
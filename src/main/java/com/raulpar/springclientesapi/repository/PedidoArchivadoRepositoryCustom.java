@@ -0,0 +1,28 @@
+package com.raulpar.springclientesapi.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de {@link PedidoArchivadoRepository} implementadas a mano con JDBC o con JPQL dinámico.
+ */
+public interface PedidoArchivadoRepositoryCustom {
+
+    /**
+     * Mueve al archivo un lote de los pedidos más antiguos con fecha anterior a {@code limite}:
+     * los copia en PedidosArchivo y los borra de Pedidos. Debe llamarse dentro de una transacción;
+     * los pedidos del lote quedan bloqueados hasta el commit, así que un borrado concurrente
+     * espera a que termine el lote en lugar de dejar una copia en el archivo.
+     *
+     * @param limite   Fecha a partir de la cual los pedidos se quedan en Pedidos
+     * @param maxFilas Número máximo de pedidos a mover
+     * @return Número de pedidos movidos; menos de {@code maxFilas} si no quedan más por archivar
+     */
+    int archivarLote(LocalDateTime limite, int maxFilas);
+
+    /**
+     * Igual que {@link PedidoRepositoryCustom#findPageCampos}, sobre los pedidos archivados.
+     */
+    List<Map<String, Object>> findPageCampos(List<String> campos, long despuesDe, int maxFilas);
+}
@@ -0,0 +1,45 @@
+package com.raulpar.springclientesapi.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class PedidoArchivadoRepositoryCustomImpl implements PedidoArchivadoRepositoryCustom {
+
+    // Recorrido por rango sobre idx_pedidos_fecha, bloqueando solo los pedidos del lote
+    static final String SELECT_LOTE_SQL =
+            "select numPedido from Pedidos where fecha < ? order by fecha, numPedido limit ? for update";
+
+    // Ruta JPQL de cada propiedad de PedidoDto, con los mismos nombres que PedidoRepositoryCustomImpl.RUTAS
+    static final Map<String, String> RUTAS = Map.of(
+            "numPedido", "a.numPedido",
+            "idCliente", "a.idCliente",
+            "fecha", "a.fecha");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public int archivarLote(LocalDateTime limite, int maxFilas) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_LOTE_SQL, Long.class, Timestamp.valueOf(limite), maxFilas);
+        if (ids.isEmpty()) return 0;
+
+        String enLote = "numPedido in (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] valores = ids.toArray();
+        jdbcTemplate.update("insert into PedidosArchivo (numPedido, id_cliente, fecha) " +
+                "select numPedido, id_cliente, fecha from Pedidos where " + enLote, valores);
+        return jdbcTemplate.update("delete from Pedidos where " + enLote, valores);
+    }
+
+    @Override
+    public List<Map<String, Object>> findPageCampos(List<String> campos, long despuesDe, int maxFilas) {
+        return Proyecciones.pagina(entityManager, RUTAS, "PedidoArchivado a", "numPedido", campos, Map.of(), despuesDe, maxFilas);
+    }
+}
@@ -0,0 +1,21 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
+import com.raulpar.springclientesapi.model.PedidoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PedidoDiarioRepository extends JpaRepository<PedidoDiario, LocalDate>, PedidoDiarioRepositoryCustom {
+
+    // Lectura de los contadores precalculados: una fila por día, sin recorrer la tabla de pedidos
+    @Query("select new com.raulpar.springclientesapi.dto.PedidosPorDiaDto(d.fecha, d.total) from PedidoDiario d " +
+            "where d.fecha between :desde and :hasta and d.total > 0 order by d.fecha")
+    List<PedidosPorDiaDto> findPorDia(LocalDate desde, LocalDate hasta);
+
+    @Query("select new com.raulpar.springclientesapi.dto.PedidosPorDiaDto(d.fecha, d.total) from PedidoDiarioCliente d " +
+            "where d.idCliente = :idCliente and d.fecha between :desde and :hasta and d.total > 0 order by d.fecha")
+    List<PedidosPorDiaDto> findPorDiaYCliente(Long idCliente, LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,28 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.model.PedidoDiarioCliente;
+
+import java.util.Map;
+
+/**
+ * Mantenimiento de los contadores de pedidos por día, implementado con JDBC.
+ * Todos los métodos deben llamarse dentro de la transacción que modifica los pedidos.
+ */
+public interface PedidoDiarioRepositoryCustom {
+
+    /**
+     * Suma a los contadores el número de pedidos creados (delta positivo) o eliminados
+     * (delta negativo) por día y cliente, actualizando también el total del día.
+     */
+    void sumar(Map<PedidoDiarioCliente.Clave, Long> deltas);
+
+    /**
+     * Descuenta todos los pedidos de un cliente antes de eliminarlo.
+     */
+    void restarCliente(Long idCliente);
+
+    /**
+     * Recalcula todos los contadores a partir de la tabla de pedidos y del archivo.
+     */
+    void reconstruir();
+}
@@ -0,0 +1,80 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.model.PedidoDiarioCliente;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class PedidoDiarioRepositoryCustomImpl implements PedidoDiarioRepositoryCustom {
+
+    private static final String SUMAR_DIA_SQL =
+            "insert into PedidosPorDia (fecha, total) values (?, ?) " +
+            "on duplicate key update total = total + values(total)";
+    private static final String SUMAR_DIA_CLIENTE_SQL =
+            "insert into PedidosPorDiaCliente (fecha, id_cliente, total) values (?, ?, ?) " +
+            "on duplicate key update total = total + values(total)";
+    private static final String RESTAR_DIA_SQL =
+            "update PedidosPorDia set total = total - ? where fecha = ?";
+    private static final String RESTAR_DIA_CLIENTE_SQL =
+            "update PedidosPorDiaCliente set total = total - ? where fecha = ? and id_cliente = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void sumar(Map<PedidoDiarioCliente.Clave, Long> deltas) {
+        // Ordenado por día para que transacciones concurrentes bloqueen las filas en el mismo orden
+        Map<LocalDate, Long> porDia = new TreeMap<>();
+        List<Object[]> altasCliente = new ArrayList<>();
+        List<Object[]> bajasCliente = new ArrayList<>();
+        deltas.forEach((clave, delta) -> {
+            if (delta == 0) return;
+            porDia.merge(clave.getFecha(), delta, Long::sum);
+            Date fecha = Date.valueOf(clave.getFecha());
+            if (delta > 0) altasCliente.add(new Object[]{fecha, clave.getIdCliente(), delta});
+            else bajasCliente.add(new Object[]{-delta, fecha, clave.getIdCliente()});
+        });
+
+        List<Object[]> altasDia = new ArrayList<>();
+        List<Object[]> bajasDia = new ArrayList<>();
+        porDia.forEach((dia, delta) -> {
+            if (delta > 0) altasDia.add(new Object[]{Date.valueOf(dia), delta});
+            else if (delta < 0) bajasDia.add(new Object[]{-delta, Date.valueOf(dia)});
+        });
+
+        if (!altasDia.isEmpty()) jdbcTemplate.batchUpdate(SUMAR_DIA_SQL, altasDia);
+        if (!bajasDia.isEmpty()) jdbcTemplate.batchUpdate(RESTAR_DIA_SQL, bajasDia);
+        if (!altasCliente.isEmpty()) jdbcTemplate.batchUpdate(SUMAR_DIA_CLIENTE_SQL, altasCliente);
+        if (!bajasCliente.isEmpty()) jdbcTemplate.batchUpdate(RESTAR_DIA_CLIENTE_SQL, bajasCliente);
+    }
+
+    @Override
+    public void restarCliente(Long idCliente) {
+        jdbcTemplate.update(
+                "update PedidosPorDia d set total = total - " +
+                "(select c.total from PedidosPorDiaCliente c where c.fecha = d.fecha and c.id_cliente = ?) " +
+                "where d.fecha in (select c.fecha from PedidosPorDiaCliente c where c.id_cliente = ?)",
+                idCliente, idCliente);
+        jdbcTemplate.update("delete from PedidosPorDiaCliente where id_cliente = ?", idCliente);
+    }
+
+    @Override
+    public void reconstruir() {
+        jdbcTemplate.update("delete from PedidosPorDiaCliente");
+        jdbcTemplate.update("delete from PedidosPorDia");
+        jdbcTemplate.update(
+                "insert into PedidosPorDiaCliente (fecha, id_cliente, total) " +
+                "select cast(fecha as date), id_cliente, count(*) from " +
+                "(select fecha, id_cliente from Pedidos union all select fecha, id_cliente from PedidosArchivo) p " +
+                "group by cast(fecha as date), id_cliente");
+        jdbcTemplate.update(
+                "insert into PedidosPorDia (fecha, total) " +
+                "select fecha, sum(total) from PedidosPorDiaCliente group by fecha");
+    }
+}
@@ -1,11 +1,60 @@
 package com.raulpar.springclientesapi.repository;
 
+import com.raulpar.springclientesapi.dto.PedidoDto;
 import com.raulpar.springclientesapi.model.Pedido;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PedidoRepository extends JpaRepository<Pedido, Long> {
-    List<Pedido> findByFechaBetween(LocalDateTime desde, LocalDateTime hasta);
-}
+public interface PedidoRepository extends JpaRepository<Pedido, Long>, PedidoRepositoryCustom {
+
+    // Proyección directa a PedidoDto: el id del cliente se lee de la columna id_cliente,
+    // sin cargar ni el pedido ni su cliente como entidades
+    String SELECT_PEDIDO_DTO =
+            "select new com.raulpar.springclientesapi.dto.PedidoDto(p.numPedido, p.cliente.idCliente, p.fecha) from Pedido p";
+
+    @Query(SELECT_PEDIDO_DTO + " order by p.numPedido")
+    List<PedidoDto> findAllDtos();
+
+    @Query(SELECT_PEDIDO_DTO + " where p.numPedido = :numPedido")
+    Optional<PedidoDto> findDtoById(Long numPedido);
+
+    @Query(SELECT_PEDIDO_DTO + " where p.fecha between :desde and :hasta order by p.numPedido")
+    List<PedidoDto> findDtoByFechaBetween(LocalDateTime desde, LocalDateTime hasta);
 
+    // Paginación por cursor: recorrido por rango sobre la clave primaria
+    @Query(SELECT_PEDIDO_DTO + " where p.numPedido > :numPedido order by p.numPedido")
+    List<PedidoDto> findDtoPage(Long numPedido, Limit limit);
+
+    // Paginación por cursor dentro de un rango de fechas [desde, hasta)
+    @Query(SELECT_PEDIDO_DTO + " where p.fecha >= :desde and p.fecha < :hasta and p.numPedido > :numPedido order by p.numPedido")
+    List<PedidoDto> findDtoPageByFecha(LocalDateTime desde, LocalDateTime hasta, Long numPedido, Limit limit);
+
+    // Paginación por cursor de los pedidos de un cliente: recorrido por rango sobre el índice (id_cliente, numPedido)
+    @Query(SELECT_PEDIDO_DTO + " where p.cliente.idCliente = :idCliente and p.numPedido > :numPedido order by p.numPedido")
+    List<PedidoDto> findDtoPageByCliente(Long idCliente, Long numPedido, Limit limit);
+
+    // Borrados directos con una sentencia DELETE, sin cargar las entidades; devuelven las filas borradas
+    @Modifying
+    @Query("delete from Pedido p where p.numPedido = :numPedido")
+    int bulkDeleteById(Long numPedido);
+
+    @Modifying
+    @Query("delete from Pedido p where p.cliente.idCliente = :idCliente")
+    int bulkDeleteByCliente(Long idCliente);
+
+    // Recorrido completo para exportaciones: se lee por bloques con un cursor de servidor
+    // (useCursorFetch en la URL de MySQL) en lugar de cargar toda la tabla en memoria
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_PEDIDO_DTO + " order by p.numPedido")
+    Stream<PedidoDto> streamAllDtos();
+}
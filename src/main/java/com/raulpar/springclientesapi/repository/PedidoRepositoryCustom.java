@@ -0,0 +1,28 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.model.Pedido;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de {@link PedidoRepository} implementadas a mano con JDBC o con JPQL dinámico.
+ */
+public interface PedidoRepositoryCustom {
+
+    /**
+     * Inserta los pedidos en un único lote JDBC y asigna a cada uno el número de pedido generado.
+     * Cada pedido debe tener ya su cliente y su fecha.
+     */
+    void batchInsert(List<Pedido> pedidos);
+
+    /**
+     * Página de pedidos ordenada por número de pedido que solo lee las propiedades indicadas de PedidoDto.
+     *
+     * @param campos    Propiedades a leer; deben incluir numPedido, que es la clave del cursor
+     * @param despuesDe Número del último pedido de la página anterior
+     * @param maxFilas  Número máximo de filas
+     * @return Una fila por pedido, como mapa propiedad → valor en el orden de {@code campos}
+     */
+    List<Map<String, Object>> findPageCampos(List<String> campos, long despuesDe, int maxFilas);
+}
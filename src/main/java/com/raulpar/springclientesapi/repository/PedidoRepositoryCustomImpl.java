@@ -0,0 +1,62 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.model.Pedido;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class PedidoRepositoryCustomImpl implements PedidoRepositoryCustom {
+
+    private static final String INSERT_SQL = "insert into Pedidos (id_cliente, fecha) values (?, ?)";
+
+    // Ruta JPQL de cada propiedad de PedidoDto; el id del cliente se lee de la columna id_cliente, sin join
+    static final Map<String, String> RUTAS = Map.of(
+            "numPedido", "p.numPedido",
+            "idCliente", "p.cliente.idCliente",
+            "fecha", "p.fecha");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public void batchInsert(List<Pedido> pedidos) {
+        if (pedidos.isEmpty()) return;
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Pedido pedido = pedidos.get(i);
+                        ps.setLong(1, pedido.getCliente().getIdCliente());
+                        ps.setTimestamp(2, Timestamp.valueOf(pedido.getFecha()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return pedidos.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < pedidos.size(); i++) {
+            Number numPedido = (Number) keys.get(i).values().iterator().next();
+            pedidos.get(i).setNumPedido(numPedido.longValue());
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> findPageCampos(List<String> campos, long despuesDe, int maxFilas) {
+        return Proyecciones.pagina(entityManager, RUTAS, "Pedido p", "numPedido", campos, Map.of(), despuesDe, maxFilas);
+    }
+}
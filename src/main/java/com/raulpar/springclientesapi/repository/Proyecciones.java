@@ -0,0 +1,70 @@
+package com.raulpar.springclientesapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas JPQL que solo seleccionan las propiedades pedidas (sparse fieldsets) y devuelven
+ * cada fila como un mapa propiedad → valor, sin crear entidades ni DTOs.
+ */
+final class Proyecciones {
+
+    private Proyecciones() {
+    }
+
+    /**
+     * Página por cursor sobre la clave {@code id}, con solo las propiedades indicadas.
+     *
+     * @param rutas     Ruta JPQL de cada propiedad que se puede seleccionar
+     * @param from      Cláusula from, con el alias usado en las rutas
+     * @param id        Propiedad clave del cursor
+     * @param campos    Propiedades a seleccionar
+     * @param filtros   Valor exacto exigido a cada ruta JPQL por la que se filtra
+     * @param despuesDe Clave de la última fila de la página anterior
+     * @param maxFilas  Número máximo de filas
+     * @throws IllegalArgumentException si alguna propiedad no está en {@code rutas}
+     */
+    static List<Map<String, Object>> pagina(EntityManager entityManager, Map<String, String> rutas, String from,
+                                            String id, List<String> campos, Map<String, ?> filtros,
+                                            long despuesDe, int maxFilas) {
+        String select = campos.stream().map(campo -> ruta(rutas, campo)).collect(Collectors.joining(", "));
+        String clave = ruta(rutas, id);
+        StringBuilder where = new StringBuilder(clave).append(" > :despuesDe");
+        List<Object> valores = new ArrayList<>();
+        for (Map.Entry<String, ?> filtro : filtros.entrySet()) {
+            where.append(" and ").append(filtro.getKey()).append(" = :f").append(valores.size());
+            valores.add(filtro.getValue());
+        }
+        TypedQuery<Tuple> query = entityManager
+                .createQuery("select " + select + " from " + from + " where " + where + " order by " + clave, Tuple.class)
+                .setParameter("despuesDe", despuesDe)
+                .setMaxResults(maxFilas);
+        for (int i = 0; i < valores.size(); i++) {
+            query.setParameter("f" + i, valores.get(i));
+        }
+        List<Tuple> tuplas = query.getResultList();
+
+        List<Map<String, Object>> filas = new ArrayList<>(tuplas.size());
+        for (Tuple tupla : tuplas) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            for (int i = 0; i < campos.size(); i++) {
+                fila.put(campos.get(i), tupla.get(i));
+            }
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    private static String ruta(Map<String, String> rutas, String campo) {
+        String ruta = rutas.get(campo);
+        if (ruta == null) throw new IllegalArgumentException("Campo desconocido: " + campo);
+        return ruta;
+    }
+}
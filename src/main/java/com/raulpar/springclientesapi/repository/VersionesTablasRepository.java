@@ -0,0 +1,59 @@
+package com.raulpar.springclientesapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Versión de las tablas de clientes y de pedidos (tabla VersionesTablas), usada como ETag de los listados.
+ * Cada escritura incrementa la versión de la tabla afectada en su misma transacción, de forma que
+ * la versión nueva se ve a la vez que los datos que la han cambiado, en todas las instancias y en
+ * la réplica. Los listados leen la versión antes que los datos, así que una ETag nunca queda asociada
+ * a datos anteriores a su versión.
+ * Como los contadores por día, cada incremento bloquea la fila de su tabla hasta el commit, por lo que
+ * las escrituras concurrentes sobre la misma tabla se serializan en ese último paso.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VersionesTablasRepository {
+
+    static final String CLIENTES = "Cliente";
+    static final String PEDIDOS = "Pedidos";
+
+    private static final String LEER_SQL = "select version from VersionesTablas where tabla = ?";
+    private static final String INCREMENTAR_SQL = "update VersionesTablas set version = version + 1 where tabla = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public String clientes() {
+        return leer(CLIENTES);
+    }
+
+    @Transactional(readOnly = true)
+    public String pedidos() {
+        return leer(PEDIDOS);
+    }
+
+    /**
+     * Incrementa la versión de la tabla de clientes; debe llamarse dentro de la transacción que la modifica.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cambioClientes() {
+        jdbcTemplate.update(INCREMENTAR_SQL, CLIENTES);
+    }
+
+    /**
+     * Incrementa la versión de la tabla de pedidos; debe llamarse dentro de la transacción que la modifica.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cambioPedidos() {
+        jdbcTemplate.update(INCREMENTAR_SQL, PEDIDOS);
+    }
+
+    private String leer(String tabla) {
+        return Long.toString(jdbcTemplate.queryForObject(LEER_SQL, Long.class, tabla));
+    }
+}
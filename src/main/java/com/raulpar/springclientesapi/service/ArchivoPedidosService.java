@@ -0,0 +1,73 @@
+package com.raulpar.springclientesapi.service;
+
+import com.raulpar.springclientesapi.repository.PedidoArchivadoRepository;
+import com.raulpar.springclientesapi.repository.VersionesTablasRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Mueve los pedidos con más antigüedad que {@code pedidos.archivo.edad} de la tabla Pedidos
+ * a PedidosArchivo, para que la tabla de pedidos y sus índices no crezcan indefinidamente.
+ * Los pedidos se mueven por lotes de {@code pedidos.archivo.chunk-size}, cada uno en su propia
+ * transacción, con una pausa de {@code pedidos.archivo.pausa} entre lotes para no acaparar
+ * la base de datos mientras atiende peticiones.
+ * Los contadores de pedidos por día no cambian: un pedido archivado sigue contando.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ArchivoPedidosService {
+
+    private final PedidoArchivadoRepository pedidoArchivadoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final VersionesTablasRepository versionesTablas;
+
+    @Value("${pedidos.archivo.edad:365d}")
+    private Duration edad = Duration.ofDays(365);
+
+    @Value("${pedidos.archivo.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${pedidos.archivo.pausa:200ms}")
+    private Duration pausa = Duration.ofMillis(200);
+
+    /**
+     * Archiva todos los pedidos anteriores a ahora menos {@code pedidos.archivo.edad}.
+     * Si el hilo se interrumpe durante una pausa termina tras el último lote confirmado;
+     * los pedidos que queden se archivan en la siguiente ejecución.
+     *
+     * @return Número de pedidos archivados
+     */
+    public long archivar() {
+        LocalDateTime limite = LocalDateTime.now().minus(edad);
+        long archivados = 0;
+        while (true) {
+            Integer movidos = transactionTemplate.execute(status -> {
+                int n = pedidoArchivadoRepository.archivarLote(limite, chunkSize);
+                if (n > 0) versionesTablas.cambioPedidos();
+                return n;
+            });
+            archivados += movidos;
+            if (movidos < chunkSize || !pausar()) break;
+        }
+        if (archivados > 0) log.info("Archivados {} pedidos anteriores a {}", archivados, limite);
+        return archivados;
+    }
+
+    private boolean pausar() {
+        if (pausa.isZero()) return true;
+        try {
+            Thread.sleep(pausa);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
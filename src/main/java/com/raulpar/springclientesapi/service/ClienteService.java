@@ -1,16 +1,55 @@
 package com.raulpar.springclientesapi.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.raulpar.springclientesapi.cache.ClienteCache;
+import com.raulpar.springclientesapi.cache.FacetasClientes;
+import com.raulpar.springclientesapi.cache.IndiceBusquedaClientes;
+import com.raulpar.springclientesapi.config.EnrutadorDataSource;
+import com.raulpar.springclientesapi.dto.BulkErrorDto;
+import com.raulpar.springclientesapi.dto.BulkResultDto;
 import com.raulpar.springclientesapi.dto.ClienteInputDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputResumenDto;
+import com.raulpar.springclientesapi.dto.ClientePatchDto;
+import com.raulpar.springclientesapi.dto.FacetasClientesDto;
 import com.raulpar.springclientesapi.mapper.ClienteMapper;
 import com.raulpar.springclientesapi.model.Cliente;
 import com.raulpar.springclientesapi.repository.ClienteRepository;
+import com.raulpar.springclientesapi.repository.PedidoArchivadoRepository;
+import com.raulpar.springclientesapi.repository.PedidoDiarioRepository;
+import com.raulpar.springclientesapi.repository.PedidoRepository;
+import com.raulpar.springclientesapi.repository.VersionesTablasRepository;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Servicio que gestiona la lógica de negocio relacionada con los clientes.
@@ -21,15 +60,126 @@ public class ClienteService {
 
     private final ClienteRepository clienteRepository;
     private final ClienteMapper clienteMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ClienteCache clienteCache;
+    private final PedidoDiarioRepository pedidoDiarioRepository;
+    private final PedidoRepository pedidoRepository;
+    private final VersionesTablasRepository versionesTablas;
+    private final IndiceBusquedaClientes indiceBusqueda;
+    private final FacetasClientes facetasClientes;
+    private final PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    @Value("${clientes.bulk.chunk-size:1000}")
+    private int bulkChunkSize = 1000;
 
     /**
      * Devuelve todos los clientes registrados en la base de datos.
      */
+    @Transactional(readOnly = true)
     public List<ClienteOutputDto> findAll() {
         List<Cliente> clientes = clienteRepository.findAll();
         return clienteMapper.toOutputList(clientes);
     }
 
+    /**
+     * Devuelve una página de clientes ordenada por ID usando paginación por cursor.
+     * Cada página es un recorrido por rango sobre la clave primaria, por lo que su coste
+     * no depende de la profundidad de la página.
+     *
+     * @param despuesDe ID del último cliente de la página anterior (0 para la primera)
+     * @param limit     Número máximo de clientes a devolver
+     * @return Página con los clientes y el cursor de la siguiente página
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ClienteOutputDto> findPage(long despuesDe, int limit) {
+        return findPage(despuesDe, limit, null, null);
+    }
+
+    /**
+     * Igual que {@link #findPage(long, int)}, pero solo con los clientes de la provincia y el municipio indicados.
+     * Cada filtro recorre su índice, que ya está ordenado por ID dentro de cada valor.
+     *
+     * @param provincia Provincia exacta, o null para no filtrar por provincia
+     * @param municipio Municipio exacto, o null para no filtrar por municipio
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ClienteOutputDto> findPage(long despuesDe, int limit, String provincia, String municipio) {
+        int size = CursorUtils.clampLimit(limit);
+        Limit maxFilas = Limit.of(size + 1);
+        List<Cliente> clientes;
+        if (provincia != null && municipio != null) {
+            clientes = clienteRepository.findByProvinciaAndMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc(
+                    provincia, municipio, despuesDe, maxFilas);
+        } else if (provincia != null) {
+            clientes = clienteRepository.findByProvinciaAndIdClienteGreaterThanOrderByIdClienteAsc(provincia, despuesDe, maxFilas);
+        } else if (municipio != null) {
+            clientes = clienteRepository.findByMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc(municipio, despuesDe, maxFilas);
+        } else {
+            clientes = clienteRepository.findByIdClienteGreaterThanOrderByIdClienteAsc(despuesDe, maxFilas);
+        }
+        return CursorUtils.toPage(clienteMapper.toOutputList(clientes), size, ClienteOutputDto::getIdCliente);
+    }
+
+    /**
+     * Igual que {@link #findPage(long, int, String, String)}, pero solo con las propiedades indicadas (parámetro fields).
+     * La consulta selecciona únicamente esas columnas y no se crean entidades ni DTOs.
+     *
+     * @param campos Propiedades de ClienteOutputDto a devolver, incluido idCliente
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<Map<String, Object>> findPage(long despuesDe, int limit, List<String> campos,
+                                                       String provincia, String municipio) {
+        int size = CursorUtils.clampLimit(limit);
+        List<Map<String, Object>> filas = clienteRepository.findPageCampos(campos, provincia, municipio, despuesDe, size + 1);
+        return CursorUtils.toPage(filas, size, fila -> (Long) fila.get("idCliente"));
+    }
+
+    /**
+     * Número de clientes por provincia y, si se indica una, por municipio de esa provincia.
+     * Se responde desde {@link FacetasClientes}, que solo ejecuta la consulta agregada al caducar.
+     *
+     * @param provincia Provincia de la que devolver los municipios, o null
+     */
+    public FacetasClientesDto facetas(String provincia) {
+        return facetasClientes.consultar(provincia,
+                () -> EnrutadorDataSource.desdePrimario(clienteRepository::countByProvinciaAndMunicipio));
+    }
+
+    /**
+     * Versión actual de la tabla de clientes, usada como ETag de los listados.
+     * Debe leerse antes que los datos del listado.
+     */
+    public String versionListado() {
+        return versionesTablas.clientes();
+    }
+
+    /**
+     * Búsqueda por nombre, apellidos, email y municipio en el índice en memoria, sin consultar la base de datos.
+     * Los resultados se ordenan por relevancia; el cursor es la posición del siguiente resultado.
+     *
+     * @param texto  Texto a buscar, completo o solo el principio de las palabras
+     * @param offset Número de resultados ya devueltos en páginas anteriores
+     * @param limit  Número máximo de clientes a devolver
+     * @return Página de clientes, o vacío si el índice aún no se ha construido
+     */
+    public Optional<CursorPageDto<ClienteOutputDto>> buscar(String texto, int offset, int limit) {
+        if (!indiceBusqueda.isListo()) return Optional.empty();
+        int size = CursorUtils.clampLimit(limit);
+        IndiceBusquedaClientes.Resultado resultado = indiceBusqueda.buscar(texto, offset, size);
+        String next = resultado.hayMas() ? CursorUtils.encode((long) offset + size) : null;
+        return Optional.of(new CursorPageDto<>(resultado.clientes(), next, size));
+    }
+
+    /**
+     * Construye el índice de búsqueda con todos los clientes de la base de datos.
+     */
+    @Transactional(readOnly = true)
+    public void reconstruirIndiceBusqueda() {
+        indiceBusqueda.reconstruir(() -> EnrutadorDataSource.desdePrimario(clienteRepository::streamAllDetailDtos));
+    }
+
     /**
      * Actualiza un cliente existente con los datos recibidos en el DTO.
      *
@@ -38,25 +188,131 @@ public class ClienteService {
      * @return Optional con el DTO detallado del cliente actualizado si se encontró y actualizó,
      * o un Optional vacío si no existe el cliente con ese ID
      */
+    @Transactional
     public Optional<ClienteOutputDetailDto> update(Long id, ClienteInputDto dto) {
+        return update(id, dto, null);
+    }
+
+    /**
+     * Actualiza un cliente existente comprobando que no ha cambiado desde la versión indicada.
+     *
+     * @param id              ID del cliente a actualizar
+     * @param dto             DTO con los datos nuevos para el cliente
+     * @param versionEsperada Versión que el llamante ha leído, o null para no comprobarla
+     * @return Optional con el DTO detallado del cliente actualizado, o vacío si no existe
+     * @throws ObjectOptimisticLockingFailureException si el cliente ya no está en la versión esperada
+     */
+    @Transactional
+    public Optional<ClienteOutputDetailDto> update(Long id, ClienteInputDto dto, Long versionEsperada) {
+        return actualizar(id, versionEsperada, cliente -> clienteMapper.updateEntity(dto, cliente));
+    }
+
+    /**
+     * Actualiza solo los campos no nulos del DTO, comprobando opcionalmente la versión del cliente.
+     *
+     * @param id              ID del cliente a actualizar
+     * @param dto             DTO con los campos a modificar
+     * @param versionEsperada Versión que el llamante ha leído, o null para no comprobarla
+     * @return Optional con el DTO detallado del cliente actualizado, o vacío si no existe
+     * @throws ObjectOptimisticLockingFailureException si el cliente ya no está en la versión esperada
+     */
+    @Transactional
+    public Optional<ClienteOutputDetailDto> patch(Long id, ClientePatchDto dto, Long versionEsperada) {
+        return actualizar(id, versionEsperada, cliente -> clienteMapper.patchEntity(dto, cliente));
+    }
+
+    /**
+     * Carga el cliente y aplica los cambios sobre la entidad gestionada, de forma que la escritura
+     * es una sola sentencia UPDATE con las columnas modificadas (ninguna si no cambia nada),
+     * sin la lectura adicional de un merge y sin tocar la colección de pedidos.
+     * La versión se comprueba también en el UPDATE, por lo que una actualización concurrente
+     * entre la lectura y la escritura tampoco se pierde.
+     */
+    private Optional<ClienteOutputDetailDto> actualizar(Long id, Long versionEsperada, Consumer<Cliente> cambios) {
         return clienteRepository.findById(id)
-                .map(existing -> {
-                    Cliente actualizado = clienteMapper.toEntity(dto);
-                    actualizado.setIdCliente(id);
-                    Cliente guardado = clienteRepository.save(actualizado);
-                    return clienteMapper.toDetailDto(guardado);
+                .map(cliente -> {
+                    if (versionEsperada != null && !versionEsperada.equals(cliente.getVersion())) {
+                        throw new ObjectOptimisticLockingFailureException(Cliente.class, id);
+                    }
+                    String dniAnterior = cliente.getDni();
+                    String provinciaAnterior = cliente.getProvincia();
+                    String municipioAnterior = cliente.getMunicipio();
+                    cambios.accept(cliente);
+                    // Se ejecuta el UPDATE ya para devolver la versión nueva y detectar aquí un DNI duplicado
+                    clienteRepository.flush();
+                    // Si cambia el DNI se invalidan tanto el anterior como el nuevo
+                    clienteCache.evict(id, dniAnterior, cliente.getDni());
+                    versionesTablas.cambioClientes();
+                    ClienteOutputDetailDto actualizado = clienteMapper.toDetailDto(cliente);
+                    indiceBusqueda.indexar(actualizado);
+                    facetasClientes.mover(provinciaAnterior, municipioAnterior, cliente.getProvincia(), cliente.getMunicipio());
+                    return actualizado;
                 });
     }
 
+    /**
+     * Devuelve la versión de un cliente sin cargarlo ni mapearlo.
+     * Se consulta primero la caché y, si no está, se lee solo la columna de versión.
+     *
+     * @param id ID del cliente
+     * @return Optional con la versión, o vacío si el cliente no existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        Optional<ClienteOutputDetailDto> cacheado = clienteCache.getById(id);
+        if (cacheado.isPresent()) return cacheado.map(ClienteOutputDetailDto::getVersion);
+        return clienteRepository.findVersionById(id);
+    }
+
+    /**
+     * Busca un cliente por su ID, opcionalmente con el resumen de sus pedidos.
+     * El resumen se calcula con una consulta agregada sobre los pedidos y otra sobre el archivo,
+     * sin cargar los pedidos, y no se guarda en caché porque cambia con cada pedido.
+     *
+     * @param id         ID del cliente
+     * @param conResumen Si se incluye el número de pedidos y las fechas del primero y el último
+     * @return Optional que contiene el cliente si se encuentra
+     */
+    @Transactional(readOnly = true)
+    public Optional<ClienteOutputDetailDto> findById(Long id, boolean conResumen) {
+        if (!conResumen) return findById(id);
+        return clienteRepository.findResumenById(id).map(this::sumarArchivados);
+    }
+
+    // Añade al resumen los pedidos del cliente que ya se han movido al archivo
+    private ClienteOutputDetailDto sumarArchivados(ClienteOutputResumenDto resumen) {
+        for (Object[] archivo : pedidoArchivadoRepository.findResumenByCliente(resumen.getIdCliente())) {
+            long archivados = (Long) archivo[0];
+            if (archivados == 0) continue;
+            LocalDateTime primero = (LocalDateTime) archivo[1];
+            LocalDateTime ultimo = (LocalDateTime) archivo[2];
+            resumen.setTotalPedidos(resumen.getTotalPedidos() + archivados);
+            if (resumen.getPrimerPedido() == null || primero.isBefore(resumen.getPrimerPedido())) {
+                resumen.setPrimerPedido(primero);
+            }
+            if (resumen.getUltimoPedido() == null || ultimo.isAfter(resumen.getUltimoPedido())) {
+                resumen.setUltimoPedido(ultimo);
+            }
+        }
+        return resumen;
+    }
+
     /**
      * Busca un cliente por su ID.
+     * Se consulta primero la caché y, si no está, el primario (lo leído se guarda en la caché).
      *
      * @param id ID del cliente
      * @return Optional que contiene el cliente si se encuentra
      */
+    @Transactional(readOnly = true)
     public Optional<ClienteOutputDetailDto> findById(Long id) {
-        return clienteRepository.findById(id)
+        Optional<ClienteOutputDetailDto> cacheado = clienteCache.getById(id);
+        if (cacheado.isPresent()) return cacheado;
+
+        Optional<ClienteOutputDetailDto> cliente = EnrutadorDataSource.desdePrimario(() -> clienteRepository.findById(id))
                 .map(clienteMapper::toDetailDto);
+        cliente.ifPresent(clienteCache::put);
+        return cliente;
     }
 
     /**
@@ -65,37 +321,193 @@ public class ClienteService {
      * @param clientedto Objeto cliente a persistir
      * @return Cliente guardado
      */
+    @Transactional
     public ClienteOutputDetailDto save(ClienteInputDto clientedto) {
         Cliente cliente = clienteMapper.toEntity(clientedto);
         Cliente saved = clienteRepository.save(cliente);
-        return clienteMapper.toDetailDto(saved);
+        clienteCache.evict(saved.getIdCliente(), saved.getDni());
+        versionesTablas.cambioClientes();
+        ClienteOutputDetailDto guardado = clienteMapper.toDetailDto(saved);
+        indiceBusqueda.indexar(guardado);
+        facetasClientes.sumar(saved.getProvincia(), saved.getMunicipio());
+        return guardado;
     }
 
     /**
-     * Elimina un cliente si existe.
+     * Elimina un cliente si existe, junto con sus pedidos (también los archivados).
+     * En la misma transacción se descuentan sus pedidos de los contadores por día.
+     * Solo se lee la fila del cliente (para devolverla); los pedidos y el cliente se borran con
+     * una sentencia DELETE cada uno, sin cargarlos como entidades.
      *
      * @param id ID del cliente
      * @return Un Optional con el ClienteOutputDetailDto del cliente eliminado,
      * o vacío si no existía un cliente con ese ID
      */
+    @Transactional
     public Optional<ClienteOutputDetailDto> deleteById(Long id) {
-        return clienteRepository.findById(id)
-                .map(cliente -> {
-                    clienteRepository.deleteById(id);
-                    return clienteMapper.toDetailDto(cliente);
-                });
+        Optional<ClienteOutputDetailDto> cliente = clienteRepository.findById(id).map(clienteMapper::toDetailDto);
+        if (cliente.isEmpty()) return cliente;
+
+        pedidoDiarioRepository.restarCliente(id);
+        pedidoRepository.bulkDeleteByCliente(id);
+        pedidoArchivadoRepository.bulkDeleteByCliente(id);
+        // Si otra petición lo ha borrado entretanto no se ha eliminado nada
+        if (clienteRepository.bulkDeleteById(id) == 0) return Optional.empty();
+
+        clienteCache.evict(id, cliente.get().getDni());
+        indiceBusqueda.eliminar(id);
+        facetasClientes.restar(cliente.get().getProvincia(), cliente.get().getMunicipio());
+        versionesTablas.cambioClientes();
+        versionesTablas.cambioPedidos();
+        return cliente;
     }
 
     /**
      * Busca un cliente por su DNI.
+     * Se consulta primero la caché y, si no está, el primario (lo leído se guarda en la caché).
      *
      * @param dni DNI del cliente
      * @return Optional con el cliente si se encuentra
      */
+    @Transactional(readOnly = true)
     public Optional<ClienteOutputDetailDto> findByDni(String dni) {
-        return clienteRepository.findByDni(dni)
+        Optional<ClienteOutputDetailDto> cacheado = clienteCache.getByDni(dni);
+        if (cacheado.isPresent()) return cacheado;
+
+        Optional<ClienteOutputDetailDto> cliente = EnrutadorDataSource.desdePrimario(() -> clienteRepository.findByDni(dni))
                 .map(clienteMapper::toDetailDto);
+        cliente.ifPresent(clienteCache::put);
+        return cliente;
+    }
+
+    /**
+     * Importa clientes de forma masiva a partir de un array JSON.
+     * El array se lee elemento a elemento sin cargarlo entero en memoria; cada cliente se valida
+     * y los válidos se insertan en lotes JDBC, cada lote en su propia transacción.
+     * Las filas inválidas o con DNI duplicado (en la petición o en la base de datos) se
+     * devuelven como errores sin interrumpir la importación. Un elemento con JSON mal formado
+     * se devuelve como error de su fila y detiene la lectura; lo leído hasta ese punto se guarda.
+     *
+     * @param json Array JSON de {@link ClienteInputDto}
+     * @return Resumen con filas procesadas, insertadas y rechazadas
+     * @throws IOException si el cuerpo no empieza por un array JSON
+     */
+    public BulkResultDto importBulk(InputStream json) throws IOException {
+        BulkResultDto resultado = new BulkResultDto();
+        Set<String> dnisVistos = new HashSet<>();
+        List<FilaImportacion> lote = new ArrayList<>(bulkChunkSize);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw MismatchedInputException.from(parser, List.class, "Se esperaba un array JSON de clientes");
+            }
+            int indice = 0;
+            while (true) {
+                int fila = indice;
+                ClienteInputDto dto;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.END_ARRAY) break;
+                    if (token == null) {
+                        throw MismatchedInputException.from(parser, List.class, "Array JSON incompleto");
+                    }
+                    dto = objectMapper.readValue(parser, ClienteInputDto.class);
+                } catch (JsonProcessingException e) {
+                    // A partir de un elemento mal formado no se puede seguir leyendo el array:
+                    // se registra como error de la fila y se guarda lo leído hasta ahí
+                    resultado.setProcesados(resultado.getProcesados() + 1);
+                    resultado.getErrores().add(new BulkErrorDto(fila, null, "JSON no válido: " + e.getOriginalMessage()));
+                    break;
+                }
+                indice++;
+                resultado.setProcesados(resultado.getProcesados() + 1);
+
+                String error = validar(dto, dnisVistos);
+                if (error != null) {
+                    resultado.getErrores().add(new BulkErrorDto(fila, dto == null ? null : dto.getDni(), error));
+                    continue;
+                }
+                lote.add(new FilaImportacion(fila, clienteMapper.toEntity(dto)));
+                if (lote.size() >= bulkChunkSize) {
+                    guardarLote(lote, resultado);
+                    lote.clear();
+                }
+            }
+        }
+        guardarLote(lote, resultado);
+        return resultado;
+    }
+
+    private String validar(ClienteInputDto dto, Set<String> dnisVistos) {
+        if (dto == null) return "Cliente vacío";
+        Set<ConstraintViolation<ClienteInputDto>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            return violaciones.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!dnisVistos.add(dto.getDni())) return "DNI duplicado en la petición";
+        return null;
     }
 
+    /**
+     * Inserta un lote en una transacción: descarta los DNIs que ya existen y el resto se
+     * inserta con un único batch JDBC. Si otra petición inserta el mismo DNI a la vez,
+     * el lote se reintenta fila a fila para aislar la fila conflictiva.
+     */
+    private void guardarLote(List<FilaImportacion> lote, BulkResultDto resultado) {
+        if (lote.isEmpty()) return;
+        try {
+            List<FilaImportacion> rechazadas = transactionTemplate.execute(status -> {
+                Set<String> existentes = new HashSet<>(clienteRepository.findExistingDnis(
+                        lote.stream().map(f -> f.cliente().getDni()).toList()));
+                List<FilaImportacion> duplicadas = lote.stream()
+                        .filter(f -> existentes.contains(f.cliente().getDni())).toList();
+                List<Cliente> nuevos = lote.stream()
+                        .filter(f -> !existentes.contains(f.cliente().getDni()))
+                        .map(FilaImportacion::cliente).toList();
+                clienteRepository.batchInsert(nuevos);
+                registrarInsertados(nuevos);
+                return duplicadas;
+            });
+            rechazadas.forEach(f -> resultado.getErrores().add(
+                    new BulkErrorDto(f.indice(), f.cliente().getDni(), "Ya existe un cliente con este DNI")));
+            resultado.setInsertados(resultado.getInsertados() + lote.size() - rechazadas.size());
+        } catch (DataIntegrityViolationException e) {
+            for (FilaImportacion fila : lote) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        clienteRepository.batchInsert(List.of(fila.cliente()));
+                        registrarInsertados(List.of(fila.cliente()));
+                    });
+                    resultado.setInsertados(resultado.getInsertados() + 1);
+                } catch (DataIntegrityViolationException ex) {
+                    resultado.getErrores().add(
+                            new BulkErrorDto(fila.indice(), fila.cliente().getDni(), motivoRechazo(ex)));
+                }
+            }
+        }
+    }
 
+    // La única clave única de Cliente es el DNI, así que solo una clave duplicada se informa como tal;
+    // cualquier otra violación (longitud, nulos...) se devuelve con la causa de la base de datos
+    private static String motivoRechazo(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) return "Ya existe un cliente con este DNI";
+        return "No se ha podido insertar el cliente: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    // Cuenta los clientes insertados en las facetas, los añade al índice de búsqueda y cambia la versión
+    // de la tabla, dentro de la transacción del lote; los lotes JDBC no devuelven los ids generados,
+    // así que se leen por DNI
+    private void registrarInsertados(List<Cliente> insertados) {
+        if (insertados.isEmpty()) return;
+        versionesTablas.cambioClientes();
+        insertados.forEach(c -> facetasClientes.sumar(c.getProvincia(), c.getMunicipio()));
+        clienteRepository.findDetailDtosByDniIn(insertados.stream().map(Cliente::getDni).toList())
+                .forEach(indiceBusqueda::indexar);
+    }
+
+    private record FilaImportacion(int indice, Cliente cliente) {
+    }
 }
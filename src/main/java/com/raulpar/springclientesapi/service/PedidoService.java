@@ -1,21 +1,53 @@
 package com.raulpar.springclientesapi.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.raulpar.springclientesapi.dto.BulkErrorDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.PedidoBulkResultDto;
 import com.raulpar.springclientesapi.dto.PedidoCreateDto;
 import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
 import com.raulpar.springclientesapi.mapper.PedidoMapper;
 import com.raulpar.springclientesapi.model.Cliente;
 import com.raulpar.springclientesapi.model.Pedido;
+import com.raulpar.springclientesapi.model.PedidoDiarioCliente;
 import com.raulpar.springclientesapi.repository.ClienteRepository;
+import com.raulpar.springclientesapi.repository.PedidoArchivadoRepository;
+import com.raulpar.springclientesapi.repository.PedidoDiarioRepository;
 import com.raulpar.springclientesapi.repository.PedidoRepository;
-import jakarta.transaction.Transactional;
+import com.raulpar.springclientesapi.repository.VersionesTablasRepository;
+import com.raulpar.springclientesapi.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio que gestiona la lógica de negocio relacionada con los pedidos.
@@ -27,32 +59,151 @@ public class PedidoService {
     private final PedidoRepository pedidoRepository;
     private final PedidoMapper pedidoMapper;
     private final ClienteRepository clienteRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final PedidoDiarioRepository pedidoDiarioRepository;
+    private final VersionesTablasRepository versionesTablas;
+    private final PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    @Value("${pedidos.bulk.chunk-size:1000}")
+    private int bulkChunkSize = 1000;
+
+    // Antigüedad a partir de la cual los pedidos pueden estar en el archivo (ver ArchivoPedidosService)
+    @Value("${pedidos.archivo.edad:365d}")
+    private Duration edadArchivo = Duration.ofDays(365);
 
     /**
-     * Recupera todos los pedidos almacenados.
+     * Recupera todos los pedidos almacenados, incluidos los archivados, ordenados por número de pedido.
      */
+    @Transactional(readOnly = true)
     public List<PedidoDto> findAll() {
-        List<Pedido> pedidos = pedidoRepository.findAll();
-        return pedidoMapper.toDtoList(pedidos);
+        return mezclar(pedidoRepository.findAllDtos(), pedidoArchivadoRepository.findAllDtos(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Devuelve una página de pedidos ordenada por número de pedido usando paginación por cursor.
+     * Cada página mezcla los pedidos de la tabla de pedidos y los del archivo.
+     *
+     * @param despuesDe Número del último pedido de la página anterior (0 para la primera)
+     * @param limit     Número máximo de pedidos a devolver
+     * @return Página con los pedidos y el cursor de la siguiente página
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PedidoDto> findPage(long despuesDe, int limit) {
+        int size = CursorUtils.clampLimit(limit);
+        List<PedidoDto> pedidos = mezclar(
+                pedidoRepository.findDtoPage(despuesDe, Limit.of(size + 1)),
+                pedidoArchivadoRepository.findDtoPage(despuesDe, Limit.of(size + 1)),
+                size + 1);
+        return CursorUtils.toPage(pedidos, size, PedidoDto::getNumPedido);
+    }
+
+    /**
+     * Igual que {@link #findPage(long, int)}, pero solo con las propiedades indicadas (parámetro fields).
+     *
+     * @param campos Propiedades de PedidoDto a devolver, incluido numPedido
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<Map<String, Object>> findPage(long despuesDe, int limit, List<String> campos) {
+        int size = CursorUtils.clampLimit(limit);
+        Function<Map<String, Object>, Long> numPedido = fila -> (Long) fila.get("numPedido");
+        List<Map<String, Object>> filas = mezclar(
+                pedidoRepository.findPageCampos(campos, despuesDe, size + 1),
+                pedidoArchivadoRepository.findPageCampos(campos, despuesDe, size + 1),
+                size + 1, numPedido);
+        return CursorUtils.toPage(filas, size, numPedido);
+    }
+
+    /**
+     * Exporta todos los pedidos, incluidos los archivados, en formato NDJSON (un objeto JSON por línea).
+     * Los pedidos se leen de la base de datos como un Stream de DTOs (sin crear entidades), uno por tabla
+     * y ordenados por número de pedido; se mezclan fila a fila y cada una se escribe directamente en la
+     * salida, por lo que la memoria usada no depende del número de pedidos.
+     *
+     * @param out Flujo de salida donde se escriben los pedidos
+     * @throws IOException si falla la escritura
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(PedidoDto.class);
+        try (Stream<PedidoDto> pedidos = pedidoRepository.streamAllDtos();
+             Stream<PedidoDto> archivados = pedidoArchivadoRepository.streamAllDtos();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (Iterator<PedidoDto> it = mezclar(pedidos.iterator(), archivados.iterator()); it.hasNext(); ) {
+                writer.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    // Mezcla dos recorridos ordenados por número de pedido sin leerlos por adelantado
+    private static Iterator<PedidoDto> mezclar(Iterator<PedidoDto> pedidos, Iterator<PedidoDto> archivados) {
+        return new Iterator<>() {
+            private PedidoDto siguientePedido = pedidos.hasNext() ? pedidos.next() : null;
+            private PedidoDto siguienteArchivado = archivados.hasNext() ? archivados.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return siguientePedido != null || siguienteArchivado != null;
+            }
+
+            @Override
+            public PedidoDto next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                PedidoDto actual;
+                if (siguienteArchivado == null || (siguientePedido != null
+                        && siguientePedido.getNumPedido() < siguienteArchivado.getNumPedido())) {
+                    actual = siguientePedido;
+                    siguientePedido = pedidos.hasNext() ? pedidos.next() : null;
+                } else {
+                    actual = siguienteArchivado;
+                    siguienteArchivado = archivados.hasNext() ? archivados.next() : null;
+                }
+                return actual;
+            }
+        };
+    }
+
+    /**
+     * Versión actual de la tabla de pedidos, usada como ETag de los listados.
+     * Debe leerse antes que los datos del listado.
+     */
+    public String versionListado() {
+        return versionesTablas.pedidos();
+    }
+
+    /**
+     * Indica si existe un pedido, sin cargarlo.
+     * Los pedidos no se modifican una vez creados (ni al archivarlos), así que basta para validar su ETag.
+     */
+    @Transactional(readOnly = true)
+    public boolean existsById(Long id) {
+        return pedidoRepository.existsById(id) || pedidoArchivadoRepository.existsById(id);
     }
 
     /**
      * Busca un pedido por su ID.
+     * El archivo solo se consulta si el pedido no está en la tabla de pedidos, donde están
+     * todos los pedidos recientes.
      *
      * @param id Identificador del pedido
      * @return Pedido encontrado, si existe
      */
+    @Transactional(readOnly = true)
     public Optional<PedidoDto> findById(Long id) {
-        return pedidoRepository.findById(id)
-                .map(pedidoMapper::toDto);
+        Optional<PedidoDto> pedido = pedidoRepository.findDtoById(id);
+        return pedido.isPresent() ? pedido : pedidoArchivadoRepository.findDtoById(id);
     }
 
     /**
      * Guarda un nuevo pedido o actualiza uno existente.
+     * En la misma transacción se incrementan los contadores de pedidos por día.
      *
      * @param pedidoCreateDto Pedido a guardar
      * @return Pedido guardado
      */
+    @Transactional
     public PedidoDto save(PedidoCreateDto pedidoCreateDto) {
         Cliente cliente = clienteRepository.findById(pedidoCreateDto.getIdCliente())
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
@@ -61,25 +212,125 @@ public class PedidoService {
         pedido.setCliente(cliente);
 
         Pedido pedidoGuardado = pedidoRepository.save(pedido);
+        pedidoDiarioRepository.sumar(Map.of(claveDiaria(pedidoGuardado.getFecha(), cliente.getIdCliente()), 1L));
+        versionesTablas.cambioPedidos();
 
         return pedidoMapper.toDto(pedidoGuardado);
 
     }
 
     /**
-     * Elimina un pedido por ID, si existe.
+     * Crea pedidos de forma masiva.
+     * Los pedidos se procesan en lotes, cada uno en su propia transacción: los clientes
+     * referenciados por el lote se comprueban con una única consulta y los pedidos válidos
+     * se insertan con un único batch JDBC. Los pedidos cuyo cliente no existe se rechazan,
+     * también si el cliente se borra mientras se inserta el lote.
+     *
+     * @param pedidos Pedidos a crear
+     * @return Pedidos creados y filas rechazadas
+     */
+    public PedidoBulkResultDto saveBulk(List<PedidoCreateDto> pedidos) {
+        PedidoBulkResultDto resultado = new PedidoBulkResultDto();
+        for (int inicio = 0; inicio < pedidos.size(); inicio += bulkChunkSize) {
+            List<PedidoCreateDto> lote = pedidos.subList(inicio, Math.min(inicio + bulkChunkSize, pedidos.size()));
+            LoteGuardado guardado = guardarLote(lote, inicio);
+            resultado.getCreados().addAll(pedidoMapper.toDtoList(guardado.creados()));
+            resultado.getRechazados().addAll(guardado.rechazados());
+        }
+        return resultado;
+    }
+
+    // Si un cliente se borra entre la comprobación y el INSERT, la clave ajena hace fallar el lote entero:
+    // se reintenta fila a fila, cada una en su transacción, para rechazar solo las filas afectadas
+    private LoteGuardado guardarLote(List<PedidoCreateDto> lote, int desplazamiento) {
+        try {
+            return transactionTemplate.execute(status -> insertarLote(lote, desplazamiento));
+        } catch (DataIntegrityViolationException e) {
+            List<Pedido> creados = new ArrayList<>(lote.size());
+            List<BulkErrorDto> rechazados = new ArrayList<>();
+            for (int i = 0; i < lote.size(); i++) {
+                int fila = desplazamiento + i;
+                List<PedidoCreateDto> unaFila = lote.subList(i, i + 1);
+                try {
+                    LoteGuardado guardado = transactionTemplate.execute(status -> insertarLote(unaFila, fila));
+                    creados.addAll(guardado.creados());
+                    rechazados.addAll(guardado.rechazados());
+                } catch (DataIntegrityViolationException ex) {
+                    Long idCliente = unaFila.get(0) == null ? null : unaFila.get(0).getIdCliente();
+                    rechazados.add(new BulkErrorDto(fila, idCliente == null ? null : idCliente.toString(),
+                            "No se ha podido crear el pedido: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage()));
+                }
+            }
+            return new LoteGuardado(creados, rechazados);
+        }
+    }
+
+    // Comprueba los clientes del lote con una consulta, inserta los pedidos válidos con un batch JDBC
+    // y actualiza los contadores por día; se ejecuta dentro de una transacción
+    private LoteGuardado insertarLote(List<PedidoCreateDto> lote, int desplazamiento) {
+        Set<Long> ids = lote.stream()
+                .filter(Objects::nonNull)
+                .map(PedidoCreateDto::getIdCliente)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existentes = ids.isEmpty() ? Set.of() : new HashSet<>(clienteRepository.findExistingIds(ids));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Pedido> creados = new ArrayList<>(lote.size());
+        List<BulkErrorDto> rechazados = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            PedidoCreateDto dto = lote.get(i);
+            Long idCliente = dto == null ? null : dto.getIdCliente();
+            if (idCliente == null || !existentes.contains(idCliente)) {
+                rechazados.add(new BulkErrorDto(desplazamiento + i,
+                        idCliente == null ? null : idCliente.toString(), "Cliente no encontrado"));
+                continue;
+            }
+            Pedido pedido = pedidoMapper.toEntity(dto);
+            pedido.setFecha(ahora);
+            creados.add(pedido);
+        }
+        pedidoRepository.batchInsert(creados);
+
+        Map<PedidoDiarioCliente.Clave, Long> deltas = new HashMap<>();
+        creados.forEach(p -> deltas.merge(claveDiaria(p.getFecha(), p.getCliente().getIdCliente()), 1L, Long::sum));
+        pedidoDiarioRepository.sumar(deltas);
+        versionesTablas.cambioPedidos();
+        return new LoteGuardado(creados, rechazados);
+    }
+
+    private record LoteGuardado(List<Pedido> creados, List<BulkErrorDto> rechazados) {
+    }
+
+    private static PedidoDiarioCliente.Clave claveDiaria(LocalDateTime fecha, Long idCliente) {
+        return new PedidoDiarioCliente.Clave(fecha.toLocalDate(), idCliente);
+    }
+
+    /**
+     * Elimina un pedido por ID, si existe, tanto si está en la tabla de pedidos como en el archivo.
+     * En la misma transacción se descuenta el pedido de los contadores por día.
      *
      * @param id ID del pedido
      * @return true si se eliminó correctamente, false si no existe
      */
     @Transactional
     public boolean deleteById(Long id) {
-        if (pedidoRepository.existsById(id)) {
-            pedidoRepository.deleteById(id);
-            return true;
+        // La fecha y el cliente se leen con una proyección (necesarios para los contadores)
+        // y el borrado es una única sentencia DELETE cuyo recuento detecta un borrado concurrente
+        Optional<PedidoDto> pedido = pedidoRepository.findDtoById(id);
+        boolean eliminado;
+        if (pedido.isPresent()) {
+            eliminado = pedidoRepository.bulkDeleteById(id) > 0;
+        } else {
+            pedido = pedidoArchivadoRepository.findDtoById(id);
+            eliminado = pedido.isPresent() && pedidoArchivadoRepository.bulkDeleteById(id) > 0;
         }
-        return false;
-
+        if (!eliminado) {
+            return false;
+        }
+        pedidoDiarioRepository.sumar(Map.of(claveDiaria(pedido.get().getFecha(), pedido.get().getIdCliente()), -1L));
+        versionesTablas.cambioPedidos();
+        return true;
     }
 
     /**
@@ -87,16 +338,119 @@ public class PedidoService {
      * El rango de búsqueda va desde las 00:00 hasta las 23:59 del día indicado,
      * ya que la base de datos almacena la fecha como DateTime y es necesario
      * incluir el día completo para obtener resultados precisos.
+     * El archivo solo se consulta si el día es anterior al límite de antigüedad del archivo;
+     * para los días recientes basta con la tabla de pedidos.
      *
      * @param fecha Día por el que se filtrarán los pedidos (sin hora).
-     * @return Lista de pedidos realizados en esa fecha.
+     * @return Lista de pedidos realizados en esa fecha, ordenada por número de pedido.
      */
+    @Transactional(readOnly = true)
     public List<PedidoDto> findByFecha(LocalDate fecha) {
         LocalDateTime desde = fecha.atStartOfDay(); // 2025-04-19T00:00:00
         LocalDateTime hasta = fecha.atTime(LocalTime.MAX); // 2025-04-19T23:59:59.999999999
-        List<Pedido> pedido = pedidoRepository.findByFechaBetween(desde, hasta);
-        return pedidoMapper.toDtoList(pedido);
+        List<PedidoDto> pedidos = pedidoRepository.findDtoByFechaBetween(desde, hasta);
+        if (!puedeEstarArchivado(desde)) {
+            return pedidos;
+        }
+        return mezclar(pedidos, pedidoArchivadoRepository.findDtoByFechaBetween(desde, hasta), Integer.MAX_VALUE);
     }
 
-}
+    // Mezcla pedidos de la tabla de pedidos y del archivo, ordenados por número de pedido,
+    // y se queda con los primeros maxFilas
+    private static List<PedidoDto> mezclar(List<PedidoDto> pedidos, List<PedidoDto> archivados, int maxFilas) {
+        return mezclar(pedidos, archivados, maxFilas, PedidoDto::getNumPedido);
+    }
+
+    private static <T> List<T> mezclar(List<T> pedidos, List<T> archivados, int maxFilas, Function<T, Long> numPedido) {
+        if (archivados.isEmpty()) return pedidos;
+        if (pedidos.isEmpty()) return archivados;
+        List<T> todos = new ArrayList<>(pedidos.size() + archivados.size());
+        todos.addAll(pedidos);
+        todos.addAll(archivados);
+        todos.sort(Comparator.comparing(numPedido));
+        return todos.size() > maxFilas ? todos.subList(0, maxFilas) : todos;
+    }
+
+    // El archivador solo mueve pedidos anteriores a su ejecución menos la antigüedad,
+    // así que un rango que empieza después de este límite no tiene pedidos archivados
+    private boolean puedeEstarArchivado(LocalDateTime desde) {
+        return desde.isBefore(LocalDateTime.now().minus(edadArchivo));
+    }
 
+    /**
+     * Devuelve una página de los pedidos realizados entre dos días, ambos incluidos,
+     * usando paginación por cursor. Si el rango empieza antes del límite de antigüedad del archivo,
+     * la página se completa con los pedidos archivados.
+     *
+     * @param desde     Primer día del rango
+     * @param hasta     Último día del rango
+     * @param despuesDe Número del último pedido de la página anterior (0 para la primera)
+     * @param limit     Número máximo de pedidos a devolver
+     * @return Página con los pedidos y el cursor de la siguiente página
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PedidoDto> findByRango(LocalDate desde, LocalDate hasta, long despuesDe, int limit) {
+        int size = CursorUtils.clampLimit(limit);
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        List<PedidoDto> pedidos = pedidoRepository.findDtoPageByFecha(inicio, fin, despuesDe, Limit.of(size + 1));
+        if (puedeEstarArchivado(inicio)) {
+            pedidos = mezclar(pedidos,
+                    pedidoArchivadoRepository.findDtoPageByFecha(inicio, fin, despuesDe, Limit.of(size + 1)), size + 1);
+        }
+        return CursorUtils.toPage(pedidos, size, PedidoDto::getNumPedido);
+    }
+
+    /**
+     * Devuelve una página de los pedidos de un cliente ordenada por número de pedido,
+     * usando paginación por cursor sobre el índice (id_cliente, numPedido), sin cargar
+     * la colección de pedidos del cliente. Cada página mezcla los pedidos de la tabla de pedidos
+     * y los del archivo. La existencia del cliente solo se comprueba cuando la página sale vacía.
+     *
+     * @param idCliente ID del cliente
+     * @param despuesDe Número del último pedido de la página anterior (0 para la primera)
+     * @param limit     Número máximo de pedidos a devolver
+     * @return Página con los pedidos y el cursor de la siguiente página, o vacío si el cliente no existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<CursorPageDto<PedidoDto>> findByCliente(Long idCliente, long despuesDe, int limit) {
+        int size = CursorUtils.clampLimit(limit);
+        List<PedidoDto> pedidos = mezclar(
+                pedidoRepository.findDtoPageByCliente(idCliente, despuesDe, Limit.of(size + 1)),
+                pedidoArchivadoRepository.findDtoPageByCliente(idCliente, despuesDe, Limit.of(size + 1)),
+                size + 1);
+        if (pedidos.isEmpty() && !clienteRepository.existsById(idCliente)) {
+            return Optional.empty();
+        }
+        return Optional.of(CursorUtils.toPage(pedidos, size, PedidoDto::getNumPedido));
+    }
+
+    /**
+     * Cuenta los pedidos de cada día entre dos días, ambos incluidos, opcionalmente de un solo cliente.
+     * Se leen los contadores precalculados (una fila por día), sin recorrer la tabla de pedidos;
+     * los días sin pedidos no aparecen.
+     *
+     * @param desde     Primer día del rango
+     * @param hasta     Último día del rango
+     * @param idCliente Cliente por el que filtrar, o null para todos
+     * @return Número de pedidos por día, ordenado por fecha
+     */
+    @Transactional(readOnly = true)
+    public List<PedidosPorDiaDto> countByDia(LocalDate desde, LocalDate hasta, Long idCliente) {
+        if (idCliente == null) {
+            return pedidoDiarioRepository.findPorDia(desde, hasta);
+        }
+        return pedidoDiarioRepository.findPorDiaYCliente(idCliente, desde, hasta);
+    }
+
+    /**
+     * Recalcula los contadores de pedidos por día a partir de la tabla de pedidos y del archivo.
+     * Se usa para rellenar los contadores de los pedidos existentes o corregir desviaciones.
+     */
+    @Transactional
+    public void reconstruirContadores() {
+        pedidoDiarioRepository.reconstruir();
+        versionesTablas.cambioPedidos();
+    }
+
+}
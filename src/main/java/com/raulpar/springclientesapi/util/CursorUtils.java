@@ -0,0 +1,72 @@
+package com.raulpar.springclientesapi.util;
+
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilidades para la paginación por cursor (keyset).
+ * El cursor es el último ID devuelto codificado en Base64 URL-safe, de modo que
+ * el cliente lo trate como un valor opaco.
+ */
+public final class CursorUtils {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private CursorUtils() {
+    }
+
+    /**
+     * Codifica un ID como cursor opaco.
+     */
+    public static String encode(Long id) {
+        if (id == null) return null;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param cursor Cursor opaco, puede ser null o vacío para la primera página
+     * @return ID a partir del cual continuar (0 para la primera página)
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long id = Long.parseLong(value);
+            if (id < 0) throw new IllegalArgumentException("Cursor inválido");
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    /**
+     * Ajusta el tamaño de página solicitado a los límites permitidos.
+     */
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Construye la página a partir de una consulta que ha pedido {@code limit + 1} filas:
+     * la fila extra solo indica que existe una página siguiente y no se devuelve.
+     *
+     * @param rows  Filas obtenidas (como máximo limit + 1)
+     * @param limit Tamaño de página
+     * @param idOf  Función que extrae la clave del cursor de cada elemento
+     */
+    public static <T> CursorPageDto<T> toPage(List<T> rows, int limit, Function<T, Long> idOf) {
+        boolean hasNext = rows.size() > limit;
+        List<T> items = hasNext ? rows.subList(0, limit) : rows;
+        String next = hasNext ? encode(idOf.apply(items.get(items.size() - 1))) : null;
+        return new CursorPageDto<>(items, next, limit);
+    }
+}
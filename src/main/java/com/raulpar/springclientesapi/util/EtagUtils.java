@@ -0,0 +1,134 @@
+package com.raulpar.springclientesapi.util;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Utilidades para generar ETags y evaluar las cabeceras condicionales
+ * If-None-Match (peticiones GET) e If-Match (peticiones PUT).
+ * <p>
+ * Una ETag fuerte identifica los bytes de una representación, y el mismo recurso se sirve en JSON,
+ * Smile o CBOR según la cabecera {@code Accept}; por eso la ETag termina con la representación
+ * que se va a servir (las respuestas llevan además {@code Vary: Accept}, ver FormatosBinariosConfig).
+ */
+public final class EtagUtils {
+
+    // Representaciones que puede servir la API, en el orden de preferencia de los conversores
+    private static final Map<MediaType, String> REPRESENTACIONES = new LinkedHashMap<>();
+
+    static {
+        REPRESENTACIONES.put(MediaType.APPLICATION_JSON, "json");
+        REPRESENTACIONES.put(new MediaType("application", "x-jackson-smile"), "smile");
+        REPRESENTACIONES.put(MediaType.APPLICATION_CBOR, "cbor");
+    }
+
+    private EtagUtils() {
+    }
+
+    /**
+     * Genera una ETag fuerte a partir de las partes indicadas y de la representación que pide
+     * la petición en curso, separadas por guiones.
+     */
+    public static String of(Object... partes) {
+        return generar(representacion(), partes);
+    }
+
+    /**
+     * Genera una ETag débil ({@code W/"..."}) con las mismas partes que {@link #of(Object...)}, para las
+     * respuestas que se comprimen: Tomcat no aplica gzip a una respuesta con ETag fuerte, porque los bytes
+     * enviados ya no serían los que identifica. If-None-Match usa comparación débil, así que el 304 funciona
+     * igual; If-Match exige comparación fuerte y no acepta ETags débiles.
+     */
+    public static String debil(Object... partes) {
+        return "W/" + of(partes);
+    }
+
+    /**
+     * Indica si la cabecera If-None-Match contiene la ETag actual (comparación débil, RFC 9110).
+     * Si la cabecera no está presente devuelve false.
+     */
+    public static boolean noModificado(String ifNoneMatch, String etag) {
+        return ifNoneMatch != null && coincide(ifNoneMatch, etag, false);
+    }
+
+    /**
+     * Indica si la cabecera If-Match contiene la ETag actual del recurso (comparación fuerte, RFC 9110)
+     * en cualquiera de sus representaciones: la precondición es sobre el estado del recurso, que no
+     * depende del formato en que el cliente lo leyó.
+     * Si la cabecera no está presente la precondición se cumple.
+     */
+    public static boolean precondicionCumplida(String ifMatch, Object... partes) {
+        return ifMatch == null || REPRESENTACIONES.values().stream()
+                .anyMatch(representacion -> coincide(ifMatch, generar(representacion, partes), true));
+    }
+
+    /**
+     * Respuesta 304 Not Modified sin cuerpo con la ETag actual.
+     */
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * Representación (json, smile o cbor) que se servirá a la petición en curso, elegida a partir de
+     * su cabecera Accept como lo hace Spring MVC: los tipos compatibles se ordenan por calidad y
+     * especificidad y gana el primero; sin cabecera, o si no admite ninguno, JSON.
+     */
+    static String representacion() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (!(atributos instanceof ServletRequestAttributes servlet)) {
+            return "json";
+        }
+        String accept = servlet.getRequest().getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        List<MediaType> aceptados;
+        try {
+            aceptados = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
+        List<MediaType> compatibles = new ArrayList<>();
+        for (MediaType aceptado : aceptados) {
+            for (MediaType producible : REPRESENTACIONES.keySet()) {
+                if (aceptado.getQualityValue() > 0 && aceptado.isCompatibleWith(producible)) {
+                    compatibles.add(producible.copyQualityValue(aceptado));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatibles);
+        return compatibles.stream()
+                .findFirst()
+                .map(tipo -> REPRESENTACIONES.get(tipo.removeQualityValue()))
+                .orElse("json");
+    }
+
+    private static String generar(String representacion, Object... partes) {
+        return Stream.concat(Arrays.stream(partes), Stream.of(representacion))
+                .map(String::valueOf)
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    private static boolean coincide(String cabecera, String etag, boolean fuerte) {
+        ETag actual = ETag.create(etag);
+        return ETag.parse(cabecera).stream()
+                .anyMatch(e -> e.isWildcard() || e.compare(actual, fuerte));
+    }
+}
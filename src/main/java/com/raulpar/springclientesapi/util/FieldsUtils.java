@@ -0,0 +1,69 @@
+package com.raulpar.springclientesapi.util;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utilidades para los sparse fieldsets: con {@code fields=idCliente,dni} el cliente elige qué
+ * propiedades del DTO recibe, y la consulta solo lee las columnas correspondientes.
+ */
+public final class FieldsUtils {
+
+    // Propiedades serializadas de cada DTO, en orden de declaración
+    private static final ClassValue<List<String>> PROPIEDADES = new ClassValue<>() {
+        @Override
+        protected List<String> computeValue(Class<?> dto) {
+            return Arrays.stream(dto.getDeclaredFields())
+                    .filter(campo -> !Modifier.isStatic(campo.getModifiers()))
+                    .filter(campo -> !campo.isAnnotationPresent(JsonIgnore.class))
+                    .map(Field::getName)
+                    .toList();
+        }
+    };
+
+    private FieldsUtils() {
+    }
+
+    /**
+     * Propiedades del DTO que se pueden pedir en {@code fields}.
+     */
+    public static List<String> propiedades(Class<?> dto) {
+        return PROPIEDADES.get(dto);
+    }
+
+    /**
+     * Valida el parámetro {@code fields} contra las propiedades del DTO.
+     *
+     * @param fields Propiedades separadas por comas; null o vacío para devolver el DTO completo
+     * @param dto    Clase del DTO de la respuesta
+     * @param id     Propiedad que se incluye siempre, porque es la clave del cursor
+     * @return Propiedades pedidas en el orden del DTO, empezando por el id; null si no se ha indicado fields
+     * @throws IllegalArgumentException si se pide una propiedad que el DTO no tiene
+     */
+    public static List<String> parse(String fields, Class<?> dto, String id) {
+        if (fields == null || fields.isBlank()) return null;
+        List<String> propiedades = propiedades(dto);
+        Set<String> pedidas = new LinkedHashSet<>();
+        pedidas.add(id);
+        for (String campo : fields.split(",")) {
+            String nombre = campo.trim();
+            if (nombre.isEmpty()) continue;
+            if (!propiedades.contains(nombre)) {
+                throw new IllegalArgumentException("Campo desconocido: " + nombre);
+            }
+            pedidas.add(nombre);
+        }
+        List<String> campos = new ArrayList<>(pedidas.size());
+        for (String propiedad : propiedades) {
+            if (pedidas.contains(propiedad)) campos.add(propiedad);
+        }
+        return campos;
+    }
+}
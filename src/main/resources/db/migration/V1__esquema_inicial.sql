@@ -0,0 +1,26 @@
+-- Esquema inicial: el que generaba Hibernate con ddl-auto: update para las entidades Cliente y Pedido
+-- antes de usar Flyway, con los mismos nombres de restricción. Las bases de datos creadas así se marcan
+-- directamente con esta versión (spring.flyway.baseline-on-migrate) sin volver a ejecutarla, y las
+-- migraciones siguientes se aplican igual sobre ellas que sobre una base de datos nueva.
+
+create table Cliente (
+    idCliente bigint not null auto_increment,
+    apellidos varchar(255),
+    calle varchar(255),
+    dni varchar(255) not null,
+    email varchar(255),
+    municipio varchar(255),
+    nombre varchar(255),
+    provincia varchar(255),
+    primary key (idCliente)
+) engine=InnoDB;
+
+create table Pedidos (
+    fecha datetime(6),
+    id_cliente bigint not null,
+    numPedido bigint not null auto_increment,
+    primary key (numPedido)
+) engine=InnoDB;
+
+alter table Cliente add constraint UKqd514pd71j0t1mabyvi78q977 unique (dni);
+alter table Pedidos add constraint FK8pj2sue4r4kkbwnqy68n72brf foreign key (id_cliente) references Cliente (idCliente);
@@ -0,0 +1,41 @@
+-- Índices que usan las consultas de los repositorios, versión de los clientes para el bloqueo optimista
+-- y contadores precalculados de pedidos por día, rellenados con los pedidos que ya existan.
+
+alter table Cliente add column version bigint default 0 not null;
+
+-- Listados filtrados por provincia y/o municipio, ordenados por ID (la clave primaria va al final de cada índice)
+create index idx_cliente_provincia on Cliente (provincia);
+create index idx_cliente_municipio on Cliente (municipio);
+create index idx_cliente_provincia_municipio on Cliente (provincia, municipio);
+
+-- Consultas por rango de fechas
+create index idx_pedidos_fecha on Pedidos (fecha);
+-- Resumen de pedidos de un cliente (número, primera y última fecha) sin leer las filas.
+-- En MySQL sustituye al índice que se creó implícitamente para la clave ajena de V1
+create index idx_pedidos_cliente_fecha on Pedidos (id_cliente, fecha);
+-- Pedidos de un cliente paginados por cursor
+create index idx_pedidos_cliente_numpedido on Pedidos (id_cliente, numPedido);
+
+-- Contadores precalculados de pedidos por día y por día y cliente
+create table PedidosPorDia (
+    fecha date not null,
+    total bigint not null,
+    primary key (fecha)
+) engine=InnoDB;
+
+create table PedidosPorDiaCliente (
+    fecha date not null,
+    id_cliente bigint not null,
+    total bigint not null,
+    primary key (fecha, id_cliente)
+) engine=InnoDB;
+
+create index idx_pedidosdiacliente_cliente_fecha on PedidosPorDiaCliente (id_cliente, fecha);
+
+-- Igual que PedidoDiarioRepository.reconstruir, antes de que exista el archivo de pedidos
+insert into PedidosPorDiaCliente (fecha, id_cliente, total)
+select cast(fecha as date), id_cliente, count(*) from Pedidos where fecha is not null
+group by cast(fecha as date), id_cliente;
+
+insert into PedidosPorDia (fecha, total)
+select fecha, sum(total) from PedidosPorDiaCliente group by fecha;
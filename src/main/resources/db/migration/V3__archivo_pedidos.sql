@@ -0,0 +1,17 @@
+-- Archivo de pedidos: los pedidos con más antigüedad que pedidos.archivo.edad se mueven aquí por lotes,
+-- de forma que la tabla Pedidos (y sus índices) solo crece con los pedidos recientes.
+-- numPedido conserva el número asignado en Pedidos, por eso no es auto_increment.
+
+create table PedidosArchivo (
+    numPedido bigint not null,
+    id_cliente bigint not null,
+    fecha datetime(6),
+    primary key (numPedido)
+) engine=InnoDB;
+
+-- Consultas por rango de fechas anteriores al límite del archivo
+create index idx_pedidosarchivo_fecha on PedidosArchivo (fecha);
+-- Borrado de los pedidos archivados de un cliente
+create index idx_pedidosarchivo_cliente_numpedido on PedidosArchivo (id_cliente, numPedido);
+
+alter table PedidosArchivo add constraint fk_pedidosarchivo_cliente foreign key (id_cliente) references Cliente (idCliente);
@@ -0,0 +1,11 @@
+-- Versión de las tablas de clientes y de pedidos, usada como ETag de los listados.
+-- Cada escritura la incrementa en su misma transacción, así que todas las instancias (y la réplica)
+-- ven la versión nueva a la vez que los datos que la han cambiado.
+
+create table VersionesTablas (
+    tabla varchar(32) not null,
+    version bigint not null,
+    primary key (tabla)
+) engine=InnoDB;
+
+insert into VersionesTablas (tabla, version) values ('Cliente', 0), ('Pedidos', 0);
@@ -0,0 +1,78 @@
+package com.raulpar.springclientesapi.cache;
+
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para {@link ClienteCache}.
+ */
+class ClienteCacheTest {
+
+    private final ClienteCache cache = new ClienteCache(100, Duration.ofMinutes(10));
+
+    private ClienteOutputDetailDto cliente(Long id, String dni) {
+        return new ClienteOutputDetailDto(id, dni, "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+    }
+
+    // Test que comprueba que un cliente guardado se encuentra por ID y por DNI
+    @Test
+    void testPutAndGet() {
+        cache.put(cliente(1L, "12345678A"));
+
+        assertTrue(cache.getById(1L).isPresent());
+        assertEquals(1L, cache.getByDni("12345678A").orElseThrow().getIdCliente());
+        assertEquals(2, cache.statsPorId().hitCount());
+    }
+
+    // Test que comprueba que un DNI antiguo no devuelve el cliente cuando su DNI ha cambiado
+    @Test
+    void testStaleDniIsIgnored() {
+        cache.put(cliente(1L, "12345678A"));
+        // El cliente cambia de DNI y se vuelve a cachear solo por ID
+        cache.evict(1L);
+        cache.put(cliente(1L, "99999999Z"));
+
+        assertTrue(cache.getByDni("12345678A").isEmpty());
+        assertTrue(cache.getByDni("99999999Z").isPresent());
+    }
+
+    // Test que comprueba que evict elimina el ID y los DNIs indicados
+    @Test
+    void testEvict() {
+        cache.put(cliente(1L, "12345678A"));
+
+        cache.evict(1L, "12345678A");
+
+        assertTrue(cache.getById(1L).isEmpty());
+        assertTrue(cache.getByDni("12345678A").isEmpty());
+        assertEquals(1, cache.statsPorId().missCount());
+    }
+
+    // Test que comprueba que, dentro de una transacción, el cliente se vuelve a invalidar al terminarla
+    // aunque una lectura concurrente lo haya cacheado entre la invalidación y el commit
+    @Test
+    void testEvictTrasCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.put(cliente(1L, "12345678A"));
+            cache.evict(1L, "12345678A");
+            // Otra petición lee la fila sin confirmar y la vuelve a cachear
+            cache.put(cliente(1L, "12345678A"));
+            assertTrue(cache.getById(1L).isPresent());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            assertTrue(cache.getById(1L).isEmpty());
+            assertTrue(cache.getByDni("12345678A").isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.raulpar.springclientesapi.cache;
+
+import com.raulpar.springclientesapi.dto.FacetaDto;
+import com.raulpar.springclientesapi.dto.FacetasClientesDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para {@link FacetasClientes}.
+ */
+class FacetasClientesTest {
+
+    private FacetasClientes facetas;
+    private AtomicInteger consultas;
+    private List<Object[]> filas;
+
+    private final Supplier<List<Object[]>> origen = () -> {
+        consultas.incrementAndGet();
+        return filas;
+    };
+
+    @BeforeEach
+    void setUp() {
+        facetas = new FacetasClientes(Duration.ofMinutes(10));
+        consultas = new AtomicInteger();
+        filas = new ArrayList<>(List.of(
+                new Object[]{"Madrid", "Madrid", 5L},
+                new Object[]{"Madrid", "Getafe", 2L},
+                new Object[]{"Sevilla", "Sevilla", 3L},
+                new Object[]{null, null, 4L}));
+    }
+
+    // Test que comprueba los conteos, ordenados de más a menos clientes y sin los clientes sin provincia
+    @Test
+    void testConsultar() {
+        FacetasClientesDto resultado = facetas.consultar("Madrid", origen);
+
+        assertEquals(List.of(new FacetaDto("Madrid", 7), new FacetaDto("Sevilla", 3)), resultado.getProvincias());
+        assertEquals(List.of(new FacetaDto("Madrid", 5), new FacetaDto("Getafe", 2)), resultado.getMunicipios());
+        assertTrue(facetas.consultar(null, origen).getMunicipios().isEmpty());
+        assertTrue(facetas.consultar("Toledo", origen).getMunicipios().isEmpty());
+        // La consulta agregada solo se ejecuta una vez
+        assertEquals(1, consultas.get());
+    }
+
+    // Test que comprueba que altas, bajas y cambios se aplican sobre los conteos sin volver a consultar
+    @Test
+    void testCambiosIncrementales() {
+        facetas.consultar(null, origen);
+
+        facetas.sumar("Toledo", "Talavera de la Reina");
+        facetas.restar("Madrid", "Getafe");
+        facetas.mover("Sevilla", "Sevilla", "Madrid", "Getafe");
+        facetas.mover("Madrid", "Madrid", "Madrid", "Madrid");
+
+        FacetasClientesDto resultado = facetas.consultar("Madrid", origen);
+        assertEquals(List.of(new FacetaDto("Madrid", 7), new FacetaDto("Sevilla", 2), new FacetaDto("Toledo", 1)),
+                resultado.getProvincias());
+        assertEquals(List.of(new FacetaDto("Madrid", 5), new FacetaDto("Getafe", 2)), resultado.getMunicipios());
+        assertEquals(1, consultas.get());
+    }
+
+    // Test que comprueba que una provincia sin clientes desaparece de las facetas
+    @Test
+    void testConteoACero() {
+        facetas.consultar(null, origen);
+
+        facetas.restar("Sevilla", "Sevilla");
+        facetas.restar("Sevilla", "Sevilla");
+        facetas.restar("Sevilla", "Sevilla");
+
+        assertEquals(List.of("Madrid"), facetas.consultar(null, origen).getProvincias().stream().map(FacetaDto::getValor).toList());
+    }
+
+    // Test que comprueba que los cambios dentro de una transacción solo se aplican al hacer commit
+    @Test
+    void testSoloTrasCommit() {
+        facetas.consultar(null, origen);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            facetas.sumar("Sevilla", "Sevilla");
+            assertEquals(3, facetas.consultar("Sevilla", origen).getMunicipios().get(0).getTotal());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(4, facetas.consultar("Sevilla", origen).getMunicipios().get(0).getTotal());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Test que comprueba que al caducar los conteos se sustituyen por los de la consulta agregada
+    @Test
+    void testRefresco() {
+        facetas = new FacetasClientes(Duration.ZERO);
+        facetas.consultar(null, origen);
+        facetas.sumar("Toledo", "Toledo");
+
+        filas.remove(0);
+        FacetasClientesDto resultado = facetas.consultar("Madrid", origen);
+
+        assertEquals(2, consultas.get());
+        assertEquals(List.of(new FacetaDto("Sevilla", 3), new FacetaDto("Madrid", 2)), resultado.getProvincias());
+    }
+
+    // Test que comprueba que si falla un refresco se siguen usando los conteos anteriores
+    @Test
+    void testRefrescoFallido() {
+        facetas = new FacetasClientes(Duration.ZERO);
+        facetas.consultar(null, origen);
+
+        FacetasClientesDto resultado = facetas.consultar(null, () -> {
+            throw new IllegalStateException("Base de datos no disponible");
+        });
+        assertEquals(2, resultado.getProvincias().size());
+
+        FacetasClientes nuevas = new FacetasClientes(Duration.ZERO);
+        assertThrows(IllegalStateException.class, () -> nuevas.consultar(null, () -> {
+            throw new IllegalStateException("Base de datos no disponible");
+        }));
+    }
+}
@@ -0,0 +1,145 @@
+package com.raulpar.springclientesapi.cache;
+
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para {@link IndiceBusquedaClientes}.
+ */
+class IndiceBusquedaClientesTest {
+
+    private IndiceBusquedaClientes indice;
+
+    private static ClienteOutputDetailDto cliente(long id, String nombre, String apellidos, String email, String municipio) {
+        return new ClienteOutputDetailDto(id, String.format("%08dA", id), nombre, apellidos, email, "Calle Mayor", municipio, "Madrid");
+    }
+
+    private List<Long> ids(String texto) {
+        return indice.buscar(texto, 0, 10).clientes().stream().map(ClienteOutputDto::getIdCliente).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceBusquedaClientes();
+        indice.reconstruir(() -> Stream.of(
+                cliente(1, "Juan", "Pérez", "juan@gmail.com", "Madrid"),
+                cliente(2, "Juana", "Gómez", "juana@yahoo.es", "Móstoles"),
+                cliente(3, "Lucía", "Martínez", "lucia@gmail.com", "Sevilla"),
+                cliente(4, "Ana", "Jurado", "ana@hotmail.com", "Madrid")));
+    }
+
+    // Test que comprueba la búsqueda por el principio de las palabras, sin distinguir mayúsculas ni acentos
+    @Test
+    void testPrefijo() {
+        assertTrue(indice.isListo());
+        assertEquals(List.of(1L, 2L, 4L), ids("ju"));
+        assertEquals(List.of(1L, 2L), ids("JUAN"));
+        assertEquals(List.of(3L), ids("martin"));
+        assertEquals(List.of(2L), ids("mostoles"));
+        assertEquals(List.of(3L), ids("lucía"));
+    }
+
+    // Test que comprueba que con varias palabras van primero los clientes que las tienen todas
+    @Test
+    void testVariasPalabrasYRanking() {
+        List<Long> resultado = ids("juan madrid");
+        assertEquals(1L, resultado.get(0));
+        assertTrue(resultado.size() >= 2);
+
+        assertEquals(List.of(1L, 3L), ids("gmail"));
+    }
+
+    // Test que comprueba que se toleran erratas y coincidencias en mitad de una palabra
+    @Test
+    void testErratas() {
+        assertEquals(List.of(3L), ids("martines"));
+        assertEquals(List.of(2L), ids("yaho"));
+        assertTrue(ids("xyz").isEmpty());
+        // Las palabras de una letra no se buscan
+        assertTrue(ids("j").isEmpty());
+    }
+
+    // Test que comprueba que los cambios y las bajas se reflejan en el índice
+    @Test
+    void testCambiosYBajas() {
+        indice.indexar(cliente(1, "Pedro", "Pérez", "pedro@gmail.com", "Madrid"));
+        assertEquals(List.of(2L), ids("juan"));
+        assertEquals(List.of(1L), ids("pedro"));
+
+        indice.eliminar(1L);
+        assertTrue(ids("pedro").isEmpty());
+        assertEquals(3, indice.size());
+    }
+
+    // Test que comprueba la paginación de los resultados ordenados
+    @Test
+    void testPaginacion() {
+        IndiceBusquedaClientes.Resultado primera = indice.buscar("ju", 0, 2);
+        assertEquals(2, primera.clientes().size());
+        assertTrue(primera.hayMas());
+
+        IndiceBusquedaClientes.Resultado segunda = indice.buscar("ju", 2, 2);
+        assertEquals(List.of(4L), segunda.clientes().stream().map(ClienteOutputDto::getIdCliente).toList());
+        assertFalse(segunda.hayMas());
+    }
+
+    // Test que comprueba que el offset máximo con un límite muy grande no desborda y que más allá se rechaza
+    @Test
+    void testOffsetMaximo() {
+        IndiceBusquedaClientes.Resultado resultado = indice.buscar("ju", IndiceBusquedaClientes.MAX_OFFSET, Integer.MAX_VALUE);
+        assertTrue(resultado.clientes().isEmpty());
+        assertFalse(resultado.hayMas());
+        assertEquals(3, indice.buscar("ju", 0, Integer.MAX_VALUE).clientes().size());
+
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("ju", IndiceBusquedaClientes.MAX_OFFSET + 1, 10));
+    }
+
+    // Test que comprueba que los cambios dentro de una transacción solo se aplican al hacer commit
+    @Test
+    void testSoloTrasCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            indice.indexar(cliente(5, "Zoe", "Ruiz", "zoe@gmail.com", "Toledo"));
+            assertTrue(ids("zoe").isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(List.of(5L), ids("zoe"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Test que comprueba que un cambio confirmado durante la reconstrucción no se pierde
+    @Test
+    void testCambiosDuranteLaReconstruccion() {
+        indice.reconstruir(() -> {
+            // Llega mientras se leen los clientes, que ya no incluyen este cambio
+            indice.indexar(cliente(6, "Hugo", "Sanz", "hugo@gmail.com", "Ávila"));
+            return Stream.of(cliente(1, "Juan", "Pérez", "juan@gmail.com", "Madrid"));
+        });
+
+        assertEquals(List.of(6L), ids("avila"));
+        assertEquals(List.of(1L), ids("perez"));
+        assertEquals(2, indice.size());
+    }
+
+    // Test que comprueba que los números de documento se renumeran tras muchas actualizaciones
+    @Test
+    void testCompactacion() {
+        for (int i = 0; i < 5000; i++) {
+            indice.indexar(cliente(7, "Nombre" + i, "Apellido", "cliente@gmail.com", "Madrid"));
+        }
+        assertEquals(5, indice.size());
+        assertEquals(List.of(7L), ids("nombre4999"));
+        assertEquals(List.of(1L, 2L), ids("juan"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.raulpar.springclientesapi.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControlAdmisionFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private ControlAdmisionFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filtro = new ControlAdmisionFilter(
+                () -> new LimiteAdaptativo(1, 1, 10, Duration.ofMillis(100), 0.5),
+                () -> new LimiteAdaptativo(2, 1, 10, Duration.ofSeconds(1), 0.5),
+                Duration.ofSeconds(2), registry);
+    }
+
+    @Test
+    void testGrupos() {
+        assertEquals("clientes-lectura", ControlAdmisionFilter.grupo(new MockHttpServletRequest("GET", "/api/clientes/1")));
+        assertEquals("clientes-escritura", ControlAdmisionFilter.grupo(new MockHttpServletRequest("PATCH", "/api/clientes/1")));
+        assertEquals("pedidos-lectura", ControlAdmisionFilter.grupo(new MockHttpServletRequest("GET", "/api/pedidos")));
+        assertEquals("pedidos-escritura", ControlAdmisionFilter.grupo(new MockHttpServletRequest("DELETE", "/api/pedidos/3")));
+        assertNull(ControlAdmisionFilter.grupo(new MockHttpServletRequest("POST", "/api/clientes/bulk")));
+        assertNull(ControlAdmisionFilter.grupo(new MockHttpServletRequest("GET", "/api/pedidos/export")));
+        assertNull(ControlAdmisionFilter.grupo(new MockHttpServletRequest("GET", "/api/clientesx")));
+        assertNull(ControlAdmisionFilter.grupo(new MockHttpServletRequest("GET", "/actuator/prometheus")));
+    }
+
+    @Test
+    void testRechazaConRetryAfterCuandoSeSuperaElLimite() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+        FilterChain bloqueante = (req, res) -> {
+            dentro.countDown();
+            try {
+                salir.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Thread ocupante = new Thread(() -> {
+            try {
+                filtro.doFilter(new MockHttpServletRequest("GET", "/api/clientes/1"), new MockHttpServletResponse(), bloqueante);
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        ocupante.start();
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        // El grupo de lecturas de clientes está lleno (límite 1): se rechaza sin llegar al controlador
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/clientes/2"), rechazada,
+                (req, res) -> fail("No debe llegar a la cadena"));
+        assertEquals(503, rechazada.getStatus());
+        assertEquals("2", rechazada.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get(ControlAdmisionFilter.METRICA_RECHAZOS).tag("group", "clientes-lectura").counter().count());
+        assertEquals(1.0, registry.get(ControlAdmisionFilter.METRICA_EN_CURSO).tag("group", "clientes-lectura").gauge().value());
+
+        // Los demás grupos tienen su propio límite
+        MockHttpServletResponse otroGrupo = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/pedidos/1"), otroGrupo, (req, res) -> {});
+        assertEquals(200, otroGrupo.getStatus());
+
+        salir.countDown();
+        ocupante.join();
+        assertNull(error.get());
+        assertEquals(0, filtro.limite("clientes-lectura").getEnCurso());
+    }
+
+    @Test
+    void testRutasFueraDelControlNoSeLimitan() throws Exception {
+        filtro.limite("clientes-escritura").adquirir();
+        filtro.limite("clientes-escritura").adquirir();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("POST", "/api/clientes/bulk"), response, (req, res) -> {});
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testLimiteCreceConLatenciaBajaYSeReduceConLatenciaAlta() throws Exception {
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 2, 6, Duration.ofMillis(50), 0.5);
+        long rapida = Duration.ofMillis(1).toNanos();
+
+        // Sin uso del límite no crece
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limite.adquirir());
+            limite.liberar(rapida);
+        }
+        assertEquals(4, limite.getLimite());
+
+        // Con el límite ocupado crece una plaza por cada ventana de peticiones, hasta el máximo
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < limite.getLimite(); j++) {
+                assertTrue(limite.adquirir());
+            }
+            assertFalse(limite.adquirir());
+            for (int j = limite.getEnCurso(); j > 0; j--) {
+                limite.liberar(rapida);
+            }
+        }
+        assertEquals(6, limite.getLimite());
+
+        // Las muestras lentas lo reducen como mucho una vez por intervalo de latencia objetivo
+        Thread.sleep(60);
+        long lenta = Duration.ofMillis(80).toNanos();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limite.adquirir());
+            limite.liberar(lenta);
+        }
+        assertEquals(3, limite.getLimite());
+        Thread.sleep(60);
+        assertTrue(limite.adquirir());
+        limite.liberar(lenta);
+        assertEquals(2, limite.getLimite());
+        assertEquals(0, limite.getEnCurso());
+    }
+
+    @Test
+    void testMetricaDelLimite() {
+        assertEquals(1.0, registry.get(ControlAdmisionFilter.METRICA_LIMITE).tag("group", "pedidos-lectura").gauge().value());
+        assertEquals(2.0, registry.get(ControlAdmisionFilter.METRICA_LIMITE).tag("group", "pedidos-escritura").gauge().value());
+    }
+}
@@ -0,0 +1,170 @@
+package com.raulpar.springclientesapi.config;
+
+import com.raulpar.springclientesapi.dto.ClienteInputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.service.ClienteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del enrutado de lecturas a la réplica con dos bases de datos H2 en memoria:
+ * el primario (esquema generado por Hibernate) y la réplica (esquema creado en la prueba).
+ * La réplica no se sincroniza con el primario, lo que permite saber a cuál ha ido cada consulta.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:AccesoaDatosPrimario;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "replica.url=jdbc:h2:mem:AccesoaDatosReplica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "replica.username=sa",
+        "replica.password=",
+        "clientes.cache.max-size=0"
+})
+@ActiveProfiles("h2")
+class EnrutadorDataSourceTest {
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    @Qualifier("primarioDataSource")
+    private DataSource primario;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    private JdbcTemplate jdbcPrimario;
+    private JdbcTemplate jdbcReplica;
+
+    @BeforeEach
+    void setUp() {
+        jdbcPrimario = new JdbcTemplate(primario);
+        jdbcReplica = new JdbcTemplate(replica);
+        jdbcReplica.execute("create table if not exists Cliente (idCliente bigint primary key, dni varchar(255) not null, " +
+                "nombre varchar(255), apellidos varchar(255), email varchar(255), calle varchar(255), " +
+                "municipio varchar(255), provincia varchar(255), version bigint default 0 not null)");
+        jdbcReplica.update("delete from Cliente");
+        jdbcPrimario.update("delete from Cliente");
+    }
+
+    @AfterEach
+    void tearDown() {
+        EnrutadorDataSource.finPeticion();
+    }
+
+    // Test que comprueba que las lecturas van a la réplica y las escrituras al primario
+    @Test
+    void testLecturasEnReplicaEscriturasEnPrimario() {
+        jdbcReplica.update("insert into Cliente (idCliente, dni, nombre) values (1, '11111111A', 'Réplica')");
+
+        assertEquals(List.of("11111111A"), dnisListado());
+
+        clienteService.save(clienteInput("22222222B"));
+        assertEquals(1, contar(jdbcPrimario, "22222222B"));
+        assertEquals(0, contar(jdbcReplica, "22222222B"));
+        // Fuera de una petición no se leen las propias escrituras: la réplica aún no tiene el cliente
+        assertEquals(List.of("11111111A"), dnisListado());
+    }
+
+    // Test que comprueba que las lecturas que se guardan en la caché van al primario, aunque sean de solo lectura
+    @Test
+    void testCacheSeLlenaDesdeElPrimario() {
+        jdbcReplica.update("insert into Cliente (idCliente, dni, nombre) values (1, '11111111A', 'Réplica')");
+        clienteService.save(clienteInput("22222222B"));
+
+        assertTrue(clienteService.findByDni("11111111A").isEmpty());
+        assertEquals("Juan", clienteService.findByDni("22222222B").orElseThrow().getNombre());
+    }
+
+    // Test que comprueba que una petición que ha escrito lee del primario a partir de ese momento
+    @Test
+    void testLeeSusEscriturasEnLaMismaPeticion() {
+        jdbcReplica.update("insert into Cliente (idCliente, dni, nombre) values (1, '11111111A', 'Réplica')");
+        EnrutadorDataSource.inicioPeticion();
+
+        // Antes de escribir se lee de la réplica
+        assertEquals(List.of("11111111A"), dnisListado());
+        clienteService.save(clienteInput("22222222B"));
+        assertEquals(List.of("22222222B"), dnisListado());
+
+        // La siguiente petición vuelve a leer de la réplica
+        EnrutadorDataSource.finPeticion();
+        EnrutadorDataSource.inicioPeticion();
+        assertEquals(List.of("11111111A"), dnisListado());
+    }
+
+    // Test que comprueba que si la réplica no responde las lecturas van al primario sin reintentar cada vez
+    @Test
+    void testReplicaNoDisponible() throws SQLException {
+        DataSource primarioMock = mock(DataSource.class);
+        DataSource replicaMock = mock(DataSource.class);
+        Connection conexion = mock(Connection.class);
+        when(primarioMock.getConnection()).thenReturn(conexion);
+        when(replicaMock.getConnection()).thenThrow(new SQLException("Connection refused"));
+        EnrutadorDataSource enrutador = new EnrutadorDataSource(primarioMock, replicaMock, Duration.ofMinutes(1));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertSame(conexion, enrutador.getConnection());
+            assertSame(conexion, enrutador.getConnection());
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        verify(replicaMock, times(1)).getConnection();
+        verify(primarioMock, times(2)).getConnection();
+    }
+
+    // Test que comprueba que la conexión con credenciales sigue el mismo enrutado que la conexión sin ellas
+    @Test
+    void testConexionConCredenciales() throws SQLException {
+        DataSource primarioMock = mock(DataSource.class);
+        DataSource replicaMock = mock(DataSource.class);
+        Connection deReplica = mock(Connection.class);
+        Connection dePrimario = mock(Connection.class);
+        when(replicaMock.getConnection("lector", "secreto")).thenReturn(deReplica);
+        when(primarioMock.getConnection("lector", "secreto")).thenReturn(dePrimario);
+        EnrutadorDataSource enrutador = new EnrutadorDataSource(primarioMock, replicaMock, Duration.ofMinutes(1));
+
+        assertSame(dePrimario, enrutador.getConnection("lector", "secreto"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertSame(deReplica, enrutador.getConnection("lector", "secreto"));
+            assertSame(dePrimario, EnrutadorDataSource.desdePrimario(() -> {
+                try {
+                    return enrutador.getConnection("lector", "secreto");
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private List<String> dnisListado() {
+        return clienteService.findPage(0L, 10).getItems().stream().map(ClienteOutputDto::getDni).toList();
+    }
+
+    private static int contar(JdbcTemplate jdbc, String dni) {
+        return jdbc.queryForObject("select count(*) from Cliente where dni = ?", Integer.class, dni);
+    }
+
+    private static ClienteInputDto clienteInput(String dni) {
+        return new ClienteInputDto(dni, "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+    }
+}
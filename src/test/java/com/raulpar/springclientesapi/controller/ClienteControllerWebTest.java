@@ -1,19 +1,41 @@
 package com.raulpar.springclientesapi.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.raulpar.springclientesapi.cache.IndiceBusquedaClientes;
+import com.raulpar.springclientesapi.config.FormatosBinariosConfig;
 import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputResumenDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.FacetaDto;
+import com.raulpar.springclientesapi.dto.FacetasClientesDto;
+import com.raulpar.springclientesapi.dto.PedidoDto;
 import com.raulpar.springclientesapi.mapper.ClienteMapper;
 import com.raulpar.springclientesapi.service.ClienteService;
+import com.raulpar.springclientesapi.service.PedidoService;
+import com.raulpar.springclientesapi.util.CursorUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -22,6 +44,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 // Test unitario aislado para ClienteController utilizando MockMvc
 @WebMvcTest(ClienteController.class)
+@Import(FormatosBinariosConfig.class)
 class ClienteControllerWebTest {
 
     @Autowired
@@ -33,21 +56,120 @@ class ClienteControllerWebTest {
     @MockitoBean
     private ClienteMapper clienteMapper;
 
+    @MockitoBean
+    private PedidoService pedidoService;
+
+    // Cuerpo completo y válido de un ClienteInputDto
+    private static final String CLIENTE_VALIDO = "{\"dni\":\"12345678A\",\"nombre\":\"Juan\",\"apellidos\":\"Pérez\"," +
+            "\"email\":\"juan@gmail.com\",\"calle\":\"Calle Mendez\",\"municipio\":\"Madrid\",\"provincia\":\"Madrid\"}";
+
     @Test
     void testGetAll() throws Exception {
         // Datos de prueba
         ClienteOutputDto c1 = new ClienteOutputDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com");
         ClienteOutputDto c2 = new ClienteOutputDto(2L, "87654321B", "Lucía", "Gómez", "lucia@gmail.com");
 
-        // Mock del servicio: devuelve una lista con dos clientes
-        when(clienteService.findAll()).thenReturn(List.of(c1, c2));
+        // Mock del servicio: devuelve una página con dos clientes y sin página siguiente
+        when(clienteService.findPage(0L, 50, null, null)).thenReturn(new CursorPageDto<>(List.of(c1, c2), null, 50));
 
         // Petición GET y verificación de que hay dos elementos y coinciden los DNIs
         mockMvc.perform(get("/api/clientes"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].dni", is("12345678A")))
-                .andExpect(jsonPath("$[1].dni", is("87654321B")));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].dni", is("12345678A")))
+                .andExpect(jsonPath("$.items[1].dni", is("87654321B")))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void testGetAllWithCursor() throws Exception {
+        ClienteOutputDto c3 = new ClienteOutputDto(3L, "33333333C", "Ana", "López", "ana@gmail.com");
+
+        // El cursor recibido se decodifica al ID a partir del cual continuar
+        when(clienteService.findPage(2L, 1, null, null)).thenReturn(new CursorPageDto<>(List.of(c3), CursorUtils.encode(3L), 1));
+
+        mockMvc.perform(get("/api/clientes")
+                        .param("cursor", CursorUtils.encode(2L))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].idCliente", is(3)))
+                .andExpect(jsonPath("$.next", is(CursorUtils.encode(3L))));
+    }
+
+    @Test
+    void testGetAllInvalidCursor() throws Exception {
+        // Un cursor que no se puede decodificar devuelve 400 Bad Request
+        mockMvc.perform(get("/api/clientes").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllFiltrado() throws Exception {
+        ClienteOutputDto c1 = new ClienteOutputDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com");
+        when(clienteService.findPage(0L, 50, "Madrid", "Getafe")).thenReturn(new CursorPageDto<>(List.of(c1), null, 50));
+        when(clienteService.findPage(0L, 50, List.of("idCliente", "dni"), "Madrid", null))
+                .thenReturn(new CursorPageDto<>(List.of(Map.of("idCliente", 1L, "dni", "12345678A")), null, 50));
+
+        mockMvc.perform(get("/api/clientes").param("provincia", "Madrid").param("municipio", "Getafe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].dni", is("12345678A")));
+        // Un filtro vacío no filtra
+        mockMvc.perform(get("/api/clientes").param("provincia", "Madrid").param("municipio", "").param("fields", "dni"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].idCliente", is(1)));
+    }
+
+    @Test
+    void testFacetas() throws Exception {
+        when(clienteService.facetas("Madrid")).thenReturn(new FacetasClientesDto(
+                List.of(new FacetaDto("Madrid", 3), new FacetaDto("Sevilla", 1)),
+                List.of(new FacetaDto("Getafe", 2), new FacetaDto("Madrid", 1))));
+
+        mockMvc.perform(get("/api/clientes/facetas").param("provincia", "Madrid"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.provincias[0].valor", is("Madrid")))
+                .andExpect(jsonPath("$.provincias[0].total", is(3)))
+                .andExpect(jsonPath("$.municipios[0].valor", is("Getafe")));
+    }
+
+    @Test
+    void testBuscar() throws Exception {
+        ClienteOutputDto c1 = new ClienteOutputDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com");
+        when(clienteService.buscar("juan mad", 0, 50)).thenReturn(Optional.of(new CursorPageDto<>(List.of(c1), null, 50)));
+
+        mockMvc.perform(get("/api/clientes/buscar").param("q", "juan mad"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].dni", is("12345678A")));
+    }
+
+    @Test
+    void testBuscarIndiceNoListo() throws Exception {
+        // Mientras se construye el índice se responde 503
+        when(clienteService.buscar(anyString(), anyInt(), anyInt())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/clientes/buscar").param("q", "juan"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(get("/api/clientes/buscar").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBuscarOffsetMaximo() throws Exception {
+        // Un cursor más allá del máximo se rechaza sin llegar al índice
+        when(clienteService.buscar("juan", IndiceBusquedaClientes.MAX_OFFSET, 50))
+                .thenReturn(Optional.of(new CursorPageDto<>(List.of(), null, 50)));
+
+        mockMvc.perform(get("/api/clientes/buscar").param("q", "juan")
+                        .param("cursor", CursorUtils.encode((long) IndiceBusquedaClientes.MAX_OFFSET)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/clientes/buscar").param("q", "juan")
+                        .param("cursor", CursorUtils.encode(IndiceBusquedaClientes.MAX_OFFSET + 1L)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/clientes/buscar").param("q", "juan")
+                        .param("cursor", CursorUtils.encode(Long.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+        verify(clienteService, times(1)).buscar(anyString(), anyInt(), anyInt());
     }
 
     @Test
@@ -56,7 +178,7 @@ class ClienteControllerWebTest {
         ClienteOutputDetailDto cliente = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
 
         // Mock del servicio: cliente encontrado por ID
-        when(clienteService.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteService.findById(1L, false)).thenReturn(Optional.of(cliente));
 
         // Petición GET por ID y verificación de que se devuelve correctamente
         mockMvc.perform(get("/api/clientes/1"))
@@ -64,16 +186,253 @@ class ClienteControllerWebTest {
                 .andExpect(jsonPath("$.nombre", is("Juan")));
     }
 
+    @Test
+    void testGetAllFields() throws Exception {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("idCliente", 1L);
+        fila.put("dni", "12345678A");
+        when(clienteService.findPage(0L, 50, List.of("idCliente", "dni"), null, null)).thenReturn(new CursorPageDto<>(List.of(fila), null, 50));
+
+        // Se piden solo el DNI (el ID se incluye siempre): el resto de propiedades no aparecen
+        mockMvc.perform(get("/api/clientes").param("fields", "dni"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].idCliente", is(1)))
+                .andExpect(jsonPath("$.items[0].dni", is("12345678A")))
+                .andExpect(jsonPath("$.items[0].nombre").doesNotExist());
+        verify(clienteService, never()).findPage(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testGetAllUnknownField() throws Exception {
+        // Solo se aceptan propiedades de ClienteOutputDto
+        mockMvc.perform(get("/api/clientes").param("fields", "dni,calle"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/clientes").param("fields", "version"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllSmile() throws Exception {
+        ClienteOutputDto c1 = new ClienteOutputDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com");
+        when(clienteService.findPage(0L, 50, null, null)).thenReturn(new CursorPageDto<>(List.of(c1), null, 50));
+
+        // Con Accept: application/x-jackson-smile la página se devuelve en Smile
+        byte[] cuerpo = mockMvc.perform(get("/api/clientes").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode pagina = new ObjectMapper(new SmileFactory()).readTree(cuerpo);
+        assertEquals("12345678A", pagina.get("items").get(0).get("dni").asText());
+        assertEquals("Pérez", pagina.get("items").get(0).get("apellidos").asText());
+    }
+
+    @Test
+    void testGetByIdCbor() throws Exception {
+        ClienteOutputDetailDto cliente = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 3L);
+        when(clienteService.findById(1L, false)).thenReturn(Optional.of(cliente));
+
+        // Mismos campos que en JSON, sin la versión; la ETag es la de la representación CBOR
+        byte[] cuerpo = mockMvc.perform(get("/api/clientes/1").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("ETag", "\"1-3-cbor\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode detalle = new ObjectMapper(new CBORFactory()).readTree(cuerpo);
+        assertEquals("Calle Mendez", detalle.get("calle").asText());
+        assertFalse(detalle.has("version"));
+    }
+
+    @Test
+    void testGetByIdEtag() throws Exception {
+        ClienteOutputDetailDto cliente = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 3L);
+        when(clienteService.findById(1L, false)).thenReturn(Optional.of(cliente));
+
+        // La ETag se forma con el ID y la versión del cliente, que no se incluye en el cuerpo,
+        // y con la representación servida
+        mockMvc.perform(get("/api/clientes/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3-json\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void testGetByIdEtagPorRepresentacion() throws Exception {
+        ClienteOutputDetailDto cliente = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 3L);
+        when(clienteService.findById(1L, false)).thenReturn(Optional.of(cliente));
+
+        // La representación de la ETag se elige como la del conversor: por calidad y especificidad
+        mockMvc.perform(get("/api/clientes/1").header("Accept", "application/cbor;q=0.5, application/x-jackson-smile"))
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string("ETag", "\"1-3-smile\""));
+        mockMvc.perform(get("/api/clientes/1").header("Accept", "*/*"))
+                .andExpect(content().contentType("application/json"))
+                .andExpect(header().string("ETag", "\"1-3-json\""));
+    }
+
+    @Test
+    void testGetByIdOtraRepresentacionModificada() throws Exception {
+        ClienteOutputDetailDto cliente = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 3L);
+        when(clienteService.findVersion(1L)).thenReturn(Optional.of(3L));
+        when(clienteService.findById(1L, false)).thenReturn(Optional.of(cliente));
+
+        // La ETag de la versión JSON no vale para pedir la CBOR: se devuelve el cuerpo completo
+        mockMvc.perform(get("/api/clientes/1").accept("application/cbor").header("If-None-Match", "\"1-3-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3-cbor\""))
+                .andExpect(header().string("Vary", "Accept"));
+    }
+
+    @Test
+    void testGetByIdNotModified() throws Exception {
+        // Mock del servicio: la versión actual del cliente coincide con la ETag enviada
+        when(clienteService.findVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/clientes/1").header("If-None-Match", "\"1-3-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3-json\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().string(""));
+
+        // Se responde sin cargar el cliente
+        verify(clienteService, never()).findById(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testGetAllNotModified() throws Exception {
+        when(clienteService.versionListado()).thenReturn("abc-7");
+
+        // La ETag de los listados es débil; If-None-Match la compara igual aunque se envíe sin W/
+        mockMvc.perform(get("/api/clientes").header("If-None-Match", "\"abc-7-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"abc-7-json\""));
+
+        verify(clienteService, never()).findPage(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testUpdatePreconditionFailed() throws Exception {
+        // Mock del servicio: el cliente ya está en la versión 4
+        when(clienteService.findVersion(1L)).thenReturn(Optional.of(4L));
+
+        mockMvc.perform(put("/api/clientes/1")
+                        .header("If-Match", "\"1-3-json\"")
+                        .contentType("application/json")
+                        .content(CLIENTE_VALIDO))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(clienteService, never()).update(anyLong(), any(), any());
+    }
+
+    @Test
+    void testUpdateIfMatch() throws Exception {
+        ClienteOutputDetailDto actualizado = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 4L);
+        when(clienteService.findVersion(1L)).thenReturn(Optional.of(3L));
+        when(clienteService.update(eq(1L), any(), eq(3L))).thenReturn(Optional.of(actualizado));
+
+        // If-Match acepta la ETag de cualquier representación (aquí la leída en CBOR)
+        // y la respuesta lleva la ETag de la nueva versión en la representación servida
+        mockMvc.perform(put("/api/clientes/1")
+                        .header("If-Match", "\"1-3-cbor\"")
+                        .contentType("application/json")
+                        .content(CLIENTE_VALIDO))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4-json\""));
+    }
+
+    @Test
+    void testPatch() throws Exception {
+        ClienteOutputDetailDto actualizado = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "nuevo@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 2L);
+        when(clienteService.patch(eq(1L), any(), isNull())).thenReturn(Optional.of(actualizado));
+
+        // Solo se envía el campo que cambia
+        mockMvc.perform(patch("/api/clientes/1")
+                        .contentType("application/json")
+                        .content("{\"email\":\"nuevo@gmail.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-2-json\""))
+                .andExpect(jsonPath("$.email", is("nuevo@gmail.com")));
+    }
+
+    @Test
+    void testPatchInvalid() throws Exception {
+        mockMvc.perform(patch("/api/clientes/1")
+                        .contentType("application/json")
+                        .content("{\"dni\":\"no-valido\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(clienteService, never()).patch(anyLong(), any(), any());
+    }
+
+    @Test
+    void testUpdateInvalid() throws Exception {
+        // PUT valida el cuerpo igual que POST: un cliente incompleto se rechaza sin llegar al servicio
+        mockMvc.perform(put("/api/clientes/1")
+                        .contentType("application/json")
+                        .content("{\"dni\":\"12345678A\",\"nombre\":\"Juan\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(clienteService, never()).update(anyLong(), any(), any());
+    }
+
     @Test
     void testGetByIdNotFound() throws Exception {
         // Mock del servicio: cliente no encontrado
-        when(clienteService.findById(1L)).thenReturn(Optional.empty());
+        when(clienteService.findById(1L, false)).thenReturn(Optional.empty());
 
         // Petición GET por ID y verificación de 404 Not Found
         mockMvc.perform(get("/api/clientes/1"))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetByIdConResumen() throws Exception {
+        ClienteOutputResumenDto cliente = new ClienteOutputResumenDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 2, LocalDateTime.of(2025, 4, 1, 10, 0), LocalDateTime.of(2025, 4, 19, 18, 0));
+
+        // Mock del servicio: cliente con el resumen de sus pedidos
+        when(clienteService.findById(1L, true)).thenReturn(Optional.of(cliente));
+
+        mockMvc.perform(get("/api/clientes/1").param("include", "resumen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre", is("Juan")))
+                .andExpect(jsonPath("$.totalPedidos", is(2)))
+                .andExpect(jsonPath("$.ultimoPedido", is("2025-04-19T18:00:00")));
+    }
+
+    @Test
+    void testGetPedidos() throws Exception {
+        PedidoDto p1 = new PedidoDto(7L, 1L, null);
+
+        // El cursor recibido se decodifica al número de pedido a partir del cual continuar
+        when(pedidoService.findByCliente(1L, 5L, 1))
+                .thenReturn(Optional.of(new CursorPageDto<>(List.of(p1), CursorUtils.encode(7L), 1)));
+
+        mockMvc.perform(get("/api/clientes/1/pedidos")
+                        .param("cursor", CursorUtils.encode(5L))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].numPedido", is(7)))
+                .andExpect(jsonPath("$.next", is(CursorUtils.encode(7L))));
+    }
+
+    @Test
+    void testGetPedidosClienteNotFound() throws Exception {
+        // Mock del servicio: el cliente no existe
+        when(pedidoService.findByCliente(1L, 0L, 50)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/clientes/1/pedidos"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testDeleteFound() throws Exception {
         Long id = 1L;
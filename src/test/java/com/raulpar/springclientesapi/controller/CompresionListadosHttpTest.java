@@ -0,0 +1,98 @@
+package com.raulpar.springclientesapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.repository.ClienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba por HTTP, contra Tomcat arrancado en un puerto aleatorio, que un listado de más de 2 KB
+ * con ETag se comprime con gzip (Tomcat no comprime las respuestas con ETag fuerte) y que la ETag
+ * sigue sirviendo para responder 304.
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:CompresionListadosHttpTest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("h2")
+class CompresionListadosHttpTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    // Crea 50 clientes, una página completa de más de 2 KB en JSON
+    @BeforeEach
+    void setUp() {
+        if (clienteRepository.count() > 0) return;
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            clientes.add(new Cliente(String.format("%08dA", i), "Nombre" + i, "Apellido" + i,
+                    "cliente" + i + "@gmail.com", "Calle " + i, "Madrid", "Madrid"));
+        }
+        clienteRepository.batchInsert(clientes);
+    }
+
+    // Test que comprueba que el listado con ETag se envía comprimido y que su ETag es débil
+    @Test
+    void testListadoConEtagSeComprime() throws Exception {
+        HttpResponse<byte[]> respuesta = get("/api/clientes", null);
+
+        assertEquals(200, respuesta.statusCode());
+        String etag = respuesta.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""), etag);
+        assertEquals("gzip", respuesta.headers().firstValue("Content-Encoding").orElse(null));
+        // Tomcat añade accept-encoding a la cabecera Vary que ya lleva Accept
+        assertTrue(respuesta.headers().allValues("Vary").stream()
+                .flatMap(v -> Arrays.stream(v.split(",")))
+                .anyMatch(v -> v.trim().equalsIgnoreCase("Accept")));
+
+        byte[] json = new GZIPInputStream(new ByteArrayInputStream(respuesta.body())).readAllBytes();
+        assertTrue(json.length > 2048, "El listado debe superar server.compression.min-response-size");
+        JsonNode pagina = new ObjectMapper().readTree(json);
+        assertEquals(50, pagina.get("items").size());
+    }
+
+    // Test que comprueba que la ETag débil del listado comprimido sirve para obtener 304
+    @Test
+    void testListadoNoModificado() throws Exception {
+        String etag = get("/api/clientes", null).headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> respuesta = get("/api/clientes", etag);
+
+        assertEquals(304, respuesta.statusCode());
+        assertEquals(0, respuesta.body().length);
+    }
+
+    private HttpResponse<byte[]> get(String ruta, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + port + ruta))
+                .header("Accept-Encoding", "gzip");
+        if (ifNoneMatch != null) {
+            peticion.header("If-None-Match", ifNoneMatch);
+        }
+        return httpClient.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
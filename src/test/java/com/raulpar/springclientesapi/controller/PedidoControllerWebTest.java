@@ -2,9 +2,14 @@
 package com.raulpar.springclientesapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raulpar.springclientesapi.dto.BulkErrorDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.PedidoBulkResultDto;
 import com.raulpar.springclientesapi.dto.PedidoCreateDto;
 import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
 import com.raulpar.springclientesapi.service.PedidoService;
+import com.raulpar.springclientesapi.util.CursorUtils;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +17,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -38,17 +46,39 @@ class PedidoControllerWebTest {
     private PedidoService pedidoService;
 
 
-    // Test que comprueba que se devuelve correctamente una lista con todos los pedidos
+    // Test que comprueba que la primera página devuelve los pedidos y el cursor de la siguiente
     @Test
     void testGetAll() throws Exception {
-        PedidoDto p1 = new PedidoDto();
-        PedidoDto p2 = new PedidoDto();
+        PedidoDto p1 = new PedidoDto(1L, 18L, null);
+        PedidoDto p2 = new PedidoDto(2L, 18L, null);
 
-        Mockito.when(pedidoService.findAll()).thenReturn(Arrays.asList(p1, p2));
+        Mockito.when(pedidoService.findPage(0L, 2)).thenReturn(new CursorPageDto<>(Arrays.asList(p1, p2), CursorUtils.encode(2L), 2));
 
-        mockMvc.perform(get("/api/pedido"))
+        mockMvc.perform(get("/api/pedidos").param("limit", "2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(2)));
+                .andExpect(jsonPath("$.items.size()", is(2)))
+                .andExpect(jsonPath("$.items[1].numPedido", is(2)))
+                .andExpect(jsonPath("$.next", is(CursorUtils.encode(2L))));
+    }
+
+    // Test que comprueba que el cursor de la página anterior se decodifica y la última página no tiene next
+    @Test
+    void testGetAllWithCursor() throws Exception {
+        PedidoDto p3 = new PedidoDto(3L, 18L, null);
+
+        Mockito.when(pedidoService.findPage(2L, 2)).thenReturn(new CursorPageDto<>(List.of(p3), null, 2));
+
+        mockMvc.perform(get("/api/pedidos").param("cursor", CursorUtils.encode(2L)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].numPedido", is(3)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    // Test que comprueba que un cursor que no se puede decodificar devuelve 400
+    @Test
+    void testGetAllInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/pedidos").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
     }
 
     // Test que comprueba la obtención de un pedido existente por ID
@@ -59,7 +89,7 @@ class PedidoControllerWebTest {
 
         Mockito.when(pedidoService.findById(1L)).thenReturn(Optional.of(pedido));
 
-        mockMvc.perform(get("/api/pedido/1"))
+        mockMvc.perform(get("/api/pedidos/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.numPedido", is(1)));
     }
@@ -69,7 +99,7 @@ class PedidoControllerWebTest {
     void testGetByIdNotFound() throws Exception {
         Mockito.when(pedidoService.findById(99L)).thenReturn(Optional.empty());
 
-        mockMvc.perform(get("/api/pedido/99"))
+        mockMvc.perform(get("/api/pedidos/99"))
                 .andExpect(status().isNotFound());
     }
 
@@ -85,7 +115,7 @@ class PedidoControllerWebTest {
         // Mock del servicio
         Mockito.when(pedidoService.save(any(PedidoCreateDto.class))).thenReturn(pedidoResponse);
 
-        mockMvc.perform(post("/api/pedido")
+        mockMvc.perform(post("/api/pedidos")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(pedido)))
                 .andExpect(status().isCreated())
@@ -97,7 +127,7 @@ class PedidoControllerWebTest {
     void testDeletePedidoFound() throws Exception {
         Mockito.when(pedidoService.deleteById(1L)).thenReturn(true);
 
-        mockMvc.perform(delete("/api/pedido/1"))
+        mockMvc.perform(delete("/api/pedidos/1"))
                 .andExpect(status().isOk());
     }
 
@@ -106,7 +136,7 @@ class PedidoControllerWebTest {
     void testDeletePedidoNotFound() throws Exception {
         Mockito.when(pedidoService.deleteById(2L)).thenReturn(false);
 
-        mockMvc.perform(delete("/api/pedido/2"))
+        mockMvc.perform(delete("/api/pedidos/2"))
                 .andExpect(status().isNotFound());
     }
 
@@ -120,9 +150,126 @@ class PedidoControllerWebTest {
 
         Mockito.when(pedidoService.findByFecha(fecha)).thenReturn(lista);
 
-        mockMvc.perform(get("/api/pedido/fecha")
+        mockMvc.perform(get("/api/pedidos/fecha")
                         .param("fecha", fecha.toString()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()", is(1)));
     }
-}
\ No newline at end of file
+
+    // Test que comprueba que la exportación se devuelve como NDJSON, escrita por el servicio en la respuesta
+    @Test
+    void testExport() throws Exception {
+        Mockito.doAnswer(inv -> {
+            inv.getArgument(0, OutputStream.class).write("{\"numPedido\":1}\n{\"numPedido\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pedidoService).exportNdjson(any(OutputStream.class));
+
+        // El cuerpo se escribe de forma asíncrona (StreamingResponseBody)
+        MvcResult resultado = mockMvc.perform(get("/api/pedidos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"numPedido\":1}\n{\"numPedido\":2}\n"));
+    }
+
+    // Test que comprueba que la creación masiva devuelve los pedidos creados y las filas rechazadas
+    @Test
+    void testCreateBulk() throws Exception {
+        PedidoBulkResultDto resultado = new PedidoBulkResultDto(
+                List.of(new PedidoDto(1L, 18L, null)),
+                List.of(new BulkErrorDto(1, "99", "Cliente no encontrado")));
+        Mockito.when(pedidoService.saveBulk(List.of(new PedidoCreateDto(18L), new PedidoCreateDto(99L)))).thenReturn(resultado);
+
+        mockMvc.perform(post("/api/pedidos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"idCliente\":18},{\"idCliente\":99}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creados[0].numPedido", is(1)))
+                .andExpect(jsonPath("$.rechazados[0].indice", is(1)))
+                .andExpect(jsonPath("$.rechazados[0].mensaje", is("Cliente no encontrado")));
+    }
+
+    // Test que comprueba que un cuerpo que no es un array JSON de pedidos se rechaza sin crear ninguno
+    @Test
+    void testCreateBulkInvalido() throws Exception {
+        mockMvc.perform(post("/api/pedidos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"idCliente\":\"dieciocho\"}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/pedidos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idCliente\":18}"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(pedidoService, Mockito.never()).saveBulk(any());
+    }
+
+    // Test que comprueba el listado por rango de fechas con su cursor
+    @Test
+    void testGetByRango() throws Exception {
+        LocalDate desde = LocalDate.of(2025, 4, 1);
+        LocalDate hasta = LocalDate.of(2025, 4, 30);
+        Mockito.when(pedidoService.findByRango(desde, hasta, 2L, 1))
+                .thenReturn(new CursorPageDto<>(List.of(new PedidoDto(3L, 18L, null)), CursorUtils.encode(3L), 1));
+
+        mockMvc.perform(get("/api/pedidos/rango")
+                        .param("desde", "2025-04-01")
+                        .param("hasta", "2025-04-30")
+                        .param("cursor", CursorUtils.encode(2L))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].numPedido", is(3)))
+                .andExpect(jsonPath("$.next", is(CursorUtils.encode(3L))));
+    }
+
+    // Test que comprueba que un rango invertido, una fecha inválida o un cursor inválido devuelven 400
+    @Test
+    void testGetByRangoInvalido() throws Exception {
+        mockMvc.perform(get("/api/pedidos/rango").param("desde", "2025-04-30").param("hasta", "2025-04-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pedidos/rango").param("desde", "30/04/2025").param("hasta", "2025-05-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pedidos/rango").param("desde", "2025-04-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pedidos/rango").param("desde", "2025-04-01").param("hasta", "2025-04-30")
+                        .param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(pedidoService, Mockito.never()).findByRango(any(), any(), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    // Test que comprueba las estadísticas diarias, su ETag y el filtro opcional por cliente
+    @Test
+    void testGetStatsDiario() throws Exception {
+        LocalDate desde = LocalDate.of(2025, 4, 1);
+        LocalDate hasta = LocalDate.of(2025, 4, 2);
+        Mockito.when(pedidoService.versionListado()).thenReturn("7");
+        Mockito.when(pedidoService.countByDia(desde, hasta, 18L)).thenReturn(List.of(
+                new PedidosPorDiaDto(desde, 4), new PedidosPorDiaDto(hasta, 2)));
+
+        mockMvc.perform(get("/api/pedidos/stats/diario")
+                        .param("desde", "2025-04-01")
+                        .param("hasta", "2025-04-02")
+                        .param("idCliente", "18"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", endsWith("-json\"")))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].fecha", is("2025-04-01")))
+                .andExpect(jsonPath("$[0].total", is(4)))
+                .andExpect(jsonPath("$[1].total", is(2)));
+    }
+
+    // Test que comprueba que un rango invertido o incompleto devuelve 400 sin consultar el servicio
+    @Test
+    void testGetStatsDiarioInvalido() throws Exception {
+        mockMvc.perform(get("/api/pedidos/stats/diario").param("desde", "2025-04-02").param("hasta", "2025-04-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pedidos/stats/diario").param("desde", "2025-04-01"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(pedidoService, Mockito.never()).countByDia(any(), any(), any());
+    }
+}
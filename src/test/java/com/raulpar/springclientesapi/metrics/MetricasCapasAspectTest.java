@@ -0,0 +1,37 @@
+package com.raulpar.springclientesapi.metrics;
+
+import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
+import com.raulpar.springclientesapi.mapper.ClienteMapper;
+import com.raulpar.springclientesapi.mapper.ClienteMapperImpl;
+import com.raulpar.springclientesapi.model.Cliente;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasCapasAspectTest {
+
+    // Test que comprueba que cada llamada a un mapper se registra con su capa, clase y método
+    @Test
+    void testMideLlamadasAMapper() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ClienteMapperImpl());
+        factory.addAspect(new MetricasCapasAspect(registry));
+        ClienteMapper mapper = factory.getProxy();
+
+        Cliente cliente = new Cliente("12345678A", "Juan", "Pérez", "juan@example.com", "Calle Mendez", "Madrid", "Madrid");
+        ClienteOutputDetailDto dto = mapper.toDetailDto(cliente);
+        mapper.toDetailDto(cliente);
+
+        assertEquals("Juan", dto.getNombre());
+        Timer timer = registry.get(MetricasCapasAspect.METRICA)
+                .tag("layer", "mapper")
+                .tag("class", "ClienteMapperImpl")
+                .tag("method", "toDetailDto")
+                .tag("exception", "none")
+                .timer();
+        assertEquals(2, timer.count());
+    }
+}
@@ -0,0 +1,73 @@
+package com.raulpar.springclientesapi.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Valores de referencia de la suite de rendimiento, guardados en
+ * {@code src/test/resources/performance/baselines.properties}.
+ * Para cada operación se guarda el p99 máximo ({@code <operación>.p99-ms}) y el throughput
+ * mínimo ({@code <operación>.throughput}); una medición falla si empeora más que la tolerancia.
+ */
+final class Baselines {
+
+    private static final String RECURSO = "/performance/baselines.properties";
+
+    private final Properties valores = new Properties();
+    private final double tolerancia;
+    private final List<MedicionCarga.Resultado> medidos = new ArrayList<>();
+
+    Baselines(double tolerancia) throws IOException {
+        this.tolerancia = tolerancia;
+        try (InputStream in = Baselines.class.getResourceAsStream(RECURSO)) {
+            assertNotNull(in, "No se encuentra " + RECURSO);
+            valores.load(in);
+        }
+    }
+
+    /**
+     * Compara el resultado con su baseline y devuelve los incumplimientos (vacío si está dentro de la tolerancia).
+     */
+    List<String> comprobar(MedicionCarga.Resultado resultado) {
+        medidos.add(resultado);
+        List<String> errores = new ArrayList<>();
+        double p99Maximo = valor(resultado.nombre() + ".p99-ms") * (1 + tolerancia);
+        if (resultado.p99Ms() > p99Maximo) {
+            errores.add(String.format("%s: p99 %.3f ms supera el máximo %.3f ms", resultado.nombre(), resultado.p99Ms(), p99Maximo));
+        }
+        double throughputMinimo = valor(resultado.nombre() + ".throughput") * (1 - tolerancia);
+        if (resultado.throughput() < throughputMinimo) {
+            errores.add(String.format("%s: throughput %.1f ops/s por debajo del mínimo %.1f ops/s",
+                    resultado.nombre(), resultado.throughput(), throughputMinimo));
+        }
+        return errores;
+    }
+
+    /**
+     * Escribe los valores medidos con el formato del fichero de baselines, para actualizarlo a mano.
+     */
+    void guardarMedidos(Path destino) throws IOException {
+        Files.createDirectories(destino.getParent());
+        try (Writer out = Files.newBufferedWriter(destino)) {
+            for (MedicionCarga.Resultado r : medidos) {
+                out.write(String.format(Locale.ROOT, "%s.p99-ms=%.3f%n", r.nombre(), r.p99Ms()));
+                out.write(String.format(Locale.ROOT, "%s.throughput=%.1f%n", r.nombre(), r.throughput()));
+            }
+        }
+    }
+
+    private double valor(String clave) {
+        String valor = valores.getProperty(clave);
+        assertNotNull(valor, "Falta el baseline " + clave + " en " + RECURSO);
+        return Double.parseDouble(valor);
+    }
+}
@@ -0,0 +1,89 @@
+package com.raulpar.springclientesapi.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Ejecuta una operación con varios hilos a la vez y mide la latencia de cada llamada.
+ * Cada hilo recibe su propio rango de índices [hilo * operaciones, (hilo + 1) * operaciones),
+ * de modo que la operación puede repartir datos entre hilos sin coordinarse.
+ */
+final class MedicionCarga {
+
+    /**
+     * Resultado de una medición: percentiles de latencia en milisegundos y operaciones por segundo.
+     */
+    record Resultado(String nombre, long operaciones, double p50Ms, double p99Ms, double maxMs, double throughput) {
+
+        @Override
+        public String toString() {
+            return String.format("%-22s ops=%-7d p50=%8.3f ms  p99=%8.3f ms  max=%8.3f ms  throughput=%10.1f ops/s",
+                    nombre, operaciones, p50Ms, p99Ms, maxMs, throughput);
+        }
+    }
+
+    private MedicionCarga() {
+    }
+
+    /**
+     * Ejecuta {@code operaciones} llamadas en cada uno de los {@code hilos}, tras una ronda de
+     * calentamiento que no se mide, y devuelve los percentiles de latencia y el throughput total.
+     */
+    static Resultado medir(String nombre, int hilos, int operaciones, int calentamiento, IntConsumer operacion)
+            throws Exception {
+        // El calentamiento usa índices negativos para no consumir los datos de la medición
+        if (calentamiento > 0) {
+            ejecutar(hilos, calentamiento, i -> operacion.accept(-1 - i));
+        }
+
+        long inicio = System.nanoTime();
+        long[][] latencias = ejecutar(hilos, operaciones, operacion);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long[] todas = Arrays.stream(latencias).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Resultado(nombre, todas.length,
+                percentil(todas, 0.50), percentil(todas, 0.99), todas[todas.length - 1] / 1e6,
+                todas.length / segundos);
+    }
+
+    private static long[][] ejecutar(int hilos, int operaciones, IntConsumer operacion) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<long[]>> futuros = new ArrayList<>(hilos);
+            for (int h = 0; h < hilos; h++) {
+                int base = h * operaciones;
+                futuros.add(executor.submit(() -> {
+                    long[] latencias = new long[operaciones];
+                    salida.await();
+                    for (int i = 0; i < operaciones; i++) {
+                        long t0 = System.nanoTime();
+                        operacion.accept(base + i);
+                        latencias[i] = System.nanoTime() - t0;
+                    }
+                    return latencias;
+                }));
+            }
+            // Todos los hilos empiezan a la vez
+            salida.countDown();
+            long[][] resultado = new long[hilos][];
+            for (int h = 0; h < hilos; h++) {
+                resultado[h] = futuros.get(h).get();
+            }
+            return resultado;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+}
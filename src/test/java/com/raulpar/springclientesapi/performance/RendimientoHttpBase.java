@@ -0,0 +1,105 @@
+package com.raulpar.springclientesapi.performance;
+
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.repository.ClienteRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mide el RPS sostenido y el p99 de {@code GET /api/clientes/{id}} por HTTP, con muchos clientes
+ * concurrentes contra la aplicación arrancada en un puerto aleatorio sobre H2 en memoria.
+ * La caché de clientes se desactiva para que cada petición haga su consulta JDBC, y el control de
+ * admisión también, para medir el servidor sin que rechace peticiones.
+ * Cada subclase arranca la aplicación en un modo de hilos distinto.
+ * <p>
+ * Parámetros (propiedades de sistema): rendimiento.clientes, rendimiento.http.concurrencia,
+ * rendimiento.http.peticiones (por cliente concurrente) y rendimiento.tolerancia.
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "clientes.cache.max-size=0",
+        "admision.enabled=false"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class RendimientoHttpBase {
+
+    private static final int CLIENTES = Integer.getInteger("rendimiento.clientes", 2_000);
+    private static final int CONCURRENCIA = Integer.getInteger("rendimiento.http.concurrencia", 300);
+    private static final int PETICIONES = Integer.getInteger("rendimiento.http.peticiones", 20);
+    private static final double TOLERANCIA = Double.parseDouble(System.getProperty("rendimiento.tolerancia", "0.25"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private Baselines baselines;
+    private HttpClient httpClient;
+
+    /**
+     * Nombre del modo de hilos, usado en las claves de los baselines.
+     */
+    abstract String modo();
+
+    @BeforeAll
+    void cargarDatos() throws Exception {
+        baselines = new Baselines(TOLERANCIA);
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        List<Cliente> clientes = new ArrayList<>(CLIENTES);
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes.add(new Cliente(String.format("%08dA", i), "Nombre" + i, "Apellido" + i,
+                    "cliente" + i + "@gmail.com", "Calle " + i, "Madrid", "Madrid"));
+        }
+        clienteRepository.batchInsert(clientes);
+    }
+
+    @AfterAll
+    void guardarMedidos() throws Exception {
+        httpClient.close();
+        baselines.guardarMedidos(Path.of("target", "performance", "baselines-medidos-http-" + modo() + ".properties"));
+    }
+
+    @Test
+    void clienteFindById() throws Exception {
+        MedicionCarga.Resultado resultado = MedicionCarga.medir("httpClienteFindById." + modo(),
+                CONCURRENCIA, PETICIONES, Math.max(PETICIONES / 5, 1), i -> {
+                    long id = ThreadLocalRandom.current().nextLong(1, CLIENTES + 1);
+                    assertEquals(200, get("/api/clientes/" + id));
+                });
+        System.out.println(resultado);
+        List<String> errores = baselines.comprobar(resultado);
+        assertTrue(errores.isEmpty(), () -> String.join("\n", errores));
+    }
+
+    private int get(String ruta) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + ruta)).GET().build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
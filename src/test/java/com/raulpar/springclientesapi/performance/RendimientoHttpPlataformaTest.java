@@ -0,0 +1,18 @@
+package com.raulpar.springclientesapi.performance;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link RendimientoHttpBase} con Tomcat sobre su pool de hilos de plataforma.
+ */
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:RendimientoHttpPlataforma;MODE=MySQL;DB_CLOSE_DELAY=-1"
+})
+class RendimientoHttpPlataformaTest extends RendimientoHttpBase {
+
+    @Override
+    String modo() {
+        return "plataforma";
+    }
+}
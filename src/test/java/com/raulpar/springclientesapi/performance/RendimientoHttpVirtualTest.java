@@ -0,0 +1,18 @@
+package com.raulpar.springclientesapi.performance;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link RendimientoHttpBase} con un hilo virtual por petición.
+ */
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:RendimientoHttpVirtual;MODE=MySQL;DB_CLOSE_DELAY=-1"
+})
+class RendimientoHttpVirtualTest extends RendimientoHttpBase {
+
+    @Override
+    String modo() {
+        return "virtual";
+    }
+}
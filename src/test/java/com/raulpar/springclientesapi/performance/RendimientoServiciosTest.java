@@ -0,0 +1,160 @@
+package com.raulpar.springclientesapi.performance;
+
+import com.raulpar.springclientesapi.dto.PedidoCreateDto;
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+import com.raulpar.springclientesapi.repository.ClienteRepository;
+import com.raulpar.springclientesapi.repository.PedidoRepository;
+import com.raulpar.springclientesapi.service.ClienteService;
+import com.raulpar.springclientesapi.service.PedidoService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suite de rendimiento de extremo a extremo sobre la capa de servicio, con la aplicación completa
+ * arrancada contra H2 en memoria (sin MySQL externo).
+ * Carga un volumen configurable de clientes y pedidos, ejecuta cada operación con varios hilos
+ * y falla si el p99 o el throughput empeoran respecto a los baselines guardados.
+ * <p>
+ * No se ejecuta con {@code mvn test}; se lanza con {@code mvn test -Pperformance}.
+ * Parámetros (propiedades de sistema): rendimiento.clientes, rendimiento.pedidos, rendimiento.hilos,
+ * rendimiento.operaciones y rendimiento.tolerancia. Los valores medidos se escriben en
+ * target/performance/baselines-medidos-servicios.properties.
+ */
+@Tag("performance")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:Rendimiento;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RendimientoServiciosTest {
+
+    private static final int CLIENTES = Integer.getInteger("rendimiento.clientes", 2_000);
+    private static final int PEDIDOS = Integer.getInteger("rendimiento.pedidos", 50_000);
+    private static final int HILOS = Integer.getInteger("rendimiento.hilos", 8);
+    private static final int OPERACIONES = Integer.getInteger("rendimiento.operaciones", 500);
+    private static final double TOLERANCIA = Double.parseDouble(System.getProperty("rendimiento.tolerancia", "0.25"));
+    // Los pedidos se reparten entre los días [DIA_INICIAL, DIA_INICIAL + DIAS)
+    private static final LocalDate DIA_INICIAL = LocalDate.of(2025, 1, 1);
+    private static final int DIAS = 90;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private Baselines baselines;
+    private List<Cliente> clientes;
+    // Pedidos creados en la medición de save, que se eliminan en la de deleteById
+    private final ConcurrentHashMap<Integer, Long> creados = new ConcurrentHashMap<>();
+
+    // Carga los datos con inserciones por lotes
+    @BeforeAll
+    void cargarDatos() throws Exception {
+        baselines = new Baselines(TOLERANCIA);
+
+        List<Cliente> nuevos = new ArrayList<>(CLIENTES);
+        for (int i = 0; i < CLIENTES; i++) {
+            nuevos.add(new Cliente(String.format("%08dA", i), "Nombre" + i, "Apellido" + i,
+                    "cliente" + i + "@gmail.com", "Calle " + i, "Provincia" + (i % 50), "Municipio" + (i % 500)));
+        }
+        clienteRepository.batchInsert(nuevos);
+        clientes = clienteRepository.findByIdClienteGreaterThanOrderByIdClienteAsc(0L, Limit.of(CLIENTES));
+
+        for (int inicio = 0; inicio < PEDIDOS; inicio += 5_000) {
+            List<Pedido> lote = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + 5_000, PEDIDOS); i++) {
+                Pedido pedido = new Pedido(clientes.get(i % CLIENTES));
+                pedido.setFecha(DIA_INICIAL.plusDays(i % DIAS).atTime(8, 0).plusSeconds(i % 36_000));
+                lote.add(pedido);
+            }
+            pedidoRepository.batchInsert(lote);
+        }
+        pedidoService.reconstruirContadores();
+    }
+
+    @AfterAll
+    void guardarMedidos() throws Exception {
+        baselines.guardarMedidos(Path.of("target", "performance", "baselines-medidos-servicios.properties"));
+    }
+
+    @Test
+    @Order(1)
+    void clienteFindAll() throws Exception {
+        // Cada llamada devuelve todos los clientes: se hacen menos operaciones que en el resto
+        medir("clienteFindAll", Math.max(OPERACIONES / 20, 5), i ->
+                assertEquals(CLIENTES, clienteService.findAll().size()));
+    }
+
+    @Test
+    @Order(2)
+    void clienteFindByDni() throws Exception {
+        medir("clienteFindByDni", OPERACIONES, i ->
+                assertTrue(clienteService.findByDni(clientes.get(aleatorio(CLIENTES)).getDni()).isPresent()));
+    }
+
+    @Test
+    @Order(3)
+    void pedidoFindByFecha() throws Exception {
+        medir("pedidoFindByFecha", OPERACIONES, i ->
+                assertFalse(pedidoService.findByFecha(DIA_INICIAL.plusDays(aleatorio(DIAS))).isEmpty()));
+    }
+
+    @Test
+    @Order(4)
+    void pedidoSave() throws Exception {
+        medir("pedidoSave", OPERACIONES, i -> {
+            Long idCliente = clientes.get(aleatorio(CLIENTES)).getIdCliente();
+            Long numPedido = pedidoService.save(new PedidoCreateDto(idCliente)).getNumPedido();
+            if (i >= 0) {
+                creados.put(i, numPedido);
+            }
+        });
+    }
+
+    @Test
+    @Order(5)
+    void pedidoDeleteById() throws Exception {
+        assertEquals(HILOS * OPERACIONES, creados.size(), "pedidoDeleteById necesita los pedidos creados por pedidoSave");
+        // El calentamiento (índices negativos) elimina pedidos cargados al inicio; la medición, los creados en save
+        medir("pedidoDeleteById", OPERACIONES, i -> {
+            Long numPedido = i >= 0 ? creados.get(i) : (long) -i;
+            assertTrue(pedidoService.deleteById(numPedido));
+        });
+    }
+
+    private void medir(String nombre, int operaciones, IntConsumer operacion) throws Exception {
+        MedicionCarga.Resultado resultado = MedicionCarga.medir(nombre, HILOS, operaciones,
+                Math.max(operaciones / 5, 1), operacion);
+        System.out.println(resultado);
+        List<String> errores = baselines.comprobar(resultado);
+        assertTrue(errores.isEmpty(), () -> String.join("\n", errores));
+    }
+
+    private static int aleatorio(int limite) {
+        return ThreadLocalRandom.current().nextInt(limite);
+    }
+}
@@ -0,0 +1,175 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputResumenDto;
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+import com.raulpar.springclientesapi.util.FieldsUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las consultas de {@link ClienteRepository}: comprueba los resultados y que cada
+ * operación se resuelve con el número de sentencias SQL esperado.
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ClienteRepositoryTest {
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // Crea 3 clientes de Madrid con 2 pedidos cada uno y vacía el contexto de persistencia
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Cliente cliente = clienteRepository.save(new Cliente("1000000" + i + "A", "Nombre" + i, "Apellido" + i,
+                    "cliente" + i + "@gmail.com", "Calle " + i, "Madrid", "Madrid"));
+            pedidoRepository.save(new Pedido(cliente));
+            pedidoRepository.save(new Pedido(cliente));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Ejecuta la consulta y devuelve cuántas sentencias SQL se han preparado
+    private <T> long contarSentencias(Supplier<T> consulta) {
+        statistics.clear();
+        consulta.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Test que comprueba que el resumen de pedidos del cliente se calcula con una sola consulta agregada
+    @Test
+    void testFindResumenByIdIsOneStatement() {
+        Long idCliente = clienteRepository.findAll().get(0).getIdCliente();
+        Cliente sinPedidos = clienteRepository.save(new Cliente("20000000A", "Sin", "Pedidos",
+                "sinpedidos@gmail.com", "Calle", "Madrid", "Madrid"));
+        entityManager.flush();
+        entityManager.clear();
+
+        ClienteOutputResumenDto resumen = clienteRepository.findResumenById(idCliente).orElseThrow();
+
+        assertEquals(2, resumen.getTotalPedidos());
+        assertNotNull(resumen.getPrimerPedido());
+        assertFalse(resumen.getUltimoPedido().isBefore(resumen.getPrimerPedido()));
+        assertEquals(1, contarSentencias(() -> clienteRepository.findResumenById(idCliente)));
+        // Un cliente sin pedidos aparece con total 0 y sin fechas
+        ClienteOutputResumenDto vacio = clienteRepository.findResumenById(sinPedidos.getIdCliente()).orElseThrow();
+        assertEquals(0, vacio.getTotalPedidos());
+        assertNull(vacio.getUltimoPedido());
+        assertTrue(clienteRepository.findResumenById(-1L).isEmpty());
+    }
+
+    // Test que comprueba que el borrado directo del cliente es una sentencia DELETE sin cargar la entidad
+    @Test
+    void testBulkDeleteByIdIsOneStatement() {
+        Long idCliente = clienteRepository.findAll().get(0).getIdCliente();
+        // Los pedidos se borran antes por la clave ajena, igual que en el servicio
+        pedidoRepository.bulkDeleteByCliente(idCliente);
+        entityManager.clear();
+
+        statistics.clear();
+        assertEquals(1, clienteRepository.bulkDeleteById(idCliente));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        // Sobre una fila que ya no existe el recuento es 0
+        assertEquals(0, clienteRepository.bulkDeleteById(idCliente));
+        assertEquals(2, clienteRepository.count());
+    }
+
+    // Test que comprueba que modificar un cliente gestionado es un único UPDATE que incrementa su versión
+    @Test
+    void testUpdateManagedClienteIsOneStatement() {
+        Cliente cliente = clienteRepository.findAll().get(0);
+        long version = cliente.getVersion();
+
+        cliente.setEmail("otro@gmail.com");
+        assertEquals(1, contarSentencias(() -> {
+            entityManager.flush();
+            return null;
+        }));
+        assertEquals(version + 1, cliente.getVersion());
+        // Sin cambios no se ejecuta ninguna sentencia
+        assertEquals(0, contarSentencias(() -> {
+            entityManager.flush();
+            return null;
+        }));
+    }
+
+    // Test que comprueba que los sparse fieldsets leen solo las propiedades pedidas, sin crear entidades
+    @Test
+    void testFindPageCamposSoloLeeLasPropiedadesPedidas() {
+        List<Map<String, Object>> clientes = clienteRepository.findPageCampos(List.of("idCliente", "dni"), null, null, 0L, 2);
+        assertEquals(2, clientes.size());
+        assertEquals(List.of("idCliente", "dni"), List.copyOf(clientes.get(0).keySet()));
+        assertEquals("10000000A", clientes.get(0).get("dni"));
+        assertTrue((Long) clientes.get(1).get("idCliente") > (Long) clientes.get(0).get("idCliente"));
+
+        assertEquals(1, contarSentencias(() -> clienteRepository.findPageCampos(List.of("nombre", "email"), null, null, 0L, 10)));
+        assertEquals(0, statistics.getEntityLoadCount());
+        // Un campo sin ruta no llega a la consulta (Spring traduce el IllegalArgumentException)
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> clienteRepository.findPageCampos(List.of("idCliente", "calle"), null, null, 0L, 10));
+    }
+
+    // Test que comprueba los listados filtrados por provincia y municipio y los conteos de las facetas
+    @Test
+    void testFiltrosPorProvinciaYMunicipio() {
+        Cliente sevilla = clienteRepository.save(new Cliente("20000000B", "Lucía", "Gómez", "lucia@gmail.com",
+                "Calle Sierpes", "Dos Hermanas", "Sevilla"));
+        entityManager.flush();
+
+        assertEquals(3, clienteRepository.findByProvinciaAndIdClienteGreaterThanOrderByIdClienteAsc("Madrid", 0L, Limit.of(10)).size());
+        assertEquals(List.of(sevilla.getIdCliente()), clienteRepository
+                .findByMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc("Dos Hermanas", 0L, Limit.of(10))
+                .stream().map(Cliente::getIdCliente).toList());
+        assertTrue(clienteRepository.findByProvinciaAndMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc(
+                "Madrid", "Dos Hermanas", 0L, Limit.of(10)).isEmpty());
+
+        List<Map<String, Object>> filas = clienteRepository.findPageCampos(List.of("idCliente", "dni"), "Sevilla", "Dos Hermanas", 0L, 10);
+        assertEquals(List.of(Map.of("idCliente", sevilla.getIdCliente(), "dni", "20000000B")), filas);
+
+        Map<String, Long> conteos = clienteRepository.countByProvinciaAndMunicipio().stream()
+                .collect(Collectors.toMap(f -> f[0] + "/" + f[1], f -> (Long) f[2]));
+        assertEquals(Map.of("Madrid/Madrid", 3L, "Sevilla/Dos Hermanas", 1L), conteos);
+    }
+
+    // Test que comprueba que se puede proyectar cualquier propiedad del DTO del listado
+    @Test
+    void testRutasCubrenLasPropiedadesDelDto() {
+        assertEquals(Set.copyOf(FieldsUtils.propiedades(ClienteOutputDto.class)), ClienteRepositoryCustomImpl.RUTAS.keySet());
+    }
+}
@@ -0,0 +1,101 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que una base de datos creada antes de Flyway con ddl-auto: update se marca con la versión
+ * del esquema inicial (V1) y recibe el resto de migraciones: índices, columna version, contadores
+ * rellenados con los pedidos existentes, archivo y versiones de las tablas.
+ * Que el contexto arranque ya comprueba que Hibernate valida el esquema resultante (ddl-auto: validate).
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:EsquemaHibernateTest;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class MigracionDesdeEsquemaHibernateTest {
+
+    // Crea el esquema de ddl-auto: update antes de que Flyway migre la base de datos
+    @TestConfiguration
+    static class EsquemaPrevio {
+
+        @Bean
+        FlywayMigrationStrategy esquemaDdlAutoUpdate() {
+            return flyway -> {
+                new ResourceDatabasePopulator(new ClassPathResource("db/esquema-ddl-auto-update.sql"))
+                        .execute(flyway.getConfiguration().getDataSource());
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoDiarioRepository pedidoDiarioRepository;
+
+    // Test que comprueba que V1 no se ejecuta (se marca como línea base) y que se aplican las demás
+    @Test
+    void testSeMarcaV1YSeAplicanLasDemas() {
+        MigrationInfo[] aplicadas = flyway.info().applied();
+
+        assertEquals(MigrationState.BASELINE, aplicadas[0].getState());
+        assertEquals("1", aplicadas[0].getVersion().getVersion());
+        assertEquals(List.of("2", "3", "4"), Arrays.stream(aplicadas).skip(1)
+                .map(m -> m.getVersion().getVersion()).toList());
+        assertTrue(Arrays.stream(aplicadas).allMatch(m -> m.getState().isApplied() && !m.getState().isFailed()));
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    // Test que comprueba que los clientes existentes empiezan en la versión 0 y que los contadores
+    // por día se rellenan con los pedidos existentes
+    @Test
+    void testDatosExistentes() {
+        assertEquals(0L, clienteRepository.findById(1L).orElseThrow().getVersion());
+
+        LocalDate dia = LocalDate.of(2025, 4, 19);
+        assertEquals(List.of(new PedidosPorDiaDto(dia, 3), new PedidosPorDiaDto(dia.plusDays(1), 1)),
+                pedidoDiarioRepository.findPorDia(dia, dia.plusDays(1)));
+        assertEquals(List.of(new PedidosPorDiaDto(dia, 1)),
+                pedidoDiarioRepository.findPorDiaYCliente(2L, dia, dia.plusDays(1)));
+    }
+
+    // Test que comprueba que se crean los índices que usan las consultas de los repositorios
+    @Test
+    void testIndices() {
+        List<String> indices = jdbcTemplate.queryForList(
+                "select lower(index_name) from information_schema.indexes where lower(index_name) like 'idx_%'",
+                String.class);
+
+        assertTrue(indices.containsAll(List.of("idx_cliente_provincia", "idx_cliente_municipio",
+                "idx_cliente_provincia_municipio", "idx_pedidos_fecha", "idx_pedidos_cliente_fecha",
+                "idx_pedidos_cliente_numpedido", "idx_pedidosdiacliente_cliente_fecha",
+                "idx_pedidosarchivo_fecha", "idx_pedidosarchivo_cliente_numpedido")), indices.toString());
+    }
+}
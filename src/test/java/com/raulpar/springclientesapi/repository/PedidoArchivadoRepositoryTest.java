@@ -0,0 +1,168 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+import com.raulpar.springclientesapi.model.PedidoArchivado;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que el archivado mueve los pedidos antiguos por lotes de Pedidos a PedidosArchivo
+ * y que se pueden seguir consultando y contando desde el archivo.
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class PedidoArchivadoRepositoryTest {
+
+    private static final LocalDateTime LIMITE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private PedidoDiarioRepository pedidoDiarioRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long idCliente;
+    private final List<Long> antiguos = new ArrayList<>();
+    private Long reciente;
+
+    // Crea un cliente con 5 pedidos anteriores al límite (uno por día) y uno posterior
+    @BeforeEach
+    void setUp() {
+        Cliente cliente = clienteRepository.save(new Cliente("10000001A", "Nombre1", "Apellido1",
+                "cliente1@gmail.com", "Calle 1", "Madrid", "Madrid"));
+        idCliente = cliente.getIdCliente();
+        for (int i = 5; i >= 1; i--) {
+            antiguos.add(crearPedido(cliente, LIMITE.minusDays(i)));
+        }
+        reciente = crearPedido(cliente, LIMITE.plusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // La fecha de creación la asigna Hibernate, así que se cambia después con una sentencia UPDATE
+    private Long crearPedido(Cliente cliente, LocalDateTime fecha) {
+        Long numPedido = pedidoRepository.saveAndFlush(new Pedido(cliente)).getNumPedido();
+        jdbcTemplate.update("update Pedidos set fecha = ? where numPedido = ?", Timestamp.valueOf(fecha), numPedido);
+        return numPedido;
+    }
+
+    // Test que comprueba que se archivan primero los pedidos más antiguos, sin pasar de maxFilas por lote
+    @Test
+    void testArchivarLote() {
+        assertEquals(2, pedidoArchivadoRepository.archivarLote(LIMITE, 2));
+        assertEquals(antiguos.subList(0, 2), pedidoArchivadoRepository.findAll().stream()
+                .map(PedidoArchivado::getNumPedido).sorted().toList());
+
+        assertEquals(3, pedidoArchivadoRepository.archivarLote(LIMITE, 5));
+        assertEquals(0, pedidoArchivadoRepository.archivarLote(LIMITE, 5));
+
+        assertEquals(List.of(reciente), pedidoRepository.findAllDtos().stream().map(PedidoDto::getNumPedido).toList());
+        assertEquals(5, pedidoArchivadoRepository.count());
+    }
+
+    // Test que comprueba que un pedido archivado conserva su número, su cliente y su fecha
+    @Test
+    void testConsultasDelArchivo() {
+        pedidoArchivadoRepository.archivarLote(LIMITE, 10);
+
+        PedidoDto pedido = pedidoArchivadoRepository.findDtoById(antiguos.get(0)).orElseThrow();
+        assertEquals(new PedidoDto(antiguos.get(0), idCliente, LIMITE.minusDays(5)), pedido);
+        assertTrue(pedidoRepository.findDtoById(antiguos.get(0)).isEmpty());
+
+        LocalDate dia = LIMITE.minusDays(3).toLocalDate();
+        assertEquals(List.of(antiguos.get(2)), pedidoArchivadoRepository
+                .findDtoByFechaBetween(dia.atStartOfDay(), dia.atTime(LocalTime.MAX)).stream()
+                .map(PedidoDto::getNumPedido).toList());
+
+        assertEquals(5, pedidoArchivadoRepository.bulkDeleteByCliente(idCliente));
+    }
+
+    // Test que comprueba las páginas por cursor y el resumen de los pedidos archivados de un cliente
+    @Test
+    void testPaginasYResumenDelArchivo() {
+        pedidoArchivadoRepository.archivarLote(LIMITE, 3);
+
+        assertEquals(antiguos.subList(1, 3), pedidoArchivadoRepository
+                .findDtoPageByCliente(idCliente, antiguos.get(0), Limit.of(10)).stream()
+                .map(PedidoDto::getNumPedido).toList());
+        // [desde, hasta): el día de hasta queda fuera
+        assertEquals(List.of(antiguos.get(1)), pedidoArchivadoRepository
+                .findDtoPageByFecha(LIMITE.minusDays(4), LIMITE.minusDays(3), 0L, Limit.of(10)).stream()
+                .map(PedidoDto::getNumPedido).toList());
+
+        Object[] resumen = pedidoArchivadoRepository.findResumenByCliente(idCliente).get(0);
+        assertEquals(3L, resumen[0]);
+        assertEquals(LIMITE.minusDays(5), resumen[1]);
+        assertEquals(LIMITE.minusDays(3), resumen[2]);
+        assertEquals(0L, pedidoArchivadoRepository.findResumenByCliente(-1L).get(0)[0]);
+    }
+
+    // Test que comprueba los recorridos del listado y la exportación sobre el archivo, ordenados por número de pedido
+    @Test
+    void testListadoDelArchivo() {
+        pedidoArchivadoRepository.archivarLote(LIMITE, 3);
+
+        assertEquals(antiguos.subList(0, 3), pedidoArchivadoRepository.findAllDtos().stream()
+                .map(PedidoDto::getNumPedido).toList());
+        assertEquals(antiguos.subList(1, 3), pedidoArchivadoRepository.findDtoPage(antiguos.get(0), Limit.of(10)).stream()
+                .map(PedidoDto::getNumPedido).toList());
+        try (Stream<PedidoDto> pedidos = pedidoArchivadoRepository.streamAllDtos()) {
+            assertEquals(antiguos.subList(0, 3), pedidos.map(PedidoDto::getNumPedido).toList());
+        }
+
+        List<Map<String, Object>> filas = pedidoArchivadoRepository.findPageCampos(List.of("numPedido", "idCliente"), 0L, 2);
+        assertEquals(List.of(Map.of("numPedido", antiguos.get(0), "idCliente", idCliente),
+                Map.of("numPedido", antiguos.get(1), "idCliente", idCliente)), filas);
+        // Las rutas del archivo cubren las mismas propiedades que las de la tabla de pedidos
+        assertEquals(PedidoRepositoryCustomImpl.RUTAS.keySet(), PedidoArchivadoRepositoryCustomImpl.RUTAS.keySet());
+    }
+
+    // Test que comprueba que el recálculo de los contadores también cuenta los pedidos archivados
+    @Test
+    void testReconstruirConArchivo() {
+        pedidoArchivadoRepository.archivarLote(LIMITE, 3);
+
+        pedidoDiarioRepository.reconstruir();
+
+        LocalDate desde = LIMITE.minusDays(5).toLocalDate();
+        LocalDate hasta = LIMITE.plusDays(1).toLocalDate();
+        assertEquals(6, pedidoDiarioRepository.findPorDia(desde, hasta).stream()
+                .mapToLong(PedidosPorDiaDto::getTotal).sum());
+        assertEquals(6, pedidoDiarioRepository.findPorDiaYCliente(idCliente, desde, hasta).size());
+    }
+}
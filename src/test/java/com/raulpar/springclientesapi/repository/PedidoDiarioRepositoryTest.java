@@ -0,0 +1,108 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+import com.raulpar.springclientesapi.model.PedidoDiarioCliente;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba el mantenimiento incremental de los contadores de pedidos por día
+ * y que coinciden con un recálculo completo a partir de la tabla de pedidos.
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class PedidoDiarioRepositoryTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 4, 19);
+
+    @Autowired
+    private PedidoDiarioRepository pedidoDiarioRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private Long idCliente1;
+    private Long idCliente2;
+
+    // Crea 2 clientes
+    @BeforeEach
+    void setUp() {
+        idCliente1 = clienteRepository.save(new Cliente("10000001A", "Nombre1", "Apellido1",
+                "cliente1@gmail.com", "Calle 1", "Madrid", "Madrid")).getIdCliente();
+        idCliente2 = clienteRepository.save(new Cliente("10000002A", "Nombre2", "Apellido2",
+                "cliente2@gmail.com", "Calle 2", "Madrid", "Madrid")).getIdCliente();
+    }
+
+    // Test que comprueba que los deltas se acumulan por día y por cliente, y que los días a cero no se devuelven
+    @Test
+    void testSumar() {
+        pedidoDiarioRepository.sumar(Map.of(
+                new PedidoDiarioCliente.Clave(DIA, idCliente1), 2L,
+                new PedidoDiarioCliente.Clave(DIA, idCliente2), 1L,
+                new PedidoDiarioCliente.Clave(DIA.plusDays(1), idCliente1), 1L));
+        pedidoDiarioRepository.sumar(Map.of(new PedidoDiarioCliente.Clave(DIA, idCliente1), 1L));
+        pedidoDiarioRepository.sumar(Map.of(new PedidoDiarioCliente.Clave(DIA.plusDays(1), idCliente1), -1L));
+
+        assertEquals(List.of(new PedidosPorDiaDto(DIA, 4)),
+                pedidoDiarioRepository.findPorDia(DIA, DIA.plusDays(1)));
+        assertEquals(List.of(new PedidosPorDiaDto(DIA, 3)),
+                pedidoDiarioRepository.findPorDiaYCliente(idCliente1, DIA, DIA.plusDays(1)));
+    }
+
+    // Test que comprueba que al descontar un cliente se restan sus pedidos del total del día
+    @Test
+    void testRestarCliente() {
+        pedidoDiarioRepository.sumar(Map.of(
+                new PedidoDiarioCliente.Clave(DIA, idCliente1), 2L,
+                new PedidoDiarioCliente.Clave(DIA, idCliente2), 1L));
+
+        pedidoDiarioRepository.restarCliente(idCliente1);
+
+        assertEquals(List.of(new PedidosPorDiaDto(DIA, 1)), pedidoDiarioRepository.findPorDia(DIA, DIA));
+        assertTrue(pedidoDiarioRepository.findPorDiaYCliente(idCliente1, DIA, DIA).isEmpty());
+    }
+
+    // Test que comprueba que el recálculo completo coincide con los pedidos almacenados
+    @Test
+    void testReconstruir() {
+        Cliente cliente1 = clienteRepository.getReferenceById(idCliente1);
+        Cliente cliente2 = clienteRepository.getReferenceById(idCliente2);
+        pedidoRepository.batchInsert(List.of(
+                pedidoConFecha(cliente1, DIA, 9),
+                pedidoConFecha(cliente1, DIA, 23),
+                pedidoConFecha(cliente2, DIA, 12),
+                pedidoConFecha(cliente2, DIA.plusDays(1), 0)));
+        // Contadores desviados que el recálculo debe corregir
+        pedidoDiarioRepository.sumar(Map.of(new PedidoDiarioCliente.Clave(DIA.minusDays(1), idCliente1), 5L));
+
+        pedidoDiarioRepository.reconstruir();
+
+        assertEquals(List.of(new PedidosPorDiaDto(DIA, 3), new PedidosPorDiaDto(DIA.plusDays(1), 1)),
+                pedidoDiarioRepository.findPorDia(DIA.minusDays(1), DIA.plusDays(1)));
+        assertEquals(List.of(new PedidosPorDiaDto(DIA, 1), new PedidosPorDiaDto(DIA.plusDays(1), 1)),
+                pedidoDiarioRepository.findPorDiaYCliente(idCliente2, DIA, DIA.plusDays(1)));
+    }
+
+    private Pedido pedidoConFecha(Cliente cliente, LocalDate dia, int hora) {
+        Pedido pedido = new Pedido(cliente);
+        pedido.setFecha(dia.atTime(hora, 0));
+        return pedido;
+    }
+}
@@ -0,0 +1,190 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+import com.raulpar.springclientesapi.util.FieldsUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que los listados de pedidos se resuelven con una única sentencia SQL,
+ * sin consultas adicionales para cargar los clientes (problema N+1).
+ * También comprueba que los borrados son una sola sentencia, sin lecturas previas.
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class PedidoRepositoryQueryCountTest {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // Crea 3 clientes con 2 pedidos cada uno y vacía el contexto de persistencia
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Cliente cliente = clienteRepository.save(new Cliente("1000000" + i + "A", "Nombre" + i, "Apellido" + i,
+                    "cliente" + i + "@gmail.com", "Calle " + i, "Madrid", "Madrid"));
+            pedidoRepository.save(new Pedido(cliente));
+            pedidoRepository.save(new Pedido(cliente));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Ejecuta la consulta y devuelve cuántas sentencias SQL se han preparado
+    private <T> long contarSentencias(Supplier<T> consulta) {
+        statistics.clear();
+        consulta.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testFindAllDtosIsOneStatement() {
+        List<PedidoDto> pedidos = pedidoRepository.findAllDtos();
+
+        assertEquals(6, pedidos.size());
+        assertTrue(pedidos.stream().allMatch(p -> p.getIdCliente() != null && p.getFecha() != null));
+        assertEquals(1, contarSentencias(pedidoRepository::findAllDtos));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindDtoByFechaBetweenIsOneStatement() {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        assertEquals(6, pedidoRepository.findDtoByFechaBetween(ahora.minusDays(1), ahora.plusDays(1)).size());
+        assertEquals(1, contarSentencias(() -> pedidoRepository.findDtoByFechaBetween(ahora.minusDays(1), ahora.plusDays(1))));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindDtoPageIsOneStatement() {
+        List<PedidoDto> pagina = pedidoRepository.findDtoPage(0L, Limit.of(4));
+
+        assertEquals(4, pagina.size());
+        assertEquals(1, contarSentencias(() -> pedidoRepository.findDtoPage(0L, Limit.of(4))));
+    }
+
+    @Test
+    void testFindDtoByIdIsOneStatement() {
+        Long numPedido = pedidoRepository.findAllDtos().get(0).getNumPedido();
+
+        assertTrue(pedidoRepository.findDtoById(numPedido).isPresent());
+        assertEquals(1, contarSentencias(() -> pedidoRepository.findDtoById(numPedido)));
+    }
+
+    // Test que comprueba que el listado por rango de fechas usa una sola sentencia y respeta los límites del rango
+    @Test
+    void testFindDtoPageByFechaIsOneStatement() {
+        Cliente cliente = clienteRepository.findAll().get(0);
+        LocalDate dia = LocalDate.of(2025, 4, 19);
+        // Pedidos con fecha explícita: 2 el día 19, 1 el día 20 y 1 fuera del rango
+        List<Pedido> pedidos = List.of(
+                pedidoConFecha(cliente, dia.atTime(9, 0)),
+                pedidoConFecha(cliente, dia.atTime(23, 59)),
+                pedidoConFecha(cliente, dia.plusDays(1).atTime(0, 0)),
+                pedidoConFecha(cliente, dia.plusDays(2).atTime(12, 0)));
+        pedidoRepository.batchInsert(pedidos);
+
+        LocalDateTime desde = dia.atStartOfDay();
+        LocalDateTime hasta = dia.plusDays(2).atStartOfDay();
+
+        assertEquals(3, pedidoRepository.findDtoPageByFecha(desde, hasta, 0L, Limit.of(10)).size());
+        assertEquals(1, contarSentencias(() -> pedidoRepository.findDtoPageByFecha(desde, hasta, 0L, Limit.of(10))));
+    }
+
+    // Test que comprueba que los pedidos de un cliente se paginan con una sola sentencia y sin cargar el cliente
+    @Test
+    void testFindDtoPageByClienteIsOneStatement() {
+        Long idCliente = clienteRepository.findAll().get(1).getIdCliente();
+
+        List<PedidoDto> primera = pedidoRepository.findDtoPageByCliente(idCliente, 0L, Limit.of(1));
+        List<PedidoDto> segunda = pedidoRepository.findDtoPageByCliente(idCliente, primera.get(0).getNumPedido(), Limit.of(10));
+
+        assertEquals(1, primera.size());
+        assertEquals(1, segunda.size());
+        assertTrue(segunda.get(0).getNumPedido() > primera.get(0).getNumPedido());
+        assertTrue(segunda.stream().allMatch(p -> idCliente.equals(p.getIdCliente())));
+        assertEquals(1, contarSentencias(() -> pedidoRepository.findDtoPageByCliente(idCliente, 0L, Limit.of(10))));
+    }
+
+    // Test que comprueba que los borrados directos son una sentencia DELETE sin cargar entidades
+    @Test
+    void testBulkDeletesAreOneStatement() {
+        Long idCliente = clienteRepository.findAll().get(0).getIdCliente();
+        Long numPedido = pedidoRepository.findAllDtos().stream()
+                .filter(p -> !idCliente.equals(p.getIdCliente())).findFirst().orElseThrow().getNumPedido();
+        entityManager.clear();
+
+        statistics.clear();
+        assertEquals(2, pedidoRepository.bulkDeleteByCliente(idCliente));
+        assertEquals(1, pedidoRepository.bulkDeleteById(numPedido));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        // Sobre filas que ya no existen el recuento es 0
+        assertEquals(0, pedidoRepository.bulkDeleteByCliente(idCliente));
+        assertEquals(0, pedidoRepository.bulkDeleteById(numPedido));
+        assertEquals(3, pedidoRepository.count());
+    }
+
+    // Test que comprueba que los sparse fieldsets leen solo las propiedades pedidas, sin crear entidades
+    @Test
+    void testFindPageCamposSoloLeeLasPropiedadesPedidas() {
+        List<Map<String, Object>> pedidos = pedidoRepository.findPageCampos(List.of("numPedido", "fecha"), 0L, 10);
+        assertEquals(6, pedidos.size());
+        assertEquals(List.of("numPedido", "fecha"), List.copyOf(pedidos.get(0).keySet()));
+        assertInstanceOf(LocalDateTime.class, pedidos.get(0).get("fecha"));
+
+        assertEquals(1, contarSentencias(() -> pedidoRepository.findPageCampos(List.of("numPedido", "idCliente"), 0L, 10)));
+        assertEquals(0, statistics.getEntityLoadCount());
+        // Un campo sin ruta no llega a la consulta (Spring traduce el IllegalArgumentException)
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> pedidoRepository.findPageCampos(List.of("numPedido", "cliente"), 0L, 10));
+    }
+
+    // Test que comprueba que se puede proyectar cualquier propiedad del DTO del listado
+    @Test
+    void testRutasCubrenLasPropiedadesDelDto() {
+        assertEquals(Set.copyOf(FieldsUtils.propiedades(PedidoDto.class)), PedidoRepositoryCustomImpl.RUTAS.keySet());
+    }
+
+    private Pedido pedidoConFecha(Cliente cliente, LocalDateTime fecha) {
+        Pedido pedido = new Pedido(cliente);
+        pedido.setFecha(fecha);
+        return pedido;
+    }
+}
@@ -0,0 +1,249 @@
+package com.raulpar.springclientesapi.repository;
+
+import com.raulpar.springclientesapi.model.Cliente;
+import com.raulpar.springclientesapi.model.Pedido;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ejecuta EXPLAIN sobre el SQL de cada consulta de los repositorios y falla si alguna consulta de uso
+ * frecuente recorre una tabla entera, o no usa el índice que le corresponde.
+ * El esquema es el de las migraciones de Flyway, así que también comprueba que las migraciones
+ * crean los índices que necesitan las consultas.
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.raulpar.springclientesapi.repository.PlanesConsultasTest$Sentencias")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class PlanesConsultasTest {
+
+    // Consultas que recorren la tabla entera a propósito: exportaciones, construcción de cachés
+    // y recálculo de contadores. No se ejecutan en cada petición
+    private static final Set<String> RECORRIDOS_COMPLETOS = Set.of(
+            "findAllDtos", "streamAllDtos", "streamAllDetailDtos", "countByProvinciaAndMunicipio", "reconstruir");
+
+    // Escrituras con JdbcTemplate (inserciones por lotes, contadores por clave primaria y archivado):
+    // no pasan por Hibernate. La selección de cada lote del archivado se comprueba aparte
+    private static final Set<String> ESCRITURAS_JDBC = Set.of("batchInsert", "sumar", "restarCliente", "archivarLote");
+
+    // Índice único del DNI, con el nombre que le daba Hibernate en el esquema inicial (V1)
+    private static final String UK_DNI = "UKQD514PD71J0T1MABYVI78Q977";
+
+    // En el plan de H2 cada tabla lleva un comentario con el índice usado y, si lo hay, la condición sobre él
+    private static final Pattern ACCESO = Pattern.compile("/\\* PUBLIC\\.([A-Z0-9_.]+?)(\\.tableScan)?(:[^*]*)? \\*/");
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoDiarioRepository pedidoDiarioRepository;
+
+    @Autowired
+    private PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Guarda el SQL que genera Hibernate para poder ejecutar EXPLAIN sobre él.
+     */
+    public static class Sentencias implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    private record Consulta(String metodo, String indice, Runnable ejecucion) {
+    }
+
+    private Long idCliente;
+    private Long numPedido;
+
+    // Crea un cliente con dos pedidos, para que las consultas devuelvan filas
+    @BeforeEach
+    void setUp() {
+        Cliente cliente = clienteRepository.save(new Cliente("10000000A", "Nombre", "Apellido",
+                "cliente@gmail.com", "Calle 1", "Getafe", "Madrid"));
+        idCliente = cliente.getIdCliente();
+        numPedido = pedidoRepository.save(new Pedido(cliente)).getNumPedido();
+        pedidoRepository.save(new Pedido(cliente));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Consultas de uso frecuente y el índice que debe usar cada una sobre su tabla principal
+    private List<Consulta> consultasFrecuentes() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate hoy = LocalDate.now();
+        return List.of(
+                new Consulta("findByDni", UK_DNI, () -> clienteRepository.findByDni("10000000A")),
+                new Consulta("findByIdClienteGreaterThanOrderByIdClienteAsc", "PRIMARY_KEY",
+                        () -> clienteRepository.findByIdClienteGreaterThanOrderByIdClienteAsc(0L, Limit.of(50))),
+                new Consulta("findByProvinciaAndIdClienteGreaterThanOrderByIdClienteAsc", "IDX_CLIENTE_PROVINCIA",
+                        () -> clienteRepository.findByProvinciaAndIdClienteGreaterThanOrderByIdClienteAsc("Madrid", 0L, Limit.of(50))),
+                new Consulta("findByMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc", "IDX_CLIENTE_MUNICIPIO",
+                        () -> clienteRepository.findByMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc("Getafe", 0L, Limit.of(50))),
+                new Consulta("findByProvinciaAndMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc", null,
+                        () -> clienteRepository.findByProvinciaAndMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc(
+                                "Madrid", "Getafe", 0L, Limit.of(50))),
+                new Consulta("findVersionById", "PRIMARY_KEY", () -> clienteRepository.findVersionById(idCliente)),
+                new Consulta("findExistingDnis", UK_DNI, () -> clienteRepository.findExistingDnis(List.of("10000000A", "20000000B"))),
+                new Consulta("findExistingIds", "PRIMARY_KEY", () -> clienteRepository.findExistingIds(List.of(idCliente, 99L))),
+                new Consulta("findResumenById", "PRIMARY_KEY", () -> clienteRepository.findResumenById(idCliente)),
+                // Igual que en los borrados por cliente, H2 puede elegir el índice de la clave ajena
+                new Consulta("findResumenByCliente", null, () -> pedidoArchivadoRepository.findResumenByCliente(idCliente)),
+                new Consulta("findDetailDtosByDniIn", UK_DNI, () -> clienteRepository.findDetailDtosByDniIn(List.of("10000000A"))),
+                new Consulta("findPageCampos", "PRIMARY_KEY", () -> {
+                    clienteRepository.findPageCampos(List.of("idCliente", "dni"), null, null, 0L, 50);
+                    pedidoRepository.findPageCampos(List.of("numPedido", "fecha"), 0L, 50);
+                    pedidoArchivadoRepository.findPageCampos(List.of("numPedido", "fecha"), 0L, 50);
+                }),
+                new Consulta("bulkDeleteById", "PRIMARY_KEY", () -> {
+                    pedidoRepository.bulkDeleteById(numPedido);
+                    clienteRepository.bulkDeleteById(-1L);
+                    pedidoArchivadoRepository.bulkDeleteById(numPedido);
+                }),
+                new Consulta("findDtoById", "PRIMARY_KEY", () -> {
+                    pedidoRepository.findDtoById(numPedido);
+                    pedidoArchivadoRepository.findDtoById(numPedido);
+                }),
+                new Consulta("findDtoByFechaBetween", "IDX_PEDIDOS_FECHA",
+                        () -> pedidoRepository.findDtoByFechaBetween(ahora.minusDays(1), ahora.plusDays(1))),
+                new Consulta("findDtoByFechaBetween", "IDX_PEDIDOSARCHIVO_FECHA",
+                        () -> pedidoArchivadoRepository.findDtoByFechaBetween(ahora.minusDays(1), ahora.plusDays(1))),
+                new Consulta("findDtoPage", "PRIMARY_KEY", () -> {
+                    pedidoRepository.findDtoPage(0L, Limit.of(50));
+                    pedidoArchivadoRepository.findDtoPage(0L, Limit.of(50));
+                }),
+                // Con ORDER BY numPedido y LIMIT el optimizador puede recorrer la clave primaria desde el cursor
+                // en lugar del índice por fecha; ambos son recorridos por rango
+                new Consulta("findDtoPageByFecha", null, () -> {
+                    pedidoRepository.findDtoPageByFecha(ahora.minusDays(1), ahora.plusDays(1), 0L, Limit.of(50));
+                    pedidoArchivadoRepository.findDtoPageByFecha(ahora.minusDays(1), ahora.plusDays(1), 0L, Limit.of(50));
+                }),
+                new Consulta("findDtoPageByCliente", "IDX_PEDIDOS_CLIENTE",
+                        () -> pedidoRepository.findDtoPageByCliente(idCliente, 0L, Limit.of(50))),
+                new Consulta("findDtoPageByCliente", "IDX_PEDIDOSARCHIVO_CLIENTE",
+                        () -> pedidoArchivadoRepository.findDtoPageByCliente(idCliente, 0L, Limit.of(50))),
+                // H2 crea su propio índice para la clave ajena (MySQL usa los de id_cliente): basta con que sea por índice
+                new Consulta("bulkDeleteByCliente", null, () -> {
+                    pedidoRepository.bulkDeleteByCliente(idCliente);
+                    pedidoArchivadoRepository.bulkDeleteByCliente(idCliente);
+                }),
+                new Consulta("findPorDia", "PRIMARY_KEY", () -> pedidoDiarioRepository.findPorDia(hoy.minusDays(30), hoy)),
+                new Consulta("findPorDiaYCliente", "IDX_PEDIDOSDIACLIENTE_CLIENTE_FECHA",
+                        () -> pedidoDiarioRepository.findPorDiaYCliente(idCliente, hoy.minusDays(30), hoy)));
+    }
+
+    // Test que comprueba que ninguna consulta frecuente recorre una tabla entera
+    @Test
+    void testConsultasFrecuentesUsanIndices() {
+        List<String> errores = new ArrayList<>();
+        for (Consulta consulta : consultasFrecuentes()) {
+            Sentencias.SQL.clear();
+            consulta.ejecucion().run();
+            assertFalse(Sentencias.SQL.isEmpty(), consulta.metodo() + " no ha ejecutado ninguna sentencia");
+
+            for (String sql : Sentencias.SQL) {
+                String plan = explain(sql);
+                Map<String, Boolean> accesos = accesos(plan);
+                if (accesos.isEmpty()) {
+                    errores.add(consulta.metodo() + ": plan sin accesos reconocibles\n" + plan);
+                } else if (accesos.containsValue(false)) {
+                    errores.add(consulta.metodo() + ": recorre una tabla entera\n" + plan);
+                } else if (consulta.indice() != null
+                        && accesos.keySet().stream().noneMatch(indice -> indice.startsWith(consulta.indice()))) {
+                    errores.add(consulta.metodo() + ": no usa " + consulta.indice() + "\n" + plan);
+                }
+            }
+        }
+        assertTrue(errores.isEmpty(), String.join("\n\n", errores));
+    }
+
+    // Test que comprueba que todas las consultas de los repositorios están clasificadas en esta prueba,
+    // de forma que una consulta nueva no se queda sin revisar su plan
+    @Test
+    void testTodasLasConsultasEstanRevisadas() {
+        Set<String> revisadas = new TreeSet<>(RECORRIDOS_COMPLETOS);
+        revisadas.addAll(ESCRITURAS_JDBC);
+        consultasFrecuentes().forEach(consulta -> revisadas.add(consulta.metodo()));
+
+        Set<String> declaradas = new TreeSet<>();
+        Stream.of(ClienteRepository.class, ClienteRepositoryCustom.class, PedidoRepository.class,
+                        PedidoRepositoryCustom.class, PedidoDiarioRepository.class, PedidoDiarioRepositoryCustom.class,
+                        PedidoArchivadoRepository.class, PedidoArchivadoRepositoryCustom.class)
+                .flatMap(repositorio -> Stream.of(repositorio.getDeclaredMethods()))
+                .filter(metodo -> !metodo.isSynthetic())
+                .map(Method::getName)
+                .forEach(declaradas::add);
+
+        declaradas.removeAll(revisadas);
+        assertTrue(declaradas.isEmpty(), "Consultas sin clasificar en PlanesConsultasTest: " + declaradas);
+    }
+
+    // Test que comprueba que la selección de cada lote del archivado recorre el índice por fecha
+    // y no la tabla de pedidos entera
+    @Test
+    void testLoteDelArchivadoUsaIndice() {
+        assertEquals(Map.of("IDX_PEDIDOS_FECHA", true),
+                accesos(explain(PedidoArchivadoRepositoryCustomImpl.SELECT_LOTE_SQL)));
+    }
+
+    // Test que comprueba que la detección de recorridos completos reconoce los planes de H2
+    @Test
+    void testDeteccionDeRecorridoCompleto() {
+        assertEquals(Map.of("CLIENTE", false), accesos(explain("select * from Cliente where email = ?")));
+        assertEquals(Map.of("IDX_PEDIDOS_FECHA", true), accesos(explain("select * from Pedidos where fecha > ?")));
+        assertFalse(accesos(explain("select * from Pedidos order by numPedido")).containsValue(true));
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    // Índice (o tabla, si no se usa ninguno) de cada acceso del plan y si se accede por una condición sobre él
+    private static Map<String, Boolean> accesos(String plan) {
+        Map<String, Boolean> accesos = new LinkedHashMap<>();
+        Matcher matcher = ACCESO.matcher(plan);
+        while (matcher.find()) {
+            accesos.put(matcher.group(1), matcher.group(2) == null && matcher.group(3) != null);
+        }
+        return accesos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.raulpar.springclientesapi.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que las versiones de las tablas se guardan en la base de datos, que cada cambio
+ * incrementa solo la versión de su tabla y que un cambio deshecho no la modifica.
+ * Se ejecuta sobre H2 en modo MySQL, sin necesidad de una base de datos externa.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(VersionesTablasRepository.class)
+class VersionesTablasRepositoryTest {
+
+    @Autowired
+    private VersionesTablasRepository versionesTablas;
+
+    // Test que comprueba que cada cambio incrementa solo la versión de su tabla
+    @Test
+    void testCambioIncrementaSuTabla() {
+        long clientes = Long.parseLong(versionesTablas.clientes());
+        long pedidos = Long.parseLong(versionesTablas.pedidos());
+
+        versionesTablas.cambioClientes();
+        versionesTablas.cambioClientes();
+        versionesTablas.cambioPedidos();
+
+        assertEquals(Long.toString(clientes + 2), versionesTablas.clientes());
+        assertEquals(Long.toString(pedidos + 1), versionesTablas.pedidos());
+    }
+
+    // Test que comprueba que el cambio se deshace junto con la transacción que lo hace
+    @Test
+    void testRollbackNoCambiaLaVersion() {
+        String antes = versionesTablas.pedidos();
+
+        versionesTablas.cambioPedidos();
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        assertEquals(antes, versionesTablas.pedidos());
+    }
+
+    // Test que comprueba que un cambio fuera de una transacción se rechaza
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testCambioSinTransaccion() {
+        assertThrows(IllegalTransactionStateException.class, () -> versionesTablas.cambioClientes());
+    }
+}
@@ -0,0 +1,88 @@
+package com.raulpar.springclientesapi.service.unit;
+
+import com.raulpar.springclientesapi.repository.PedidoArchivadoRepository;
+import com.raulpar.springclientesapi.repository.VersionesTablasRepository;
+import com.raulpar.springclientesapi.service.ArchivoPedidosService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ArchivoPedidosServiceUnitTest {
+
+    @Mock
+    private PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private VersionesTablasRepository versionesTablas;
+
+    private AutoCloseable mocks;
+
+    @InjectMocks
+    private ArchivoPedidosService archivoPedidosService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        // Cada lote se ejecuta directamente, como si estuviera en su propia transacción
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    // Test que comprueba que se archivan lotes completos hasta que uno sale incompleto, cada uno en su transacción
+    @Test
+    void testArchivarPorLotes() {
+        when(pedidoArchivadoRepository.archivarLote(any(LocalDateTime.class), eq(1000))).thenReturn(1000, 1000, 3);
+
+        assertEquals(2003, archivoPedidosService.archivar());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(versionesTablas, times(3)).cambioPedidos();
+    }
+
+    // Test que comprueba que el límite es la antigüedad configurada (365 días) y que sin pedidos no cambia nada
+    @Test
+    void testArchivarSinPedidos() {
+        LocalDateTime antes = LocalDateTime.now().minusDays(365);
+
+        assertEquals(0, archivoPedidosService.archivar());
+
+        verify(pedidoArchivadoRepository).archivarLote(
+                argThat(limite -> !limite.isBefore(antes) && limite.isBefore(antes.plusMinutes(1))), eq(1000));
+        verifyNoInteractions(versionesTablas);
+    }
+
+    // Test que comprueba que si se interrumpe el hilo se termina tras el lote en curso, conservando la interrupción
+    @Test
+    void testInterrupcion() {
+        when(pedidoArchivadoRepository.archivarLote(any(LocalDateTime.class), eq(1000))).thenReturn(1000);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals(1000, archivoPedidosService.archivar());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        verify(pedidoArchivadoRepository, times(1)).archivarLote(any(LocalDateTime.class), eq(1000));
+    }
+}
@@ -1,18 +1,47 @@
 package com.raulpar.springclientesapi.service.unit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raulpar.springclientesapi.cache.ClienteCache;
+import com.raulpar.springclientesapi.cache.FacetasClientes;
+import com.raulpar.springclientesapi.cache.IndiceBusquedaClientes;
+import com.raulpar.springclientesapi.dto.BulkResultDto;
 import com.raulpar.springclientesapi.dto.ClienteInputDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDetailDto;
 import com.raulpar.springclientesapi.dto.ClienteOutputDto;
+import com.raulpar.springclientesapi.dto.ClienteOutputResumenDto;
+import com.raulpar.springclientesapi.dto.ClientePatchDto;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
 import com.raulpar.springclientesapi.mapper.ClienteMapper;
 import com.raulpar.springclientesapi.model.Cliente;
 import com.raulpar.springclientesapi.repository.ClienteRepository;
+import com.raulpar.springclientesapi.repository.PedidoArchivadoRepository;
+import com.raulpar.springclientesapi.repository.PedidoDiarioRepository;
+import com.raulpar.springclientesapi.repository.PedidoRepository;
+import com.raulpar.springclientesapi.repository.VersionesTablasRepository;
 import com.raulpar.springclientesapi.service.ClienteService;
+import com.raulpar.springclientesapi.util.CursorUtils;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +59,37 @@ class ClienteServiceUnitTest {
     @Mock
     private ClienteMapper clienteMapper;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ClienteCache clienteCache;
+
+    @Mock
+    private PedidoDiarioRepository pedidoDiarioRepository;
+
+    @Mock
+    private VersionesTablasRepository versionesTablas;
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private IndiceBusquedaClientes indiceBusqueda;
+
+    @Mock
+    private FacetasClientes facetasClientes;
+
+    @Mock
+    private PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    // Instancias reales para leer el JSON y validar los DTOs en la importación masiva
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     private AutoCloseable mocks;
 
     // Crea una instancia real del servicio e inyecta el mock anterior
@@ -72,6 +132,61 @@ class ClienteServiceUnitTest {
         verify(clienteMapper, times(1)).toOutputList(clientesMock);
     }
 
+    // Test que comprueba que findPage pide una fila extra y devuelve el cursor de la siguiente página
+    @Test
+    void testFindPage_HasNext() {
+        List<Cliente> clientesMock = Arrays.asList(new Cliente(), new Cliente(), new Cliente());
+        List<ClienteOutputDto> dtos = Arrays.asList(
+                new ClienteOutputDto(11L, "12345678A", "Juan", "Pérez", "juan12@gmail.com"),
+                new ClienteOutputDto(12L, "87654321B", "Lucía", "Gómez", "lucia47@gmail.com"),
+                new ClienteOutputDto(13L, "11111111C", "Ana", "López", "ana@gmail.com")
+        );
+
+        when(clienteRepository.findByIdClienteGreaterThanOrderByIdClienteAsc(10L, Limit.of(3))).thenReturn(clientesMock);
+        when(clienteMapper.toOutputList(clientesMock)).thenReturn(dtos);
+
+        CursorPageDto<ClienteOutputDto> pagina = clienteService.findPage(10L, 2);
+
+        // Solo se devuelven 2 clientes y el cursor apunta al último devuelto
+        assertEquals(2, pagina.getItems().size());
+        assertEquals(CursorUtils.encode(12L), pagina.getNext());
+        verify(clienteRepository).findByIdClienteGreaterThanOrderByIdClienteAsc(10L, Limit.of(3));
+    }
+
+    // Test que comprueba que la última página no devuelve cursor
+    @Test
+    void testFindPage_LastPage() {
+        List<Cliente> clientesMock = List.of(new Cliente());
+        List<ClienteOutputDto> dtos = List.of(new ClienteOutputDto(1L, "12345678A", "Juan", "Pérez", "juan12@gmail.com"));
+
+        when(clienteRepository.findByIdClienteGreaterThanOrderByIdClienteAsc(0L, Limit.of(51))).thenReturn(clientesMock);
+        when(clienteMapper.toOutputList(clientesMock)).thenReturn(dtos);
+
+        CursorPageDto<ClienteOutputDto> pagina = clienteService.findPage(0L, 50);
+
+        assertEquals(1, pagina.getItems().size());
+        assertNull(pagina.getNext());
+    }
+
+    // Test que comprueba que cada combinación de filtros usa su consulta sobre el índice correspondiente
+    @Test
+    void testFindPage_Filtros() {
+        List<Cliente> clientesMock = List.of(new Cliente());
+        List<ClienteOutputDto> dtos = List.of(new ClienteOutputDto(5L, "12345678A", "Juan", "Pérez", "juan12@gmail.com"));
+        when(clienteMapper.toOutputList(clientesMock)).thenReturn(dtos);
+        when(clienteRepository.findByProvinciaAndIdClienteGreaterThanOrderByIdClienteAsc("Madrid", 0L, Limit.of(11)))
+                .thenReturn(clientesMock);
+        when(clienteRepository.findByMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc("Getafe", 0L, Limit.of(11)))
+                .thenReturn(clientesMock);
+        when(clienteRepository.findByProvinciaAndMunicipioAndIdClienteGreaterThanOrderByIdClienteAsc("Madrid", "Getafe", 0L, Limit.of(11)))
+                .thenReturn(clientesMock);
+
+        assertEquals(dtos, clienteService.findPage(0L, 10, "Madrid", null).getItems());
+        assertEquals(dtos, clienteService.findPage(0L, 10, null, "Getafe").getItems());
+        assertEquals(dtos, clienteService.findPage(0L, 10, "Madrid", "Getafe").getItems());
+        verify(clienteRepository, never()).findByIdClienteGreaterThanOrderByIdClienteAsc(anyLong(), any());
+    }
+
     // Test que comprueba que findById devuelve el cliente correcto
     @Test
     void testFindById() {
@@ -90,6 +205,140 @@ class ClienteServiceUnitTest {
         assertEquals("Juan", resultado.get().getNombre());
         verify(clienteRepository, times(1)).findById(1L);
         verify(clienteMapper).toDetailDto(cliente);
+        verify(clienteCache).put(dto);
+    }
+
+    // Test que comprueba que si el cliente está en caché no se consulta la base de datos
+    @Test
+    void testFindById_CacheHit() {
+        ClienteOutputDetailDto dto = new ClienteOutputDetailDto(
+                1L, "12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        when(clienteCache.getById(1L)).thenReturn(Optional.of(dto));
+
+        Optional<ClienteOutputDetailDto> resultado = clienteService.findById(1L);
+
+        assertTrue(resultado.isPresent());
+        assertSame(dto, resultado.get());
+        verify(clienteRepository, never()).findById(anyLong());
+        verify(clienteMapper, never()).toDetailDto(any());
+    }
+
+    // Test que comprueba que el resumen de pedidos se obtiene de la consulta agregada, sin pasar por la caché
+    @Test
+    void testFindById_ConResumen() {
+        ClienteOutputResumenDto resumen = new ClienteOutputResumenDto(1L, "12345678A", "Juan", "Pérez",
+                "juan@example.com", "Calle Mendez", "Madrid", "Madrid", 3, null, null);
+
+        when(clienteRepository.findResumenById(1L)).thenReturn(Optional.of(resumen));
+
+        Optional<ClienteOutputDetailDto> resultado = clienteService.findById(1L, true);
+
+        assertEquals(Optional.of(resumen), resultado);
+        verify(clienteRepository, never()).findById(anyLong());
+        verifyNoInteractions(clienteCache);
+    }
+
+    // Test que comprueba que el resumen suma los pedidos archivados y amplía las fechas
+    @Test
+    void testFindById_ConResumenYArchivo() {
+        LocalDateTime primero = LocalDateTime.of(2024, 1, 10, 9, 0);
+        LocalDateTime ultimo = LocalDateTime.of(2025, 4, 19, 18, 5);
+        ClienteOutputResumenDto resumen = new ClienteOutputResumenDto(1L, "12345678A", "Juan", "Pérez",
+                "juan@example.com", "Calle Mendez", "Madrid", "Madrid", 2, LocalDateTime.of(2025, 3, 1, 10, 0), ultimo);
+
+        when(clienteRepository.findResumenById(1L)).thenReturn(Optional.of(resumen));
+        when(pedidoArchivadoRepository.findResumenByCliente(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{4L, primero, LocalDateTime.of(2024, 6, 1, 12, 0)}));
+
+        ClienteOutputResumenDto resultado = (ClienteOutputResumenDto) clienteService.findById(1L, true).orElseThrow();
+
+        assertEquals(6, resultado.getTotalPedidos());
+        assertEquals(primero, resultado.getPrimerPedido());
+        assertEquals(ultimo, resultado.getUltimoPedido());
+    }
+
+    // Test que comprueba que al cambiar el DNI se invalidan en caché el DNI anterior y el nuevo
+    @Test
+    void testUpdate_EvictsOldAndNewDni() {
+        ClienteInputDto input = new ClienteInputDto("99999999Z", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        Cliente existente = new Cliente("12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        existente.setIdCliente(1L);
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(existente));
+        doAnswer(inv -> {
+            existente.setDni(input.getDni());
+            return null;
+        }).when(clienteMapper).updateEntity(input, existente);
+
+        clienteService.update(1L, input);
+
+        verify(clienteCache).evict(1L, "12345678A", "99999999Z");
+        verify(facetasClientes).mover("Madrid", "Madrid", "Madrid", "Madrid");
+    }
+
+    // Test que comprueba que la actualización modifica la entidad gestionada en lugar de hacer un merge
+    @Test
+    void testUpdate_ModifiesManagedEntity() {
+        ClienteInputDto input = new ClienteInputDto("12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        Cliente existente = new Cliente("12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        existente.setIdCliente(1L);
+        existente.setVersion(3L);
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(existente));
+
+        clienteService.update(1L, input, 3L);
+
+        verify(clienteMapper).updateEntity(input, existente);
+        verify(clienteRepository).flush();
+        verify(clienteRepository, never()).save(any());
+        verify(versionesTablas).cambioClientes();
+    }
+
+    // Test que comprueba que la actualización parcial solo aplica los campos recibidos
+    @Test
+    void testPatch() {
+        ClientePatchDto patch = new ClientePatchDto();
+        patch.setEmail("nuevo@gmail.com");
+        Cliente existente = new Cliente("12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        existente.setIdCliente(1L);
+        ClienteOutputDetailDto dto = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "nuevo@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid");
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(existente));
+        when(clienteMapper.toDetailDto(existente)).thenReturn(dto);
+
+        Optional<ClienteOutputDetailDto> resultado = clienteService.patch(1L, patch, null);
+
+        assertEquals(Optional.of(dto), resultado);
+        verify(clienteMapper).patchEntity(patch, existente);
+        verify(clienteCache).evict(1L, "12345678A", "12345678A");
+    }
+
+    // Test que comprueba que no se actualiza un cliente que ya no está en la versión esperada
+    @Test
+    void testUpdate_StaleVersion() {
+        ClienteInputDto input = new ClienteInputDto("12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        Cliente existente = new Cliente("12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid");
+        existente.setIdCliente(1L);
+        existente.setVersion(4L);
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(existente));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> clienteService.update(1L, input, 3L));
+        verify(clienteMapper, never()).updateEntity(any(), any());
+        verify(clienteRepository, never()).flush();
+        verifyNoInteractions(clienteCache, versionesTablas);
+    }
+
+    // Test que comprueba que la versión de un cliente en caché se devuelve sin consultar la base de datos
+    @Test
+    void testFindVersion_FromCache() {
+        ClienteOutputDetailDto dto = new ClienteOutputDetailDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com",
+                "Calle Mendez", "Madrid", "Madrid", 5L);
+        when(clienteCache.getById(1L)).thenReturn(Optional.of(dto));
+
+        assertEquals(Optional.of(5L), clienteService.findVersion(1L));
+        verifyNoInteractions(clienteRepository);
     }
 
     // Test para comprobar que se guarda correctamente un cliente
@@ -115,6 +364,8 @@ class ClienteServiceUnitTest {
         verify(clienteMapper).toEntity(input);
         verify(clienteRepository).save(clienteEntity);
         verify(clienteMapper).toDetailDto(clienteGuardado);
+        verify(indiceBusqueda).indexar(outputDto);
+        verify(facetasClientes).sumar("Madrid", "Madrid");
     }
 
     // Test que verifica que se elimina un cliente si existe
@@ -130,7 +381,7 @@ class ClienteServiceUnitTest {
         );
 
         when(clienteRepository.findById(id)).thenReturn(Optional.of(cliente));
-        doNothing().when(clienteRepository).deleteById(id);
+        when(clienteRepository.bulkDeleteById(id)).thenReturn(1);
         when(clienteMapper.toDetailDto(cliente)).thenReturn(dto);
 
         Optional<ClienteOutputDetailDto> resultado = clienteService.deleteById(id);
@@ -138,8 +389,16 @@ class ClienteServiceUnitTest {
         assertTrue(resultado.isPresent());
         assertEquals("Juan", resultado.get().getNombre());
         verify(clienteRepository, times(1)).findById(id);
-        verify(clienteRepository, times(1)).deleteById(id);
+        // Pedidos y cliente se borran con sentencias DELETE directas, sin cargar las entidades
+        verify(pedidoRepository).bulkDeleteByCliente(id);
+        verify(pedidoArchivadoRepository).bulkDeleteByCliente(id);
+        verify(clienteRepository, times(1)).bulkDeleteById(id);
+        verify(clienteRepository, never()).deleteById(anyLong());
         verify(clienteMapper, times(1)).toDetailDto(cliente);
+        verify(clienteCache).evict(id, "12345678A");
+        verify(pedidoDiarioRepository).restarCliente(id);
+        verify(indiceBusqueda).eliminar(id);
+        verify(facetasClientes).restar("Madrid", "Madrid");
     }
 
 
@@ -153,8 +412,24 @@ class ClienteServiceUnitTest {
 
         assertFalse(resultado.isPresent());
         verify(clienteRepository, times(1)).findById(id);
-        verify(clienteRepository, never()).deleteById(anyLong());
+        verify(clienteRepository, never()).bulkDeleteById(anyLong());
         verify(clienteMapper, never()).toDetailDto(any());
+        verify(pedidoDiarioRepository, never()).restarCliente(anyLong());
+        verifyNoInteractions(pedidoRepository);
+    }
+
+    // Test que comprueba que si otra petición borra el cliente entretanto no se devuelve como eliminado
+    @Test
+    void testDeleteById_ConcurrentDelete() {
+        Cliente cliente = new Cliente("12345678A", "Juan", "Pérez", "juan@example.com", "Calle Mendez", "Madrid", "Madrid");
+        cliente.setIdCliente(1L);
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteMapper.toDetailDto(cliente)).thenReturn(new ClienteOutputDetailDto());
+        when(clienteRepository.bulkDeleteById(1L)).thenReturn(0);
+
+        assertTrue(clienteService.deleteById(1L).isEmpty());
+        verifyNoInteractions(clienteCache, versionesTablas);
     }
 
 
@@ -177,4 +452,172 @@ class ClienteServiceUnitTest {
         verify(clienteRepository, times(1)).findByDni("12345678A");
         verify(clienteMapper, times(1)).toDetailDto(cliente);
     }
+
+    // Test que comprueba que la importación masiva inserta las filas válidas y rechaza las inválidas y duplicadas
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportBulk() throws Exception {
+        String json = """
+                [
+                  {"dni":"12345678A","nombre":"Juan","apellidos":"Pérez","email":"juan@gmail.com","calle":"Calle Mendez","municipio":"Madrid","provincia":"Madrid"},
+                  {"dni":"dni-mal","nombre":"Ana","apellidos":"López","email":"ana@gmail.com","calle":"Calle Sol","municipio":"Madrid","provincia":"Madrid"},
+                  {"dni":"87654321B","nombre":"Lucía","apellidos":"Gómez","email":"lucia@gmail.com","calle":"Calle Luna","municipio":"Sevilla","provincia":"Sevilla"},
+                  {"dni":"12345678A","nombre":"Juan","apellidos":"Pérez","email":"juan@gmail.com","calle":"Calle Mendez","municipio":"Madrid","provincia":"Madrid"}
+                ]
+                """;
+
+        // El mapper mockeado convierte cada DTO en una entidad con el mismo DNI
+        when(clienteMapper.toEntity(any(ClienteInputDto.class))).thenAnswer(inv -> {
+            ClienteInputDto dto = inv.getArgument(0);
+            return new Cliente(dto.getDni(), dto.getNombre(), dto.getApellidos(), dto.getEmail(),
+                    dto.getCalle(), dto.getMunicipio(), dto.getProvincia());
+        });
+        // La transacción ejecuta directamente el callback
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        // El DNI 87654321B ya existe en la base de datos
+        when(clienteRepository.findExistingDnis(anyCollection())).thenReturn(List.of("87654321B"));
+
+        BulkResultDto resultado = clienteService.importBulk(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, resultado.getProcesados());
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(3, resultado.getErrores().size());
+        assertEquals(List.of(1, 2, 3), resultado.getErrores().stream().map(e -> e.getIndice()).sorted().toList());
+
+        // Solo se inserta el cliente válido y nuevo, en un único lote
+        ArgumentCaptor<List<Cliente>> lote = ArgumentCaptor.forClass(List.class);
+        verify(clienteRepository, times(1)).batchInsert(lote.capture());
+        assertEquals(1, lote.getValue().size());
+        assertEquals("12345678A", lote.getValue().get(0).getDni());
+        // Los insertados se releen por DNI para añadirlos al índice de búsqueda
+        verify(clienteRepository).findDetailDtosByDniIn(List.of("12345678A"));
+        verify(facetasClientes).sumar("Madrid", "Madrid");
+    }
+
+    // Test que comprueba que un elemento mal formado se devuelve como error de su fila,
+    // detiene la lectura y conserva las filas anteriores
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportBulk_ElementoMalFormado() throws Exception {
+        String json = """
+                [
+                  {"dni":"12345678A","nombre":"Juan","apellidos":"Pérez","email":"juan@gmail.com","calle":"Calle Mendez","municipio":"Madrid","provincia":"Madrid"},
+                  {"dni":"87654321B","nombre":"Lucía", "apellidos":
+                  {"dni":"11111111C","nombre":"Ana","apellidos":"López","email":"ana@gmail.com","calle":"Calle Sol","municipio":"Madrid","provincia":"Madrid"}
+                ]
+                """;
+
+        when(clienteMapper.toEntity(any(ClienteInputDto.class))).thenAnswer(inv -> {
+            ClienteInputDto dto = inv.getArgument(0);
+            return new Cliente(dto.getDni(), dto.getNombre(), dto.getApellidos(), dto.getEmail(),
+                    dto.getCalle(), dto.getMunicipio(), dto.getProvincia());
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        when(clienteRepository.findExistingDnis(anyCollection())).thenReturn(List.of());
+
+        BulkResultDto resultado = clienteService.importBulk(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, resultado.getProcesados());
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(1, resultado.getErrores().size());
+        assertEquals(1, resultado.getErrores().get(0).getIndice());
+        assertTrue(resultado.getErrores().get(0).getMensaje().startsWith("JSON no válido"));
+        verify(clienteRepository, times(1)).batchInsert(anyList());
+    }
+
+    // Test que comprueba que un array sin cerrar se devuelve como error de la fila siguiente
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportBulk_ArrayIncompleto() throws Exception {
+        String json = """
+                [{"dni":"12345678A","nombre":"Juan","apellidos":"Pérez","email":"juan@gmail.com","calle":"Calle Mendez","municipio":"Madrid","provincia":"Madrid"}
+                """;
+
+        when(clienteMapper.toEntity(any(ClienteInputDto.class))).thenReturn(
+                new Cliente("12345678A", "Juan", "Pérez", "juan@gmail.com", "Calle Mendez", "Madrid", "Madrid"));
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        when(clienteRepository.findExistingDnis(anyCollection())).thenReturn(List.of());
+
+        BulkResultDto resultado = clienteService.importBulk(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(1, resultado.getErrores().size());
+        assertEquals(1, resultado.getErrores().get(0).getIndice());
+    }
+
+    // Test que comprueba que un cuerpo que no es un array sigue siendo un error de la petición
+    @Test
+    void testImportBulk_NoEsArray() {
+        assertThrows(IOException.class, () -> clienteService.importBulk(
+                new ByteArrayInputStream("{\"dni\":\"12345678A\"}".getBytes(StandardCharsets.UTF_8))));
+        verify(clienteRepository, never()).batchInsert(anyList());
+    }
+
+    // Test que comprueba que, si el lote choca con otra inserción concurrente, se reintenta fila a fila
+    // y solo la clave duplicada se informa como DNI existente
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportBulk_ReintentoFilaAFila() throws Exception {
+        String json = """
+                [
+                  {"dni":"12345678A","nombre":"Juan","apellidos":"Pérez","email":"juan@gmail.com","calle":"Calle Mendez","municipio":"Madrid","provincia":"Madrid"},
+                  {"dni":"87654321B","nombre":"Lucía","apellidos":"Gómez","email":"lucia@gmail.com","calle":"Calle Luna","municipio":"Sevilla","provincia":"Sevilla"},
+                  {"dni":"11111111C","nombre":"Ana","apellidos":"López","email":"ana@gmail.com","calle":"Calle Sol","municipio":"Madrid","provincia":"Madrid"}
+                ]
+                """;
+        ReflectionTestUtils.setField(clienteService, "bulkChunkSize", 10);
+
+        when(clienteMapper.toEntity(any(ClienteInputDto.class))).thenAnswer(inv -> {
+            ClienteInputDto dto = inv.getArgument(0);
+            return new Cliente(dto.getDni(), dto.getNombre(), dto.getApellidos(), dto.getEmail(),
+                    dto.getCalle(), dto.getMunicipio(), dto.getProvincia());
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(clienteRepository.findExistingDnis(anyCollection())).thenReturn(List.of());
+        // El lote completo falla; al reintentar, una fila choca con el DNI y otra con otra restricción
+        doThrow(new DataIntegrityViolationException("lote"))
+                .when(clienteRepository).batchInsert(argThat(l -> l.size() == 3));
+        doThrow(new DuplicateKeyException("dni"))
+                .when(clienteRepository).batchInsert(argThat(l -> l.size() == 1 && l.get(0).getDni().equals("87654321B")));
+        doThrow(new DataIntegrityViolationException("valor demasiado largo"))
+                .when(clienteRepository).batchInsert(argThat(l -> l.size() == 1 && l.get(0).getDni().equals("11111111C")));
+
+        BulkResultDto resultado = clienteService.importBulk(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, resultado.getProcesados());
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(2, resultado.getErrores().size());
+        assertEquals("Ya existe un cliente con este DNI", resultado.getErrores().get(0).getMensaje());
+        assertEquals("No se ha podido insertar el cliente: valor demasiado largo", resultado.getErrores().get(1).getMensaje());
+        verify(clienteRepository).findDetailDtosByDniIn(List.of("12345678A"));
+    }
+
+    // Test que comprueba que la búsqueda no responde hasta que el índice está construido
+    @Test
+    void testBuscar() {
+        when(indiceBusqueda.isListo()).thenReturn(false);
+        assertTrue(clienteService.buscar("juan", 0, 10).isEmpty());
+
+        ClienteOutputDto juan = new ClienteOutputDto(1L, "12345678A", "Juan", "Pérez", "juan@gmail.com");
+        when(indiceBusqueda.isListo()).thenReturn(true);
+        when(indiceBusqueda.buscar("juan", 10, 10)).thenReturn(new IndiceBusquedaClientes.Resultado(List.of(juan), true));
+
+        // El cursor de la página siguiente es la posición del siguiente resultado
+        CursorPageDto<ClienteOutputDto> pagina = clienteService.buscar("juan", 10, 10).orElseThrow();
+        assertEquals(List.of(juan), pagina.getItems());
+        assertEquals(20L, CursorUtils.decode(pagina.getNext()));
+        verifyNoInteractions(clienteRepository);
+    }
 }
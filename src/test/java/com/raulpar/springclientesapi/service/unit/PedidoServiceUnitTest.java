@@ -1,24 +1,42 @@
 package com.raulpar.springclientesapi.service.unit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raulpar.springclientesapi.dto.CursorPageDto;
+import com.raulpar.springclientesapi.dto.PedidoBulkResultDto;
 import com.raulpar.springclientesapi.dto.PedidoCreateDto;
 import com.raulpar.springclientesapi.dto.PedidoDto;
+import com.raulpar.springclientesapi.dto.PedidosPorDiaDto;
 import com.raulpar.springclientesapi.mapper.PedidoMapper;
 import com.raulpar.springclientesapi.model.Cliente;
 import com.raulpar.springclientesapi.model.Pedido;
+import com.raulpar.springclientesapi.model.PedidoDiarioCliente;
 import com.raulpar.springclientesapi.repository.ClienteRepository;
+import com.raulpar.springclientesapi.repository.PedidoArchivadoRepository;
+import com.raulpar.springclientesapi.repository.PedidoDiarioRepository;
 import com.raulpar.springclientesapi.repository.PedidoRepository;
+import com.raulpar.springclientesapi.repository.VersionesTablasRepository;
 import com.raulpar.springclientesapi.service.PedidoService;
+import com.raulpar.springclientesapi.util.CursorUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +53,22 @@ class PedidoServiceUnitTest {
     @Mock
     private PedidoMapper pedidoMapper;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PedidoDiarioRepository pedidoDiarioRepository;
+
+    @Mock
+    private VersionesTablasRepository versionesTablas;
+
+    @Mock
+    private PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    // ObjectMapper real para comprobar el formato NDJSON generado
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     private AutoCloseable mocks;
 
     // Crea una instancia real de PedidoService e inyecta el mock de pedidoRepository
@@ -52,38 +86,87 @@ class PedidoServiceUnitTest {
         mocks.close();
     }
 
-    // Test que verifica que findAll devuelve una lista de 2 pedidos
+    // Test que verifica que findAll devuelve los pedidos y los archivados ordenados por número de pedido
     @Test
     void testFindAll() {
-        List<Pedido> pedidosMock = Arrays.asList(new Pedido(), new Pedido());
-        List<PedidoDto> pedidosDto = Arrays.asList(new PedidoDto(), new PedidoDto());
-        when(pedidoRepository.findAll()).thenReturn(pedidosMock);
-        when(pedidoMapper.toDtoList(pedidosMock)).thenReturn(pedidosDto);
+        List<PedidoDto> pedidosDto = Arrays.asList(new PedidoDto(2L, 1L, null), new PedidoDto(4L, 1L, null));
+        when(pedidoRepository.findAllDtos()).thenReturn(pedidosDto);
+        when(pedidoArchivadoRepository.findAllDtos()).thenReturn(List.of(new PedidoDto(1L, 1L, null)));
 
         List<PedidoDto> pedidos = pedidoService.findAll();
 
-        assertEquals(2, pedidos.size());
-        verify(pedidoRepository, times(1)).findAll();
-        verify(pedidoMapper, times(1)).toDtoList(pedidosMock);
+        // La proyección devuelve directamente los DTOs, sin pasar por entidades ni mapper
+        assertEquals(List.of(1L, 2L, 4L), pedidos.stream().map(PedidoDto::getNumPedido).toList());
+        verify(pedidoRepository, times(1)).findAllDtos();
+        verify(pedidoMapper, never()).toDtoList(anyList());
+    }
+
+    // Test que verifica que findPage recorta la fila extra y genera el cursor siguiente
+    @Test
+    void testFindPage() {
+        List<PedidoDto> dtos = Arrays.asList(new PedidoDto(5L, 1L, null), new PedidoDto(6L, 1L, null));
+
+        when(pedidoRepository.findDtoPage(4L, Limit.of(2))).thenReturn(dtos);
+
+        CursorPageDto<PedidoDto> pagina = pedidoService.findPage(4L, 1);
+
+        assertEquals(1, pagina.getItems().size());
+        assertEquals(5L, pagina.getItems().get(0).getNumPedido());
+        assertEquals(CursorUtils.encode(5L), pagina.getNext());
+    }
+
+    // Test que verifica que las páginas del listado mezclan los pedidos archivados
+    @Test
+    void testFindPageMezclaArchivados() {
+        when(pedidoRepository.findDtoPage(0L, Limit.of(3)))
+                .thenReturn(List.of(new PedidoDto(4L, 1L, null), new PedidoDto(6L, 1L, null)));
+        when(pedidoArchivadoRepository.findDtoPage(0L, Limit.of(3)))
+                .thenReturn(List.of(new PedidoDto(1L, 1L, null), new PedidoDto(5L, 1L, null), new PedidoDto(7L, 1L, null)));
+
+        CursorPageDto<PedidoDto> pagina = pedidoService.findPage(0L, 2);
+
+        assertEquals(List.of(1L, 4L), pagina.getItems().stream().map(PedidoDto::getNumPedido).toList());
+        assertEquals(CursorUtils.encode(4L), pagina.getNext());
+    }
+
+    // Test que verifica que las páginas con parámetro fields también mezclan los pedidos archivados
+    @Test
+    void testFindPageCamposMezclaArchivados() {
+        List<String> campos = List.of("numPedido");
+        when(pedidoRepository.findPageCampos(campos, 0L, 3)).thenReturn(List.of(Map.of("numPedido", 3L)));
+        when(pedidoArchivadoRepository.findPageCampos(campos, 0L, 3)).thenReturn(List.of(Map.of("numPedido", 2L)));
+
+        CursorPageDto<Map<String, Object>> pagina = pedidoService.findPage(0L, 2, campos);
+
+        assertEquals(List.of(Map.of("numPedido", 2L), Map.of("numPedido", 3L)), pagina.getItems());
+        assertNull(pagina.getNext());
     }
 
     // Test que verifica el comportamiento al buscar un pedido por su ID
     @Test
     void testFindById() {
-        Pedido pedido = new Pedido();
-        pedido.setNumPedido(1L);
         PedidoDto pedidoDto = new PedidoDto();
         pedidoDto.setNumPedido(1L);
 
-        when(pedidoRepository.findById(1L)).thenReturn(Optional.of(pedido));
-        when(pedidoMapper.toDto(pedido)).thenReturn(pedidoDto);
+        when(pedidoRepository.findDtoById(1L)).thenReturn(Optional.of(pedidoDto));
 
         Optional<PedidoDto> resultado = pedidoService.findById(1L);
 
         assertTrue(resultado.isPresent());
         assertEquals(1L, resultado.get().getNumPedido());
-        verify(pedidoRepository, times(1)).findById(1L);
-        verify(pedidoMapper, times(1)).toDto(pedido);
+        verify(pedidoRepository, times(1)).findDtoById(1L);
+        verify(pedidoRepository, never()).findById(anyLong());
+        verifyNoInteractions(pedidoArchivadoRepository);
+    }
+
+    // Test que comprueba que un pedido que no está en la tabla de pedidos se busca en el archivo
+    @Test
+    void testFindById_Archivado() {
+        PedidoDto archivado = new PedidoDto(1L, 18L, LocalDateTime.of(2020, 4, 19, 10, 0));
+        when(pedidoRepository.findDtoById(1L)).thenReturn(Optional.empty());
+        when(pedidoArchivadoRepository.findDtoById(1L)).thenReturn(Optional.of(archivado));
+
+        assertEquals(Optional.of(archivado), pedidoService.findById(1L));
     }
 
     // Test para comprobar que el metodo save funciona correctamente
@@ -97,6 +180,7 @@ class PedidoServiceUnitTest {
 
         Pedido pedidoEntity = new Pedido();
         pedidoEntity.setNumPedido(1L);
+        pedidoEntity.setFecha(LocalDateTime.of(2025, 4, 19, 10, 0));
 
         PedidoDto savedDto = new PedidoDto();
         savedDto.setNumPedido(1L);
@@ -118,32 +202,61 @@ class PedidoServiceUnitTest {
         verify(pedidoMapper, times(1)).toEntity(pedidoCreateDto);
         verify(pedidoRepository, times(1)).save(pedidoEntity);
         verify(pedidoMapper, times(1)).toDto(pedidoEntity);
+        verify(pedidoDiarioRepository).sumar(Map.of(new PedidoDiarioCliente.Clave(LocalDate.of(2025, 4, 19), 18L), 1L));
     }
 
-    // Test para verificar que deleteById elimina un pedido si existe
+    // Test para verificar que deleteById elimina un pedido si existe y lo descuenta de los contadores
     @Test
     void testDeleteById_Exists() {
+        PedidoDto pedidoDto = new PedidoDto(1L, 18L, LocalDateTime.of(2025, 4, 19, 10, 0));
 
-        when(pedidoRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(pedidoRepository).deleteById(1L);
+        when(pedidoRepository.findDtoById(1L)).thenReturn(Optional.of(pedidoDto));
+        when(pedidoRepository.bulkDeleteById(1L)).thenReturn(1);
 
         boolean eliminado = pedidoService.deleteById(1L);
 
         assertTrue(eliminado);
-        verify(pedidoRepository, times(1)).existsById(1L);
-        verify(pedidoRepository, times(1)).deleteById(1L);
+        verify(pedidoRepository, times(1)).findDtoById(1L);
+        verify(pedidoRepository, times(1)).bulkDeleteById(1L);
+        verify(pedidoRepository, never()).deleteById(anyLong());
+        verify(pedidoDiarioRepository).sumar(Map.of(new PedidoDiarioCliente.Clave(LocalDate.of(2025, 4, 19), 18L), -1L));
     }
 
     // Test para verificar que deleteById devuelve false si el pedido no existe
     @Test
     void testDeleteById_NotExists() {
-        when(pedidoRepository.existsById(1L)).thenReturn(false);
+        when(pedidoRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
         boolean eliminado = pedidoService.deleteById(1L);
 
         assertFalse(eliminado);
-        verify(pedidoRepository, times(1)).existsById(1L);
-        verify(pedidoRepository, never()).deleteById(anyLong());
+        verify(pedidoRepository, times(1)).findDtoById(1L);
+        verify(pedidoRepository, never()).bulkDeleteById(anyLong());
+        verifyNoInteractions(pedidoDiarioRepository);
+    }
+
+    // Test para verificar que un pedido archivado se elimina del archivo y se descuenta de los contadores
+    @Test
+    void testDeleteById_Archivado() {
+        PedidoDto pedidoDto = new PedidoDto(1L, 18L, LocalDateTime.of(2020, 4, 19, 10, 0));
+        when(pedidoRepository.findDtoById(1L)).thenReturn(Optional.empty());
+        when(pedidoArchivadoRepository.findDtoById(1L)).thenReturn(Optional.of(pedidoDto));
+        when(pedidoArchivadoRepository.bulkDeleteById(1L)).thenReturn(1);
+
+        assertTrue(pedidoService.deleteById(1L));
+        verify(pedidoRepository, never()).bulkDeleteById(anyLong());
+        verify(pedidoDiarioRepository).sumar(Map.of(new PedidoDiarioCliente.Clave(LocalDate.of(2020, 4, 19), 18L), -1L));
+    }
+
+    // Test para verificar que un pedido borrado por otra petición entretanto no se descuenta dos veces
+    @Test
+    void testDeleteById_ConcurrentDelete() {
+        PedidoDto pedidoDto = new PedidoDto(1L, 18L, LocalDateTime.of(2025, 4, 19, 10, 0));
+        when(pedidoRepository.findDtoById(1L)).thenReturn(Optional.of(pedidoDto));
+        when(pedidoRepository.bulkDeleteById(1L)).thenReturn(0);
+
+        assertFalse(pedidoService.deleteById(1L));
+        verifyNoInteractions(pedidoDiarioRepository);
     }
 
     // Test para comprobar que se filtran los pedidos por una fecha dada
@@ -153,16 +266,224 @@ class PedidoServiceUnitTest {
         LocalDateTime desde = fecha.atStartOfDay();
         LocalDateTime hasta = fecha.atTime(LocalTime.MAX);
 
-        List<Pedido> pedidosMock = Arrays.asList(new Pedido(), new Pedido());
         List<PedidoDto> dtoMock = Arrays.asList(new PedidoDto(), new PedidoDto());
 
-        when(pedidoRepository.findByFechaBetween(desde, hasta)).thenReturn(pedidosMock);
-        when(pedidoMapper.toDtoList(pedidosMock)).thenReturn(dtoMock);
+        when(pedidoRepository.findDtoByFechaBetween(desde, hasta)).thenReturn(dtoMock);
 
         List<PedidoDto> resultado = pedidoService.findByFecha(fecha);
 
         assertEquals(2, resultado.size());
-        verify(pedidoRepository, times(1)).findByFechaBetween(desde, hasta);
-        verify(pedidoMapper, times(1)).toDtoList(pedidosMock);
+        verify(pedidoRepository, times(1)).findDtoByFechaBetween(desde, hasta);
+    }
+
+    // Test que comprueba que en un día reciente no se consulta el archivo
+    @Test
+    void testFindByFecha_Reciente() {
+        LocalDate hoy = LocalDate.now();
+        when(pedidoRepository.findDtoByFechaBetween(hoy.atStartOfDay(), hoy.atTime(LocalTime.MAX)))
+                .thenReturn(List.of(new PedidoDto(7L, 1L, null)));
+
+        assertEquals(1, pedidoService.findByFecha(hoy).size());
+        verifyNoInteractions(pedidoArchivadoRepository);
+    }
+
+    // Test que comprueba que en un día anterior al límite del archivo se unen ambas tablas por número de pedido
+    @Test
+    void testFindByFecha_Archivo() {
+        LocalDate fecha = LocalDate.now().minusYears(2);
+        LocalDateTime desde = fecha.atStartOfDay();
+        LocalDateTime hasta = fecha.atTime(LocalTime.MAX);
+        when(pedidoRepository.findDtoByFechaBetween(desde, hasta)).thenReturn(List.of(new PedidoDto(5L, 1L, null)));
+        when(pedidoArchivadoRepository.findDtoByFechaBetween(desde, hasta))
+                .thenReturn(List.of(new PedidoDto(3L, 1L, null), new PedidoDto(8L, 1L, null)));
+
+        List<PedidoDto> resultado = pedidoService.findByFecha(fecha);
+
+        assertEquals(List.of(3L, 5L, 8L), resultado.stream().map(PedidoDto::getNumPedido).toList());
+    }
+
+    // Test que comprueba que la exportación escribe un pedido por línea
+    @Test
+    void testExportNdjson() throws Exception {
+        when(pedidoRepository.streamAllDtos()).thenReturn(Stream.of(new PedidoDto(1L, 7L, null), new PedidoDto(2L, 7L, null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pedidoService.exportNdjson(out);
+
+        String[] lineas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lineas.length);
+        assertEquals(1L, objectMapper.readValue(lineas[0], PedidoDto.class).getNumPedido());
+        assertEquals(2L, objectMapper.readValue(lineas[1], PedidoDto.class).getNumPedido());
+    }
+
+    // Test que comprueba que la exportación intercala los pedidos archivados por número de pedido
+    @Test
+    void testExportNdjsonMezclaArchivados() throws Exception {
+        when(pedidoRepository.streamAllDtos()).thenReturn(Stream.of(new PedidoDto(3L, 7L, null), new PedidoDto(4L, 7L, null)));
+        when(pedidoArchivadoRepository.streamAllDtos())
+                .thenReturn(Stream.of(new PedidoDto(1L, 7L, null), new PedidoDto(2L, 7L, null), new PedidoDto(5L, 7L, null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pedidoService.exportNdjson(out);
+
+        List<Long> numeros = new ArrayList<>();
+        for (String linea : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            numeros.add(objectMapper.readValue(linea, PedidoDto.class).getNumPedido());
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), numeros);
+    }
+
+    // Test que comprueba que la creación masiva valida los clientes con una sola consulta y rechaza los inexistentes
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveBulk() {
+        List<PedidoCreateDto> entrada = Arrays.asList(
+                new PedidoCreateDto(1L), new PedidoCreateDto(99L), new PedidoCreateDto(1L), new PedidoCreateDto(null));
+
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        when(clienteRepository.findExistingIds(Set.of(1L, 99L))).thenReturn(List.of(1L));
+        when(pedidoMapper.toEntity(any(PedidoCreateDto.class))).thenAnswer(inv -> {
+            Cliente cliente = new Cliente();
+            cliente.setIdCliente(((PedidoCreateDto) inv.getArgument(0)).getIdCliente());
+            return new Pedido(cliente);
+        });
+        when(pedidoMapper.toDtoList(anyList())).thenAnswer(inv -> ((List<Pedido>) inv.getArgument(0)).stream()
+                .map(p -> new PedidoDto(p.getNumPedido(), p.getCliente().getIdCliente(), p.getFecha()))
+                .toList());
+
+        PedidoBulkResultDto resultado = pedidoService.saveBulk(entrada);
+
+        assertEquals(2, resultado.getCreados().size());
+        assertEquals(2, resultado.getRechazados().size());
+        assertEquals(1, resultado.getRechazados().get(0).getIndice());
+        assertEquals(3, resultado.getRechazados().get(1).getIndice());
+        // Una única consulta de clientes y un único insert por lote
+        verify(clienteRepository, times(1)).findExistingIds(anyCollection());
+        verify(clienteRepository, never()).findById(anyLong());
+        verify(pedidoRepository, times(1)).batchInsert(anyList());
+        // Los contadores del día se incrementan con un único delta agregado por cliente
+        ArgumentCaptor<Map<PedidoDiarioCliente.Clave, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(pedidoDiarioRepository, times(1)).sumar(deltas.capture());
+        assertEquals(1, deltas.getValue().size());
+        assertEquals(2L, deltas.getValue().values().iterator().next());
+    }
+
+    // Test que comprueba que, si un cliente se borra mientras se inserta el lote, el lote se reintenta
+    // fila a fila y solo se rechazan las filas de ese cliente
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveBulk_ClienteBorradoDuranteElLote() {
+        List<PedidoCreateDto> entrada = List.of(new PedidoCreateDto(1L), new PedidoCreateDto(2L), new PedidoCreateDto(1L));
+
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        // El lote ve los dos clientes, pero el cliente 2 se borra antes del INSERT y la clave ajena
+        // hace fallar el lote; al reintentar fila a fila el cliente 2 ya no existe
+        when(clienteRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(clienteRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+        when(clienteRepository.findExistingIds(Set.of(2L))).thenReturn(List.of());
+        when(pedidoMapper.toEntity(any(PedidoCreateDto.class))).thenAnswer(inv -> {
+            Cliente cliente = new Cliente();
+            cliente.setIdCliente(((PedidoCreateDto) inv.getArgument(0)).getIdCliente());
+            return new Pedido(cliente);
+        });
+        when(pedidoMapper.toDtoList(anyList())).thenAnswer(inv -> ((List<Pedido>) inv.getArgument(0)).stream()
+                .map(p -> new PedidoDto(p.getNumPedido(), p.getCliente().getIdCliente(), p.getFecha()))
+                .toList());
+        doThrow(new DataIntegrityViolationException("FK8pj2sue4r4kkbwnqy68n72brf"))
+                .when(pedidoRepository).batchInsert(argThat(l -> l.size() == 3));
+
+        PedidoBulkResultDto resultado = pedidoService.saveBulk(entrada);
+
+        assertEquals(2, resultado.getCreados().size());
+        assertEquals(1, resultado.getRechazados().size());
+        assertEquals(1, resultado.getRechazados().get(0).getIndice());
+        assertEquals("2", resultado.getRechazados().get(0).getClave());
+        // Un intento del lote y un reintento por cada fila con cliente existente
+        verify(pedidoRepository, times(1)).batchInsert(argThat(l -> l.size() == 3));
+        verify(pedidoRepository, times(2)).batchInsert(argThat(l -> l.size() == 1));
+    }
+
+    // Test que comprueba que el rango de días se convierte en [desde 00:00, día siguiente a hasta 00:00)
+    @Test
+    void testFindByRango() {
+        LocalDate desde = LocalDate.of(2025, 4, 1);
+        LocalDate hasta = LocalDate.of(2025, 4, 30);
+        List<PedidoDto> dtos = List.of(new PedidoDto(3L, 1L, null));
+
+        when(pedidoRepository.findDtoPageByFecha(desde.atStartOfDay(), LocalDate.of(2025, 5, 1).atStartOfDay(), 2L, Limit.of(11)))
+                .thenReturn(dtos);
+
+        CursorPageDto<PedidoDto> pagina = pedidoService.findByRango(desde, hasta, 2L, 10);
+
+        assertEquals(1, pagina.getItems().size());
+        assertNull(pagina.getNext());
+    }
+
+    // Test que comprueba que los pedidos de un cliente se paginan sin consultar el cliente si hay resultados
+    @Test
+    void testFindByCliente() {
+        List<PedidoDto> dtos = List.of(new PedidoDto(3L, 18L, null), new PedidoDto(4L, 18L, null));
+
+        when(pedidoRepository.findDtoPageByCliente(18L, 2L, Limit.of(2))).thenReturn(dtos);
+
+        Optional<CursorPageDto<PedidoDto>> pagina = pedidoService.findByCliente(18L, 2L, 1);
+
+        assertTrue(pagina.isPresent());
+        assertEquals(1, pagina.get().getItems().size());
+        assertEquals(CursorUtils.encode(3L), pagina.get().getNext());
+        verify(clienteRepository, never()).existsById(anyLong());
+    }
+
+    // Test que comprueba que las páginas de un cliente y de un rango antiguo mezclan los pedidos archivados
+    @Test
+    void testPaginasConPedidosArchivados() {
+        when(pedidoRepository.findDtoPageByCliente(18L, 0L, Limit.of(3)))
+                .thenReturn(List.of(new PedidoDto(5L, 18L, null), new PedidoDto(9L, 18L, null)));
+        when(pedidoArchivadoRepository.findDtoPageByCliente(18L, 0L, Limit.of(3)))
+                .thenReturn(List.of(new PedidoDto(2L, 18L, null), new PedidoDto(7L, 18L, null)));
+
+        CursorPageDto<PedidoDto> pagina = pedidoService.findByCliente(18L, 0L, 2).orElseThrow();
+
+        assertEquals(List.of(2L, 5L), pagina.getItems().stream().map(PedidoDto::getNumPedido).toList());
+        assertEquals(CursorUtils.encode(5L), pagina.getNext());
+
+        LocalDate antiguo = LocalDate.now().minusYears(3);
+        LocalDateTime inicio = antiguo.atStartOfDay();
+        LocalDateTime fin = antiguo.plusDays(1).atStartOfDay();
+        when(pedidoRepository.findDtoPageByFecha(inicio, fin, 0L, Limit.of(51))).thenReturn(List.of(new PedidoDto(8L, 1L, null)));
+        when(pedidoArchivadoRepository.findDtoPageByFecha(inicio, fin, 0L, Limit.of(51))).thenReturn(List.of(new PedidoDto(3L, 1L, null)));
+
+        assertEquals(List.of(3L, 8L), pedidoService.findByRango(antiguo, antiguo, 0L, 50).getItems().stream()
+                .map(PedidoDto::getNumPedido).toList());
+
+        // Un rango posterior al límite del archivo no lo consulta
+        LocalDate hoy = LocalDate.now();
+        pedidoService.findByRango(hoy, hoy, 0L, 50);
+        verify(pedidoArchivadoRepository, never()).findDtoPageByFecha(eq(hoy.atStartOfDay()), any(), anyLong(), any());
+    }
+
+    // Test que comprueba que una página vacía de un cliente inexistente devuelve vacío
+    @Test
+    void testFindByCliente_ClienteNotExists() {
+        when(pedidoRepository.findDtoPageByCliente(99L, 0L, Limit.of(51))).thenReturn(List.of());
+        when(clienteRepository.existsById(99L)).thenReturn(false);
+
+        assertTrue(pedidoService.findByCliente(99L, 0L, 50).isEmpty());
+    }
+
+    // Test que comprueba que el recuento diario se lee de los contadores precalculados
+    @Test
+    void testCountByDia() {
+        LocalDate dia = LocalDate.of(2025, 4, 19);
+        List<PedidosPorDiaDto> totales = List.of(new PedidosPorDiaDto(dia, 5));
+        List<PedidosPorDiaDto> totalesCliente = List.of(new PedidosPorDiaDto(dia, 2));
+
+        when(pedidoDiarioRepository.findPorDia(dia, dia)).thenReturn(totales);
+        when(pedidoDiarioRepository.findPorDiaYCliente(18L, dia, dia)).thenReturn(totalesCliente);
+
+        assertEquals(totales, pedidoService.countByDia(dia, dia, null));
+        assertEquals(totalesCliente, pedidoService.countByDia(dia, dia, 18L));
     }
 }
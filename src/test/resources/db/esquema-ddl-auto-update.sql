@@ -0,0 +1,12 @@
+-- Esquema que generaba Hibernate 6.6 con ddl-auto: update para las entidades Cliente y Pedido antes de
+-- usar Flyway (sin índices propios, sin columna version y sin contadores), con algunos datos
+create table Cliente (idCliente bigint not null auto_increment, apellidos varchar(255), calle varchar(255), dni varchar(255) not null, email varchar(255), municipio varchar(255), nombre varchar(255), provincia varchar(255), primary key (idCliente)) engine=InnoDB;
+create table Pedidos (fecha datetime(6), id_cliente bigint not null, numPedido bigint not null auto_increment, primary key (numPedido)) engine=InnoDB;
+alter table Cliente add constraint UKqd514pd71j0t1mabyvi78q977 unique (dni);
+alter table Pedidos add constraint FK8pj2sue4r4kkbwnqy68n72brf foreign key (id_cliente) references Cliente (idCliente);
+
+insert into Cliente (idCliente, dni, nombre, apellidos, email, calle, municipio, provincia)
+values (1, '10000001A', 'Nombre1', 'Apellido1', 'cliente1@gmail.com', 'Calle 1', 'Madrid', 'Madrid'),
+       (2, '10000002A', 'Nombre2', 'Apellido2', 'cliente2@gmail.com', 'Calle 2', 'Getafe', 'Madrid');
+insert into Pedidos (id_cliente, fecha)
+values (1, '2025-04-19 10:00:00'), (1, '2025-04-19 12:00:00'), (2, '2025-04-19 18:00:00'), (1, '2025-04-20 09:00:00');